@@ -0,0 +1,95 @@
+package com.qual.store.converter;
+
+import com.qual.store.converter.lazyConverter.OrderWithOrderItemsConverter;
+import com.qual.store.dto.OrderDto;
+import com.qual.store.dto.lazyDto.OrderWithOrderItemDto;
+import com.qual.store.model.AppUser;
+import com.qual.store.model.Category;
+import com.qual.store.model.Order;
+import com.qual.store.model.OrderItem;
+import com.qual.store.model.Product;
+import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.service.OrderItemService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// an order of ORDER_ITEMS items. OrderWithOrderItemsConverter matches them against every order item of the store,
+// storeOrderItems of them, so its time grows with the store rather than with the order
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderConverterBenchmark {
+
+    private static final int ORDER_ITEMS = 10;
+
+    @Param({"100", "10000"})
+    private int storeOrderItems;
+
+    private OrderConverter orderConverter;
+    private OrderWithOrderItemsConverter orderWithOrderItemsConverter;
+    private Order order;
+
+    @Setup
+    public void setup() {
+        Category category = Category.builder().name("category").build();
+        category.setId(1L);
+        AppUser user = AppUser.builder().username("user").firstName("First").lastName("Last")
+                .email("user@example.com").build();
+        user.setId(1L);
+
+        List<OrderItem> allOrderItems = new ArrayList<>();
+        for (long i = 1; i <= storeOrderItems; i++) {
+            Product product = Product.builder().name("product " + i).price(10).unitsInStock(100)
+                    .category(category).build();
+            product.setId(i);
+            OrderItem orderItem = OrderItem.builder().quantity(1).product(product).build();
+            orderItem.setId(i);
+            allOrderItems.add(orderItem);
+        }
+
+        Set<OrderItem> orderItems = new HashSet<>();
+        order = Order.builder()
+                .deliveryPrice(100)
+                .startDate(LocalDate.now())
+                .deliveryDate(LocalDate.now().plusDays(7))
+                .status(OrderStatus.PLACED)
+                .user(user)
+                .orderItems(orderItems)
+                .build();
+        order.setId(1L);
+        // the last items of the store, the ones a linear scan finds last
+        for (int i = storeOrderItems - ORDER_ITEMS; i < storeOrderItems; i++) {
+            OrderItem orderItem = allOrderItems.get(i);
+            orderItem.setOrder(order);
+            orderItems.add(orderItem);
+        }
+
+        ProductRepository productRepository = Stubs.stub(ProductRepository.class, Map.of());
+        OrderItemService orderItemService = Stubs.stub(OrderItemService.class,
+                Map.of("getAllOrderItems", allOrderItems));
+        orderConverter = new OrderConverter(null, null);
+        orderWithOrderItemsConverter = new OrderWithOrderItemsConverter(null, null, orderItemService,
+                new OrderItemConverter(productRepository, null));
+    }
+
+    @Benchmark
+    public OrderDto orderConverter() {
+        return orderConverter.convertModelToDto(order);
+    }
+
+    @Benchmark
+    public OrderWithOrderItemDto orderWithOrderItemsConverter() {
+        return orderWithOrderItemsConverter.convertModelToDto(order);
+    }
+}
@@ -0,0 +1,88 @@
+package com.qual.store.converter;
+
+import com.qual.store.dto.ProductDto;
+import com.qual.store.model.AppUser;
+import com.qual.store.model.Category;
+import com.qual.store.model.ImageModel;
+import com.qual.store.model.OrderItem;
+import com.qual.store.model.Product;
+import com.qual.store.model.Review;
+import com.qual.store.utils.ProductRatingCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// convertModelToDto of a product with children reviews, images, order items and favorites each, as loaded with
+// its entity graph
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductConverterBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int children;
+
+    private ProductConverter productConverter;
+    private Product product;
+
+    @Setup
+    public void setup() {
+        productConverter = new ProductConverter(null, null, null, null, new ProductRatingCalculator());
+
+        Category category = Category.builder().name("category").build();
+        category.setId(1L);
+        AppUser owner = AppUser.builder().username("admin").build();
+        owner.setId(1L);
+
+        List<Review> reviews = new ArrayList<>();
+        Set<ImageModel> images = new HashSet<>();
+        Set<OrderItem> orderItems = new HashSet<>();
+        Set<AppUser> favorites = new HashSet<>();
+        for (long i = 1; i <= children; i++) {
+            Review review = Review.builder().rating(i % 5 + 1).title("title " + i).build();
+            review.setId(i);
+            reviews.add(review);
+
+            ImageModel image = ImageModel.builder().name("image-" + i + ".jpg").contentHash("hash" + i).build();
+            image.setId(i);
+            images.add(image);
+
+            OrderItem orderItem = OrderItem.builder().quantity(1).build();
+            orderItem.setId(i);
+            orderItems.add(orderItem);
+
+            AppUser user = AppUser.builder().username("user" + i).build();
+            user.setId(i + 1);
+            favorites.add(user);
+        }
+
+        product = Product.builder()
+                .name("product")
+                .description("description")
+                .price(10)
+                .unitsInStock(100)
+                .createTime(new Date())
+                .updateTime(new Date())
+                .category(category)
+                .user(owner)
+                .reviews(reviews)
+                .images(images)
+                .orderItems(orderItems)
+                .favoriteByUsers(favorites)
+                .build();
+        product.setId(1L);
+    }
+
+    @Benchmark
+    public ProductDto convertModelToDto() {
+        return productConverter.convertModelToDto(product);
+    }
+}
@@ -0,0 +1,23 @@
+package com.qual.store.converter;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+
+// repositories and services the converters are built with, answering by method name: the benchmarks measure the
+// conversion, not the database. Unanswered methods return an empty Optional or null
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (answers.containsKey(method.getName())) {
+                        return answers.get(method.getName());
+                    }
+                    return method.getReturnType() == Optional.class ? Optional.empty() : null;
+                }));
+    }
+}
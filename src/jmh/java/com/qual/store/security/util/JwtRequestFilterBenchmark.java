@@ -0,0 +1,71 @@
+package com.qual.store.security.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the token work JwtRequestFilter does per authenticated request, cycling over the tokens of TOKENS users;
+// legacy* parsed every token three times with a new parser each time
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtRequestFilterBenchmark {
+
+    private static final int TOKENS = 1024;
+
+    private JwtTokenUtil cached;
+    private JwtTokenUtil uncached;
+    private LegacyJwtTokenUtil legacy;
+
+    private String[] tokens;
+    private UserDetails[] users;
+    private int next;
+
+    @Setup
+    public void setup() {
+        JwtSigningKeys signingKeys = new JwtSigningKeys("", "", "");
+        cached = new JwtTokenUtil(signingKeys, 10_000);
+        uncached = new JwtTokenUtil(signingKeys, 0);
+        legacy = new LegacyJwtTokenUtil(signingKeys.getSigningKey());
+
+        tokens = new String[TOKENS];
+        users = new UserDetails[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            users[i] = new User("user" + i, "", List.of(new SimpleGrantedAuthority("USER")));
+            tokens[i] = cached.generateToken(users[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        int i = next();
+        legacy.getUsernameFromToken(tokens[i]);
+        return legacy.validateToken(tokens[i], users[i]);
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        int i = next();
+        VerifiedToken token = uncached.parseToken(tokens[i]);
+        return uncached.validateToken(token, users[i]);
+    }
+
+    @Benchmark
+    public boolean cachedParse() {
+        int i = next();
+        VerifiedToken token = cached.parseToken(tokens[i]);
+        return cached.validateToken(token, users[i]);
+    }
+
+    private int next() {
+        next = (next + 1) & (TOKENS - 1);
+        return next;
+    }
+}
@@ -0,0 +1,39 @@
+package com.qual.store.security.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.function.Function;
+
+// the token parsing of JwtRequestFilter before it verified a token once, kept as the baseline of
+// JwtRequestFilterBenchmark: a parser is built and the signature verified for every claim read
+final class LegacyJwtTokenUtil {
+
+    private final Key key;
+
+    LegacyJwtTokenUtil(Key key) {
+        this.key = key;
+    }
+
+    String getUsernameFromToken(String token) {
+        return getClaimFromToken(token, Claims::getSubject);
+    }
+
+    Boolean validateToken(String token, UserDetails userDetails) {
+        final String username = getUsernameFromToken(token);
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    }
+
+    private Boolean isTokenExpired(String token) {
+        final Date expiration = getClaimFromToken(token, Claims::getExpiration);
+        return expiration.before(new Date());
+    }
+
+    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
+        final Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return claimsResolver.apply(claims);
+    }
+}
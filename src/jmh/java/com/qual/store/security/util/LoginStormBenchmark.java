@@ -0,0 +1,68 @@
+package com.qual.store.security.util;
+
+import com.qual.store.exceptions.PasswordHashingBusyException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// 16 threads log in while 4 others browse the catalog (a fixed amount of CPU work). With direct hashing every
+// login thread runs BCrypt and browse competes with all of them for the CPUs; with bounded hashing two workers
+// hash, the other logins are rejected, and browse should stay close to its latency without the storm.
+// The hashing statistics are printed after every trial.
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Group)
+public class LoginStormBenchmark {
+
+    private static final String PASSWORD = "password";
+
+    @Param({"direct", "bounded"})
+    private String hashing;
+
+    private PasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setup() {
+        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder(10);
+        encodedPassword = bCryptPasswordEncoder.encode(PASSWORD);
+        passwordEncoder = "bounded".equals(hashing)
+                ? new BoundedPasswordEncoder(bCryptPasswordEncoder, 2, 32)
+                : bCryptPasswordEncoder;
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder) {
+            System.out.println(boundedPasswordEncoder.getStatistics());
+            boundedPasswordEncoder.shutdown();
+        }
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(16)
+    public boolean login() {
+        try {
+            return passwordEncoder.matches(PASSWORD, encodedPassword);
+        } catch (PasswordHashingBusyException e) {
+            // a rejected client gets its 503 and retries a little later
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            return false;
+        }
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(4)
+    public void browse() {
+        Blackhole.consumeCPU(10_000);
+    }
+}
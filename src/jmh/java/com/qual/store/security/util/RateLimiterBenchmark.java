@@ -0,0 +1,79 @@
+package com.qual.store.security.util;
+
+import com.qual.store.security.config.RateLimitProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// what RateLimitFilter adds to a request, which should stay well under a microsecond: an unlimited path, and
+// a limited one whose per-user and per-IP buckets are looked up among CLIENTS clients, from 4 threads
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private RateLimiter rateLimiter;
+    private String[] users;
+    private String[] ips;
+
+    @State(Scope.Thread)
+    public static class Client {
+        int next;
+    }
+
+    @Setup
+    public void setup() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("login", group(List.of("/auth/login", "/auth/register")));
+        properties.getGroups().put("search", group(List.of("/api/products/search", "/api/orders/search")));
+        properties.getGroups().put("images", group(List.of("/api/images/**")));
+        rateLimiter = new RateLimiter(properties);
+
+        users = new String[CLIENTS];
+        ips = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            users[i] = "user" + i;
+            ips[i] = "10.0." + (i / 256) + "." + (i % 256);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        rateLimiter.shutdown();
+    }
+
+    @Benchmark
+    public long unlimitedPath(Client client) {
+        int i = client.next = (client.next + 1) % CLIENTS;
+        return rateLimiter.tryAcquire("GET", "/api/products/42", users[i], ips[i]);
+    }
+
+    @Benchmark
+    public long limitedPath(Client client) {
+        int i = client.next = (client.next + 1) % CLIENTS;
+        return rateLimiter.tryAcquire("GET", "/api/products/search", users[i], ips[i]);
+    }
+
+    // generous enough never to reject, so every call takes its tokens
+    private static RateLimitProperties.Group group(List<String> paths) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(1_000_000_000L);
+        limit.setPeriod(Duration.ofSeconds(1));
+
+        RateLimitProperties.Group group = new RateLimitProperties.Group();
+        group.setPaths(paths);
+        group.setMethods(Set.of());
+        group.setPerUser(limit);
+        group.setPerIp(limit);
+        return group;
+    }
+}
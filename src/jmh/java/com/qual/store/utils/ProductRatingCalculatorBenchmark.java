@@ -0,0 +1,39 @@
+package com.qual.store.utils;
+
+import com.qual.store.model.Product;
+import com.qual.store.model.Review;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the rating of a product with reviews reviews, computed for every product converted to a DTO
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductRatingCalculatorBenchmark {
+
+    @Param({"0", "10", "1000"})
+    private int reviews;
+
+    private final ProductRatingCalculator productRatingCalculator = new ProductRatingCalculator();
+    private Product product;
+
+    @Setup
+    public void setup() {
+        List<Review> productReviews = new ArrayList<>();
+        for (int i = 0; i < reviews; i++) {
+            productReviews.add(Review.builder().rating(i % 5 + 1).build());
+        }
+        product = Product.builder().name("product").reviews(productReviews).build();
+    }
+
+    @Benchmark
+    public double calculateRating() {
+        return productRatingCalculator.calculateRating(product);
+    }
+}
@@ -0,0 +1,58 @@
+package com.qual.store.utils.images;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+// one MB of image per operation, so the time and gc.alloc.rate.norm of every benchmark are per MB; the content is
+// deflated the way earlier versions stored it in image_model.pic_byte, which only the legacy migration still reads
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageUtilsBenchmark {
+
+    private static final int MEGABYTE = 1024 * 1024;
+
+    private byte[] compressed;
+
+    @Setup
+    public void setup() {
+        byte[] image = new byte[MEGABYTE];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) ((i / 3) % 251 ^ (i % 7));
+        }
+        Deflater deflater = new Deflater();
+        deflater.setInput(image);
+        deflater.finish();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            outputStream.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        compressed = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] legacyDecompressBytes() throws DataFormatException {
+        return LegacyImageUtils.decompressBytes(compressed);
+    }
+
+    // the migration streams the inflated content into the image storage instead of collecting it
+    @Benchmark
+    public long decompressing() throws IOException {
+        try (InputStream input = ImageUtils.decompressing(new ByteArrayInputStream(compressed))) {
+            return input.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.qual.store.utils.images;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// ImageUtils.decompressBytes before images were kept in the image storage, kept as the baseline of ImageUtilsBenchmark
+final class LegacyImageUtils {
+
+    private LegacyImageUtils() {
+    }
+
+    static byte[] decompressBytes(byte[] data) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
+        byte[] buffer = new byte[1024];
+        while (!inflater.finished()) {
+            int count = inflater.inflate(buffer);
+            outputStream.write(buffer, 0, count);
+        }
+        return outputStream.toByteArray();
+    }
+}
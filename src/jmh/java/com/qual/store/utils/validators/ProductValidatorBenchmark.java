@@ -0,0 +1,43 @@
+package com.qual.store.utils.validators;
+
+import com.qual.store.exceptions.ValidatorException;
+import com.qual.store.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// a valid product, validated on every save and update, and an invalid one, which throws
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductValidatorBenchmark {
+
+    private final ProductValidator productValidator = new ProductValidator();
+    private Product valid;
+    private Product blankName;
+
+    @Setup
+    public void setup() {
+        valid = Product.builder().name("product").build();
+        blankName = Product.builder().name("   ").build();
+    }
+
+    @Benchmark
+    public Product validProduct() {
+        productValidator.validate(valid);
+        return valid;
+    }
+
+    @Benchmark
+    public String invalidProduct() {
+        try {
+            productValidator.validate(blankName);
+            return null;
+        } catch (ValidatorException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.qual.store.load;
+
+import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.model.enums.RoleName;
+import com.qual.store.storage.ImageStorage;
+import com.qual.store.storage.StoredImageContent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongFunction;
+
+// grows the catalog with plain JDBC batches; ids are assigned here so reviews, images and orders can reference them
+class DataSeeder {
+
+    static final String[] WORDS = {"oak", "steel", "glass", "linen", "ceramic", "walnut", "copper", "wool",
+            "marble", "bamboo", "chair", "table", "lamp", "desk", "shelf", "sofa", "mug", "rug", "vase", "clock",
+            "mirror", "stool", "bench", "basket", "blanket", "pillow", "frame", "candle", "bowl", "kettle"};
+    static final int CATEGORIES = 20;
+    static final int IMAGE_CONTENTS = 16;
+
+    private static final int PRODUCTS_PER_USER = 100;
+    private static final int MIN_USERS = 200;
+    private static final int PRODUCTS_PER_ORDER = 10;
+    private static final int ITEMS_PER_ORDER = 2;
+    private static final int BATCH_SIZE = 5_000;
+
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ImageStorage imageStorage;
+    private final Random random = new Random(42);
+    private final List<StoredImageContent> imageContents = new ArrayList<>();
+
+    private String password;
+    private int users;
+    private int products;
+    private int orders;
+
+    DataSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, ImageStorage imageStorage) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.imageStorage = imageStorage;
+    }
+
+    static String username(long userId) {
+        return "user" + userId;
+    }
+
+    static String imageName(long productId) {
+        return "product-" + productId + ".jpg";
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    int getProducts() {
+        return products;
+    }
+
+    // seeds the rows missing for a catalog of the given size: one user per 100 products, one review and one image
+    // per product and one placed order of two items per ten products
+    void seedUpTo(int productCount) {
+        long start = System.nanoTime();
+        if (products == 0) {
+            seedCategories();
+            seedImageContents();
+            password = passwordEncoder.encode("password");
+        }
+        int userCount = Math.max(MIN_USERS, productCount / PRODUCTS_PER_USER);
+        if (userCount > users) {
+            seedUsers(users + 1, userCount);
+            users = userCount;
+        }
+        if (productCount > products) {
+            seedProducts(products + 1, productCount);
+            products = productCount;
+        }
+        int orderCount = productCount / PRODUCTS_PER_ORDER;
+        if (orderCount > orders) {
+            seedOrders(orderCount - orders);
+            orders = orderCount;
+        }
+        log.info("seeded {} products, {} users and {} orders in {} s",
+                products, users, orders, (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    private void seedCategories() {
+        insert("insert into categories (id, name) values (?, ?)", 1, CATEGORIES,
+                id -> new Object[]{id, "Category " + id});
+    }
+
+    private void seedImageContents() {
+        for (int i = 0; i < IMAGE_CONTENTS; i++) {
+            byte[] content = new byte[8 * 1024 + i * 4 * 1024];
+            random.nextBytes(content);
+            imageContents.add(imageStorage.store(new ByteArrayInputStream(content)));
+        }
+    }
+
+    private void seedUsers(long from, long to) {
+        insert("insert into app_users (id, username, first_name, last_name, email, password, role) " +
+                        "values (?, ?, ?, ?, ?, ?, ?)", from, to,
+                id -> new Object[]{id, username(id), "First" + id, "Last" + id, username(id) + "@load.test",
+                        password, RoleName.USER.name()});
+    }
+
+    private void seedProducts(long from, long to) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        insert("insert into products (id, name, description, price, units_in_stock, discount_percentage, " +
+                        "create_time, update_time, category_id, user_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", from, to,
+                id -> new Object[]{id, word() + " " + word() + " " + id, "Made of " + word() + " and " + word(),
+                        5 + random.nextInt(500), 1_000_000_000L, id % 5 == 0 ? 10.0 : 0.0, now, now,
+                        id % CATEGORIES + 1, id % users + 1});
+        insert("insert into reviews (id, rating, title, comment, date, product_id, user_id) " +
+                        "values (?, ?, ?, ?, ?, ?, ?)", from, to,
+                id -> new Object[]{id, 1 + random.nextInt(5), "Review " + id, "Nice " + word(), now, id,
+                        random.nextInt(users) + 1});
+        insert("insert into image_model (id, name, type, content_hash, content_size, product_id) " +
+                        "values (?, ?, ?, ?, ?, ?)", from, to,
+                id -> {
+                    StoredImageContent content = imageContents.get((int) (id % IMAGE_CONTENTS));
+                    return new Object[]{id, imageName(id), "image/jpeg", content.getContentHash(), content.getSize(), id};
+                });
+    }
+
+    // the load itself places orders, so new orders continue after the highest id in the table
+    private void seedOrders(int count) {
+        long firstOrder = nextId("orders");
+        long firstItem = nextId("order_items");
+        Date today = Date.valueOf(LocalDate.now());
+        insert("insert into orders (id, delivery_price, start_date, delivery_date, status, user_id) " +
+                        "values (?, ?, ?, ?, ?, ?)", firstOrder, firstOrder + count - 1,
+                id -> new Object[]{id, 10, today, today,
+                        (id % 2 == 0 ? OrderStatus.PLACED : OrderStatus.DELIVERED).name(), random.nextInt(users) + 1});
+        insert("insert into order_items (id, quantity, product_id, order_id) values (?, ?, ?, ?)",
+                firstItem, firstItem + (long) count * ITEMS_PER_ORDER - 1,
+                id -> new Object[]{id, 1 + random.nextInt(3), random.nextInt(products) + 1,
+                        firstOrder + (id - firstItem) / ITEMS_PER_ORDER});
+    }
+
+    private void insert(String sql, long from, long to, LongFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = from; id <= to; id++) {
+            batch.add(row.apply(id));
+            if (batch.size() == BATCH_SIZE || id == to) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        restartIdentity(sql.substring("insert into ".length(), sql.indexOf(' ', "insert into ".length())));
+    }
+
+    // explicit ids do not move the identity columns, so the application would collide with the seeded rows
+    private void restartIdentity(String table) {
+        jdbcTemplate.execute("alter table " + table + " alter column id restart with " + nextId(table));
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
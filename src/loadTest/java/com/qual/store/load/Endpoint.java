@@ -0,0 +1,36 @@
+package com.qual.store.load;
+
+// the weights are the share in percent of a virtual user's actions
+enum Endpoint {
+    BROWSE("GET /api/products/display", 30),
+    CATEGORY("GET /api/products/category", 10),
+    PRODUCT("GET /api/products/{productId}", 20),
+    SEARCH("GET /api/products/search", 15),
+    ADD_TO_BASKET("POST /api/orders/{productId}", 10),
+    BASKET("GET /api/orders/me/basket", 5),
+    CHECKOUT("PUT /api/orders/{orderId}", 5),
+    IMAGE("GET /api/images/download", 5);
+
+    private final String label;
+    private final int weight;
+
+    Endpoint(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    String getLabel() {
+        return label;
+    }
+
+    static Endpoint pick(int percent) {
+        int cumulative = 0;
+        for (Endpoint endpoint : values()) {
+            cumulative += endpoint.weight;
+            if (percent < cumulative) {
+                return endpoint;
+            }
+        }
+        return BROWSE;
+    }
+}
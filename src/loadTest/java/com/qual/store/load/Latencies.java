@@ -0,0 +1,54 @@
+package com.qual.store.load;
+
+import java.util.Arrays;
+
+// every sample is kept so p999 is exact; each virtual user fills its own instance and they are merged at the end
+class Latencies {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+    private boolean sorted;
+
+    void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        sorted = false;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    void addAll(Latencies other) {
+        if (count + other.count > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + other.count));
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+        sorted = false;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    long percentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * count);
+        return samples[Math.max(0, Math.min(count, rank) - 1)];
+    }
+}
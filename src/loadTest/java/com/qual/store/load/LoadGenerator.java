@@ -0,0 +1,167 @@
+package com.qual.store.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// closed-loop virtual users without think time, each one signed in as its own seeded user with its own basket
+class LoadGenerator {
+
+    private static final Pattern ORDER_ID = Pattern.compile("\"orderId\"\\s*:\\s*(\\d+)");
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_BROWSED_PAGE = 50;
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+
+    LoadGenerator(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    LoadReport run(int products, List<String> tokens, Duration warmup, Duration duration) throws Exception {
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(tokens.size());
+        try {
+            List<Future<Map<Endpoint, Latencies>>> results = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                VirtualUser virtualUser = new VirtualUser(tokens.get(i), products, new SplittableRandom(i),
+                        measureFrom, measureUntil);
+                results.add(executor.submit(virtualUser::run));
+            }
+            Map<Endpoint, Latencies> latencies = new EnumMap<>(Endpoint.class);
+            for (Endpoint endpoint : Endpoint.values()) {
+                latencies.put(endpoint, new Latencies());
+            }
+            for (Future<Map<Endpoint, Latencies>> result : results) {
+                result.get().forEach((endpoint, userLatencies) -> latencies.get(endpoint).addAll(userLatencies));
+            }
+            return new LoadReport(products, tokens.size(), duration, latencies);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class VirtualUser {
+
+        private final String authorization;
+        private final int products;
+        private final SplittableRandom random;
+        private final long measureFrom;
+        private final long measureUntil;
+        private final Map<Endpoint, Latencies> latencies = new EnumMap<>(Endpoint.class);
+        private Long basketOrderId;
+
+        VirtualUser(String token, int products, SplittableRandom random, long measureFrom, long measureUntil) {
+            this.authorization = "Bearer " + token;
+            this.products = products;
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            for (Endpoint endpoint : Endpoint.values()) {
+                latencies.put(endpoint, new Latencies());
+            }
+        }
+
+        Map<Endpoint, Latencies> run() {
+            while (System.nanoTime() < measureUntil && !Thread.currentThread().isInterrupted()) {
+                Endpoint endpoint = Endpoint.pick(random.nextInt(100));
+                switch (endpoint) {
+                    case BROWSE -> get(endpoint, "/api/products/display?pageSize=" + PAGE_SIZE +
+                            "&pageNumber=" + random.nextInt(Math.max(1, Math.min(MAX_BROWSED_PAGE, products / PAGE_SIZE))));
+                    case CATEGORY -> get(endpoint, "/api/products/category?pageSize=" + PAGE_SIZE +
+                            "&categoryId=" + (random.nextInt(DataSeeder.CATEGORIES) + 1) +
+                            "&pageNumber=" + random.nextInt(MAX_BROWSED_PAGE));
+                    case PRODUCT -> get(endpoint, "/api/products/" + productId());
+                    case SEARCH -> get(endpoint, "/api/products/search?limit=" + PAGE_SIZE + "&name=" +
+                            DataSeeder.WORDS[random.nextInt(DataSeeder.WORDS.length)]);
+                    case ADD_TO_BASKET -> addToBasket();
+                    case BASKET -> get(endpoint, "/api/orders/me/basket");
+                    case CHECKOUT -> checkout();
+                    case IMAGE -> get(endpoint, "/api/images/download?name=" + DataSeeder.imageName(productId()));
+                }
+            }
+            return latencies;
+        }
+
+        private void addToBasket() {
+            HttpResponse<String> response = send(Endpoint.ADD_TO_BASKET, request("/api/orders/" + productId() + "?quantity=1")
+                    .POST(HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.ofString());
+            if (response != null && response.statusCode() == 201) {
+                Matcher matcher = ORDER_ID.matcher(response.body());
+                if (matcher.find()) {
+                    basketOrderId = Long.valueOf(matcher.group(1));
+                }
+            }
+        }
+
+        private void checkout() {
+            if (basketOrderId == null) {
+                addToBasket();
+                return;
+            }
+            for (String status : new String[]{"CHECKOUT", "PLACED"}) {
+                HttpResponse<Void> response = send(Endpoint.CHECKOUT, request("/api/orders/" + basketOrderId +
+                        "?status=" + status).PUT(HttpRequest.BodyPublishers.noBody()), HttpResponse.BodyHandlers.discarding());
+                if (response == null || response.statusCode() != 200) {
+                    break;
+                }
+            }
+            basketOrderId = null;
+        }
+
+        private void get(Endpoint endpoint, String path) {
+            send(endpoint, request(path).GET(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", authorization);
+        }
+
+        // requests of the warmup are sent but not recorded; failures count as errors without a latency
+        private <T> HttpResponse<T> send(Endpoint endpoint, HttpRequest.Builder request, HttpResponse.BodyHandler<T> bodyHandler) {
+            long start = System.nanoTime();
+            HttpResponse<T> response = null;
+            try {
+                response = httpClient.send(request.build(), bodyHandler);
+            } catch (IOException e) {
+                // recorded as an error below
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            long end = System.nanoTime();
+            if (start >= measureFrom && end <= measureUntil) {
+                if (response != null && response.statusCode() < 400) {
+                    latencies.get(endpoint).record(end - start);
+                } else {
+                    latencies.get(endpoint).error();
+                }
+            }
+            return response;
+        }
+
+        private long productId() {
+            return random.nextInt(products) + 1;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.qual.store.load;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+class LoadReport {
+
+    private final int products;
+    private final int virtualUsers;
+    private final Duration duration;
+    private final Map<Endpoint, Latencies> latencies;
+
+    LoadReport(int products, int virtualUsers, Duration duration, Map<Endpoint, Latencies> latencies) {
+        this.products = products;
+        this.virtualUsers = virtualUsers;
+        this.duration = duration;
+        this.latencies = latencies;
+    }
+
+    Map<Endpoint, Latencies> getLatencies() {
+        return latencies;
+    }
+
+    static String markdownHeader() {
+        return "| products | endpoint | requests | errors | req/s | p50 ms | p99 ms | p999 ms |\n" +
+                "|---:|---|---:|---:|---:|---:|---:|---:|\n";
+    }
+
+    static String csvHeader() {
+        return "products,virtual_users,endpoint,requests,errors,requests_per_second,p50_ms,p99_ms,p999_ms\n";
+    }
+
+    String toMarkdown() {
+        StringBuilder table = new StringBuilder();
+        latencies.forEach((endpoint, endpointLatencies) -> table.append(String.format(Locale.ROOT,
+                "| %d | %s | %d | %d | %.1f | %.2f | %.2f | %.2f |%n", products, endpoint.getLabel(),
+                endpointLatencies.getCount(), endpointLatencies.getErrors(), throughput(endpointLatencies),
+                millis(endpointLatencies, 50), millis(endpointLatencies, 99), millis(endpointLatencies, 99.9))));
+        return table.toString();
+    }
+
+    String toCsv() {
+        StringBuilder csv = new StringBuilder();
+        latencies.forEach((endpoint, endpointLatencies) -> csv.append(String.format(Locale.ROOT,
+                "%d,%d,%s,%d,%d,%.1f,%.3f,%.3f,%.3f%n", products, virtualUsers, endpoint.getLabel(),
+                endpointLatencies.getCount(), endpointLatencies.getErrors(), throughput(endpointLatencies),
+                millis(endpointLatencies, 50), millis(endpointLatencies, 99), millis(endpointLatencies, 99.9))));
+        return csv.toString();
+    }
+
+    private double throughput(Latencies endpointLatencies) {
+        return endpointLatencies.getCount() * 1_000.0 / duration.toMillis();
+    }
+
+    private static double millis(Latencies endpointLatencies, double percentile) {
+        return endpointLatencies.percentileNanos(percentile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,116 @@
+package com.qual.store.load;
+
+import com.qual.store.search.ProductSearchIndexer;
+import com.qual.store.security.util.JwtTokenUtil;
+import com.qual.store.storage.ImageStorage;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// drives the whole application over HTTP against an embedded database grown to each catalog size in turn;
+// ./gradlew loadTest -PloadScales=10000,100000,1000000 -PloadUsers=32 -PloadDuration=60 -PloadWarmup=15
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./build/load/store;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "spring.docker.compose.enabled=false",
+        "security.rate-limit.enabled=false",
+        "store.images.location=./build/load/images"
+})
+class StoreLoadTest {
+
+    private static final Path REPORTS = Path.of("build", "reports", "load");
+
+    private static final Logger log = LoggerFactory.getLogger(StoreLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ImageStorage imageStorage;
+    @Autowired
+    private JwtTokenUtil jwtTokenUtil;
+    @Autowired
+    private ProductSearchIndexer productSearchIndexer;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void loadTest() throws Exception {
+        int[] scales = Arrays.stream(System.getProperty("loadScales", "10000,100000,1000000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .sorted()
+                .toArray();
+        int virtualUsers = Integer.getInteger("loadUsers", 32);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("loadDuration", 60));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("loadWarmup", 15));
+
+        DataSeeder dataSeeder = new DataSeeder(jdbcTemplate, passwordEncoder, imageStorage);
+        LoadGenerator loadGenerator = new LoadGenerator("http://localhost:" + port);
+        List<LoadReport> reports = new ArrayList<>();
+        for (int scale : scales) {
+            dataSeeder.seedUpTo(scale);
+            // the rows were written behind the application's back
+            productSearchIndexer.rebuildIndex();
+            cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+
+            LoadReport report = loadGenerator.run(scale, tokens(virtualUsers, dataSeeder.getUsers()), warmup, duration);
+            log.info("{} products, {} virtual users, {} s:\n{}{}", scale, virtualUsers, duration.toSeconds(),
+                    LoadReport.markdownHeader(), report.toMarkdown());
+            reports.add(report);
+        }
+        writeReports(reports);
+
+        // a setup that cannot serve an endpoint at all is broken, slow endpoints are for the report
+        for (LoadReport report : reports) {
+            report.getLatencies().forEach((endpoint, latencies) ->
+                    assertTrue(latencies.getCount() > 0, endpoint.getLabel() + " never succeeded"));
+        }
+    }
+
+    private List<String> tokens(int virtualUsers, int users) {
+        List<String> tokens = new ArrayList<>();
+        for (long userId = 1; userId <= Math.min(virtualUsers, users); userId++) {
+            tokens.add(jwtTokenUtil.generateToken(new User(DataSeeder.username(userId), "",
+                    List.of(new SimpleGrantedAuthority("USER")))));
+        }
+        return tokens;
+    }
+
+    private void writeReports(List<LoadReport> reports) throws Exception {
+        StringBuilder markdown = new StringBuilder(LoadReport.markdownHeader());
+        StringBuilder csv = new StringBuilder(LoadReport.csvHeader());
+        for (LoadReport report : reports) {
+            markdown.append(report.toMarkdown());
+            csv.append(report.toCsv());
+        }
+        Files.createDirectories(REPORTS);
+        Files.writeString(REPORTS.resolve("results.md"), markdown);
+        Files.writeString(REPORTS.resolve("results.csv"), csv);
+        log.info("load test results written to {}", REPORTS.toAbsolutePath());
+    }
+}
@@ -0,0 +1,10 @@
+package com.qual.store.cache;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// caches and their size/TTL limits are declared with the spring.cache.* properties
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
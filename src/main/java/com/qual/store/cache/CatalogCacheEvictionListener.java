@@ -0,0 +1,54 @@
+package com.qual.store.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+@RequiredArgsConstructor
+public class CatalogCacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    // evict after commit so a concurrent read cannot put the old state back
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(CatalogCacheNames.PRODUCTS, event.getProductId());
+        clear(CatalogCacheNames.PRODUCT_LIST);
+
+        if (event.getCategoryId() != null) {
+            evict(CatalogCacheNames.CATEGORIES, event.getCategoryId());
+            clear(CatalogCacheNames.CATEGORY_LIST);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        evict(CatalogCacheNames.CATEGORIES, event.getCategoryId());
+        clear(CatalogCacheNames.CATEGORY_LIST);
+
+        if (!event.getProductIds().isEmpty()) {
+            event.getProductIds().forEach(productId -> evict(CatalogCacheNames.PRODUCTS, productId));
+            clear(CatalogCacheNames.PRODUCT_LIST);
+        }
+    }
+
+    private void evict(String cacheName, Long key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evictIfPresent(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+}
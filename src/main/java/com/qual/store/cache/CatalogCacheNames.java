@@ -0,0 +1,11 @@
+package com.qual.store.cache;
+
+public final class CatalogCacheNames {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_LIST = "productList";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_LIST = "categoryList";
+
+    private CatalogCacheNames() {
+    }
+}
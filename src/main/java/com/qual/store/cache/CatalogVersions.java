@@ -0,0 +1,107 @@
+package com.qual.store.cache;
+
+import com.qual.store.model.CatalogVersion;
+import com.qual.store.repository.CatalogVersionRepository;
+import com.qual.store.repository.ProductRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// ETags of the catalog responses, read from the catalog versions persisted with the products, so every instance hands
+// out the same ones and they survive restarts. A product's version is bumped after every change to what its
+// ProductDto renders (reviews, images, stock, sales, favorites, category name), which Product.updateTime alone does
+// not follow. A list's ETag is the catalog version, a single row bumped with every product version and on every
+// delete, so revalidating a list reads one row instead of every product.
+@Component
+@RequiredArgsConstructor
+public class CatalogVersions {
+
+    private final ProductRepository productRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final CacheManager cacheManager;
+
+    // the versions last handed out by this instance: a newer one comes from a change made through another instance,
+    // which this instance's caches have not seen, so they are evicted before the body is built
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    private final AtomicReference<String> catalogETag = new AtomicReference<>();
+
+    public String productETag(Long productId) {
+        Long version = productRepository.findCatalogVersionById(productId).orElse(null);
+        if (version == null) {
+            productVersions.remove(productId);
+            return productId + "-deleted";
+        }
+
+        if (!version.equals(productVersions.put(productId, version))) {
+            evict(CatalogCacheNames.PRODUCTS, productId);
+        }
+        return productId + "-" + version;
+    }
+
+    // any product or category change changes the ETag of every list response
+    public String catalogETag() {
+        String eTag = "catalog-" + catalogVersionRepository.findVersion();
+
+        if (!eTag.equals(catalogETag.getAndSet(eTag))) {
+            clear(CatalogCacheNames.PRODUCT_LIST);
+        }
+        return eTag;
+    }
+
+    // ordered after the cache eviction and the search index update: a request reading the new
+    // version must not be answered from the old state. A deleted product has no version left, the
+    // catalog version is bumped all the same
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getProductId() != null) {
+            productRepository.incrementCatalogVersions(List.of(event.getProductId()));
+        }
+        incrementCatalogVersion();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        List<Long> productIds = event.getProductIds().stream()
+                .filter(Objects::nonNull)
+                .toList();
+        if (!productIds.isEmpty()) {
+            productRepository.incrementCatalogVersions(productIds);
+        }
+        incrementCatalogVersion();
+    }
+
+    private void incrementCatalogVersion() {
+        if (catalogVersionRepository.incrementVersion() == 0) {
+            catalogVersionRepository.save(CatalogVersion.builder().version(1).build());
+        }
+    }
+
+    private void evict(String cacheName, Long key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evictIfPresent(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.qual.store.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+
+    // products rendering the category name
+    private final List<Long> productIds;
+
+    public CategoryChangedEvent(Long categoryId) {
+        this(categoryId, List.of());
+    }
+}
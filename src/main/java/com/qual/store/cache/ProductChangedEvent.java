@@ -0,0 +1,17 @@
+package com.qual.store.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+
+    // set only when the product joins or leaves a category
+    private final Long categoryId;
+
+    public ProductChangedEvent(Long productId) {
+        this(productId, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.qual.store.controller;
+
+import com.qual.store.dto.CacheStatisticsDto;
+import com.qual.store.logger.Log;
+import com.qual.store.service.CacheStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/caches")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping()
+    @Log
+    public ResponseEntity<List<CacheStatisticsDto>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getCacheStatistics());
+    }
+}
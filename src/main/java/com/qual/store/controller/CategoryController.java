@@ -12,7 +12,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(value = "/api/categories")
@@ -26,17 +25,13 @@ public class CategoryController {
     @GetMapping()
     @Log
     public List<CategoryDto> getAllCategories() {
-        return categoryService.getAllCategories().stream()
-                .map(categoryConverter::convertModelToDto)
-                .collect(Collectors.toList());
+        return categoryService.getAllCategoryDtos();
     }
 
     @GetMapping("/{categoryId}")
     @Log
     public ResponseEntity<CategoryDto> getCategoryById(@PathVariable("categoryId") Long categoryId) {
-        return ResponseEntity.ok(categoryConverter.convertModelToDto(
-                categoryService.findCategoryById(categoryId)
-        ));
+        return ResponseEntity.ok(categoryService.getCategoryDtoById(categoryId));
     }
 
     @PostMapping
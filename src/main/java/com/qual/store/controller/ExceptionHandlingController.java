@@ -83,6 +83,44 @@ public class ExceptionHandlingController {
         return new ResponseEntity<>(responseBody, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<Object> handlerInvalidCursorException(InvalidCursorException exception) {
+        Map<String, Object> responseBody = new HashMap<>();
+        responseBody.put("timestamp", LocalDateTime.now());
+        responseBody.put("error message", exception.getLocalizedMessage());
+
+        return new ResponseEntity<>(responseBody, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidSearchException.class)
+    public ResponseEntity<Object> handlerInvalidSearchException(InvalidSearchException exception) {
+        Map<String, Object> responseBody = new HashMap<>();
+        responseBody.put("timestamp", LocalDateTime.now());
+        responseBody.put("error message", exception.getLocalizedMessage());
+
+        return new ResponseEntity<>(responseBody, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Object> handlerPasswordHashingBusyException(PasswordHashingBusyException exception) {
+        Map<String, Object> responseBody = new HashMap<>();
+        responseBody.put("timestamp", LocalDateTime.now());
+        responseBody.put("error message", exception.getLocalizedMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(responseBody);
+    }
+
+    @ExceptionHandler(RecordingException.class)
+    public ResponseEntity<Object> handlerRecordingException(RecordingException exception) {
+        Map<String, Object> responseBody = new HashMap<>();
+        responseBody.put("timestamp", LocalDateTime.now());
+        responseBody.put("error message", exception.getLocalizedMessage());
+
+        return new ResponseEntity<>(responseBody, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(SQLException.class)
     public ResponseEntity<String> handlePSQLException(SQLException ex) {
         if (ex.getMessage().contains("duplicate key value violates unique constraint")) {
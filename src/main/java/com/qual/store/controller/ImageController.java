@@ -6,18 +6,48 @@ import com.qual.store.dto.ImageModelDto;
 import com.qual.store.dto.MessageResponse;
 import com.qual.store.dto.ProductDto;
 import com.qual.store.logger.Log;
+import com.qual.store.model.ImageModel;
 import com.qual.store.service.ImageService;
+import com.qual.store.storage.ImageDerivative;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/images")
 @RequiredArgsConstructor
 public class ImageController {
+    // anyone can upload, so only image types are served as such: HTML or SVG served from this origin
+    // would run scripts, and browsers must not sniff a type either
+    private static final List<MediaType> SERVED_TYPES = List.of(
+            MediaType.IMAGE_JPEG, MediaType.IMAGE_PNG, MediaType.IMAGE_GIF, MediaType.parseMediaType("image/webp"));
+    private static final String CONTENT_TYPE_OPTIONS = "X-Content-Type-Options";
+    private static final String NO_SNIFF = "nosniff";
+
+    // a name can be bound to another content after a delete and upload, so it is revalidated after an hour
+    private static final CacheControl NAMED_CONTENT_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+    private static final CacheControl IMMUTABLE_CONTENT_CACHE_CONTROL =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    // the original stands in for a derivative still being rendered, it must not be kept in its place
+    private static final CacheControl PENDING_DERIVATIVE_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
     private final ImageService imageService;
     private final ImageConverter imageConverter;
     private final ProductConverter productConverter;
@@ -29,24 +59,102 @@ public class ImageController {
         return ResponseEntity.ok(productConverter.convertModelToDto(imageService.saveImageModel(file, productId)));
     }
 
+    // the content is streamed from the image storage; Range requests are answered with 206 by Spring MVC.
+    // size selects the smallest derivative at least that large
     @Log
     @GetMapping("/download")
-    public ResponseEntity<?> downloadImageByName(@RequestParam("name") String imageName) {
+    public ResponseEntity<Resource> downloadImageByName(@RequestParam("name") String imageName,
+                                                        @RequestParam(required = false) Integer size,
+                                                        WebRequest webRequest) {
+        ImageModel imageModel = imageService.findImageModelByName(imageName);
+        if (size != null) {
+            Optional<ImageDerivative> derivative = imageService.findImageDerivative(imageModel.getContentHash(), size);
+            if (derivative.isPresent()) {
+                return derivativeResponse(imageModel.getContentHash(), derivative.get(),
+                        NAMED_CONTENT_CACHE_CONTROL, webRequest);
+            }
+        }
+        // the content hash is the strong ETag, a revalidation never opens the stored content
+        if (webRequest.checkNotModified(imageModel.getContentHash())) {
+            return null;
+        }
+
         return ResponseEntity.status(HttpStatus.OK)
-                .contentType(MediaType.valueOf("image/png"))
-                .body(imageService.downloadImage(imageName));
+                .cacheControl(size == null ? NAMED_CONTENT_CACHE_CONTROL : PENDING_DERIVATIVE_CACHE_CONTROL)
+                .contentType(mediaTypeOf(imageModel))
+                .header(CONTENT_TYPE_OPTIONS, NO_SNIFF)
+                .body(imageService.loadImageContent(imageModel));
+    }
+
+    // content addressed, so the response never changes: browsers and proxies keep it without revalidating
+    @Log
+    @GetMapping("/content/{contentHash}")
+    public ResponseEntity<Resource> downloadImageContent(@PathVariable("contentHash") String contentHash,
+                                                         @RequestParam(required = false) Integer size,
+                                                         WebRequest webRequest) {
+        if (size != null) {
+            Optional<ImageDerivative> derivative = imageService.findImageDerivative(contentHash, size);
+            if (derivative.isPresent()) {
+                return derivativeResponse(contentHash, derivative.get(), IMMUTABLE_CONTENT_CACHE_CONTROL, webRequest);
+            }
+        }
+        if (webRequest.checkNotModified(contentHash)) {
+            return null;
+        }
+        ImageModel imageModel = imageService.findImageModelByContentHash(contentHash);
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(size == null ? IMMUTABLE_CONTENT_CACHE_CONTROL : PENDING_DERIVATIVE_CACHE_CONTROL)
+                .contentType(mediaTypeOf(imageModel))
+                .header(CONTENT_TYPE_OPTIONS, NO_SNIFF)
+                .body(imageService.loadImageContent(imageModel));
     }
 
     @Log
     @GetMapping("/getById")
-    public ResponseEntity<ImageModelDto> getImageById(@RequestParam("id") Long imageId) {
-        return ResponseEntity.ok(imageConverter.convertModelToDto(imageService.findImageModelById(imageId)));
+    public ResponseEntity<ImageModelDto> getImageById(@RequestParam("id") Long imageId, WebRequest webRequest) {
+        ImageModel imageModel = imageService.findImageModelById(imageId);
+        if (webRequest.checkNotModified(imageModel.getContentHash())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(NAMED_CONTENT_CACHE_CONTROL)
+                .body(imageConverter.convertModelToDto(imageModel));
     }
 
     @Log
     @GetMapping("/getByName")
-    public ResponseEntity<ImageModelDto> getImageByName(@RequestParam("name") String imageName) {
-        return ResponseEntity.ok(imageConverter.convertModelToDto(imageService.findImageModelByName(imageName)));
+    public ResponseEntity<ImageModelDto> getImageByName(@RequestParam("name") String imageName,
+                                                        WebRequest webRequest) {
+        ImageModel imageModel = imageService.findImageModelByName(imageName);
+        if (webRequest.checkNotModified(imageModel.getContentHash())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(NAMED_CONTENT_CACHE_CONTROL)
+                .body(imageConverter.convertModelToDto(imageModel));
+    }
+
+    // every image of the product in one multipart/mixed response, each part is streamed from the image storage
+    // while the response is written; size selects derivatives as on /download
+    @Log
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<MultiValueMap<String, HttpEntity<Resource>>> downloadProductImages(
+            @PathVariable("productId") Long productId,
+            @RequestParam(required = false) Integer size) {
+        MultiValueMap<String, HttpEntity<Resource>> parts = new LinkedMultiValueMap<>();
+        for (ImageModel imageModel : imageService.findImageModelsByProductId(productId)) {
+            if (imageModel.getContentHash() != null) {
+                parts.add(imageModel.getName(), imagePart(imageModel, size));
+            }
+        }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.MULTIPART_MIXED)
+                .header(CONTENT_TYPE_OPTIONS, NO_SNIFF)
+                .body(parts);
     }
 
     @Log
@@ -60,4 +168,52 @@ public class ImageController {
                         .build()
                 );
     }
+
+    private ResponseEntity<Resource> derivativeResponse(String contentHash, ImageDerivative derivative,
+                                                        CacheControl cacheControl, WebRequest webRequest) {
+        if (webRequest.checkNotModified(contentHash + "-" + derivative.getSize())) {
+            return null;
+        }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.IMAGE_JPEG)
+                .header(CONTENT_TYPE_OPTIONS, NO_SNIFF)
+                .body(derivative.getContent());
+    }
+
+    private HttpEntity<Resource> imagePart(ImageModel imageModel, Integer size) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.inline().filename(imageModel.getName()).build());
+        headers.set(CONTENT_TYPE_OPTIONS, NO_SNIFF);
+
+        Optional<ImageDerivative> derivative = size != null
+                ? imageService.findImageDerivative(imageModel.getContentHash(), size)
+                : Optional.empty();
+        if (derivative.isPresent()) {
+            headers.setContentType(MediaType.IMAGE_JPEG);
+            headers.setETag("\"" + imageModel.getContentHash() + "-" + derivative.get().getSize() + "\"");
+            return new HttpEntity<>(derivative.get().getContent(), headers);
+        }
+
+        headers.setContentType(mediaTypeOf(imageModel));
+        headers.setETag("\"" + imageModel.getContentHash() + "\"");
+        return new HttpEntity<>(imageService.loadImageContent(imageModel), headers);
+    }
+
+    // images stored before the type was read from the content may have any type the uploader sent
+    private MediaType mediaTypeOf(ImageModel imageModel) {
+        if (imageModel.getType() == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(imageModel.getType());
+            return SERVED_TYPES.stream()
+                    .filter(mediaType::equalsTypeAndSubtype)
+                    .findFirst()
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
 }
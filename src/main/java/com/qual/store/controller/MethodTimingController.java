@@ -0,0 +1,23 @@
+package com.qual.store.controller;
+
+import com.qual.store.dto.MethodTimingDto;
+import com.qual.store.logger.MethodTimings;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/method-timings")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class MethodTimingController {
+
+    private final MethodTimings methodTimings;
+
+    @GetMapping()
+    public ResponseEntity<List<MethodTimingDto>> getMethodTimings() {
+        return ResponseEntity.ok(methodTimings.getMethodTimings());
+    }
+}
@@ -39,7 +39,14 @@ public class OrderController {
     @Log
     public ResponseEntity<PaginatedOrderResponse> getOrders(@RequestParam(defaultValue = "0") Integer pageNumber,
                                                             @RequestParam(defaultValue = "10") Integer pageSize,
-                                                            @RequestParam(defaultValue = "id") String sortBy) {
+                                                            @RequestParam(defaultValue = "id") String sortBy,
+                                                            @RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(defaultValue = "false") Boolean withTotal) {
+        // after/limit switch to cursor pages ordered by id
+        if (after != null || limit != null) {
+            return ResponseEntity.ok(orderService.getOrdersAfter(after, limit, withTotal));
+        }
 
         return ResponseEntity.ok(orderService.getOrders(pageNumber, pageSize, sortBy));
     }
@@ -102,8 +109,8 @@ public class OrderController {
     @GetMapping(value = "/me/basket")
     @Log
     public List<OrderItemDto> getBasket() {
-        return orderService.getBasketAsOrderItems().stream()
-                .map(orderItemConverter::convertModelToDto)
+        return orderService.getBasketItems().stream()
+                .map(orderItemConverter::convertBasketItemToDto)
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,23 @@
+package com.qual.store.controller;
+
+import com.qual.store.dto.PasswordHashingStatisticsDto;
+import com.qual.store.logger.Log;
+import com.qual.store.security.util.BoundedPasswordEncoder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(value = "/api/password-hashing")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class PasswordHashingController {
+
+    private final BoundedPasswordEncoder boundedPasswordEncoder;
+
+    @GetMapping()
+    @Log
+    public ResponseEntity<PasswordHashingStatisticsDto> getPasswordHashingStatistics() {
+        return ResponseEntity.ok(boundedPasswordEncoder.getStatistics());
+    }
+}
@@ -1,6 +1,7 @@
 package com.qual.store.controller;
 
 import com.github.javafaker.Faker;
+import com.qual.store.cache.CatalogVersions;
 import com.qual.store.converter.ProductConverter;
 import com.qual.store.converter.lazyConverter.ProductLazyConverter;
 import com.qual.store.dto.MessageResponse;
@@ -14,20 +15,19 @@ import com.qual.store.model.Category;
 import com.qual.store.model.Product;
 import com.qual.store.repository.AppUserRepository;
 import com.qual.store.service.CategoryService;
-import com.qual.store.service.OrderService;
 import com.qual.store.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -36,43 +36,67 @@ import java.util.stream.Collectors;
 @CrossOrigin("*")
 public class ProductController {
 
+    // stored by clients but revalidated on every use, the ETags follow every catalog change
+    private static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
     private final ProductService productService;
-    private final OrderService orderService;
     private final ProductConverter productConverter;
     private final CategoryService categoryService;
     private final ProductLazyConverter productLazyConverter;
     private final AppUserRepository appUserRepository;
+    private final CatalogVersions catalogVersions;
 
     @GetMapping()
     @Log
-    public List<ProductDto> getAllProducts() {
-        return productService.getAllProducts().stream()
-                .map(productConverter::convertModelToDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<ProductDto>> getAllProducts(WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.catalogETag(), productService::getAllProductDtos);
     }
 
     @GetMapping("/discount")
     @Log
-    public ResponseEntity<List<ProductDto>> getAllProductsByDiscount() {
-        return ResponseEntity.ok()
-                .body(productService.getAllProductsByDiscount().stream()
-                        .map(productConverter::convertModelToDto)
-                        .collect(Collectors.toList()));
+    public ResponseEntity<PaginatedProductResponse> getAllProductsByDiscount(
+            @RequestParam(defaultValue = "0") Integer pageNumber,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.getAllProductsByDiscount(pageNumber, pageSize, sortBy));
     }
 
     @GetMapping("/price")
     @Log
-    public ResponseEntity<List<ProductDto>> getAllProductsByPriceRange(@RequestParam Double minPrice, @RequestParam Double maxPrice) {
-        return ResponseEntity.ok()
-                .body(productService.getAllProductsByPriceRange(minPrice, maxPrice).stream()
-                        .map(productConverter::convertModelToDto)
-                        .collect(Collectors.toList()));
+    public ResponseEntity<PaginatedProductResponse> getAllProductsByPriceRange(
+            @RequestParam Double minPrice,
+            @RequestParam Double maxPrice,
+            @RequestParam(defaultValue = "0") Integer pageNumber,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.getAllProductsByPriceRange(minPrice, maxPrice, pageNumber, pageSize, sortBy));
+    }
+
+    @GetMapping("/filter")
+    @Log
+    public ResponseEntity<PaginatedProductResponse> filterProducts(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") Boolean discounted,
+            @RequestParam(defaultValue = "0") Integer pageNumber,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.filterProducts(categoryId, minPrice, maxPrice, discounted,
+                        pageNumber, pageSize, sortBy));
     }
 
     @GetMapping("/{productId}")
     @Log
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long productId) {
-        return ResponseEntity.ok(productService.getProductById(productId));
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long productId, WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.productETag(productId),
+                () -> productService.getProductById(productId));
     }
 
     @GetMapping("/lazy")
@@ -122,17 +146,31 @@ public class ProductController {
     @Log
     public ResponseEntity<PaginatedProductResponse> getProducts(@RequestParam(defaultValue = "0") Integer pageNumber,
                                                                 @RequestParam(defaultValue = "10") Integer pageSize,
-                                                                @RequestParam(defaultValue = "id") String sortBy) {
+                                                                @RequestParam(defaultValue = "id") String sortBy,
+                                                                @RequestParam(required = false) String after,
+                                                                @RequestParam(required = false) Integer limit,
+                                                                @RequestParam(defaultValue = "false") Boolean withTotal,
+                                                                WebRequest webRequest) {
+        // after/limit switch to cursor pages ordered by id
+        if (after != null || limit != null) {
+            return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                    () -> productService.getProductsAfter(after, limit, withTotal));
+        }
 
-        return ResponseEntity.ok(productService.getProducts(pageNumber, pageSize, sortBy));
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.getProducts(pageNumber, pageSize, sortBy));
     }
 
     @GetMapping("/category")
     @Log
-    public List<ProductDto> getProductsByCategory(@RequestParam Long categoryId) {
-        return productService.findProductsByCategory(categoryId).stream()
-                .map(productConverter::convertModelToDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<PaginatedProductResponse> getProductsByCategory(
+            @RequestParam Long categoryId,
+            @RequestParam(defaultValue = "0") Integer pageNumber,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(defaultValue = "id") String sortBy,
+            WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.findProductsByCategory(categoryId, pageNumber, pageSize, sortBy));
     }
 
     @PostMapping("/populate")
@@ -176,20 +214,12 @@ public class ProductController {
 
     @GetMapping("/placed")
     @Log
-    public List<ProductDto> getProductsByOrderStatusPlaced() {
-        Map<Long, Integer> productsQuantity = orderService.getProductsQuantity();
-
-        List<ProductDto> allProducts = productService.getAllProducts().stream()
-                .map(productConverter::convertModelToDto)
-                .collect(Collectors.toList());
-
-        // Sort the products based on the number of times they were sold
-        allProducts.sort(Comparator.comparingInt(product -> productsQuantity.getOrDefault(product.getId(), 0)));
-
-        // Reverse the list to get descending order
-        Collections.reverse(allProducts);
-
-        return allProducts;
+    public ResponseEntity<PaginatedProductResponse> getProductsByOrderStatusPlaced(
+            @RequestParam(defaultValue = "0") Integer pageNumber,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            WebRequest webRequest) {
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.getBestSellingProducts(pageNumber, pageSize));
     }
 
     @PostMapping("/fav")
@@ -219,8 +249,29 @@ public class ProductController {
     public ResponseEntity<PaginatedProductResponse> searchProductByName(@RequestParam("name") String name,
                                                                         @RequestParam(defaultValue = "0") Integer pageNumber,
                                                                         @RequestParam(defaultValue = "10") Integer pageSize,
-                                                                        @RequestParam(defaultValue = "id") String sortBy) {
+                                                                        @RequestParam(defaultValue = "relevance") String sortBy,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @RequestParam(required = false) Integer limit,
+                                                                        @RequestParam(defaultValue = "false") Boolean withTotal,
+                                                                        WebRequest webRequest) {
+        if (after != null || limit != null) {
+            return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                    () -> productService.searchProductByNameAfter(name, after, limit, withTotal));
+        }
 
-        return ResponseEntity.ok(productService.searchProductByName(name, pageNumber, pageSize, sortBy));
+        return catalogResponse(webRequest, catalogVersions.catalogETag(),
+                () -> productService.searchProductByName(name, pageNumber, pageSize, sortBy));
+    }
+
+    // the ETag is read before the body is built, so a response is never stored under a newer version;
+    // a revalidation that still matches is answered with 304 without reaching the service
+    private <T> ResponseEntity<T> catalogResponse(WebRequest webRequest, String eTag, Supplier<T> body) {
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .body(body.get());
     }
 }
@@ -0,0 +1,44 @@
+package com.qual.store.controller;
+
+import com.qual.store.dto.RecordingDto;
+import com.qual.store.profiling.FlightRecordings;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+
+@RestController
+@RequestMapping(value = "/api/recordings")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class RecordingController {
+
+    private final FlightRecordings flightRecordings;
+
+    @PostMapping()
+    public ResponseEntity<RecordingDto> startRecording(@RequestParam(required = false) Long durationSeconds) {
+        return ResponseEntity.ok(flightRecordings.start(
+                durationSeconds == null ? null : Duration.ofSeconds(durationSeconds)));
+    }
+
+    @GetMapping()
+    public ResponseEntity<RecordingDto> getRecording() {
+        return ResponseEntity.ok(flightRecordings.getRecording());
+    }
+
+    // the .jfr is streamed from a temporary file deleted once sent, open it with JDK Mission Control or `jfr print`
+    @PostMapping("/stop")
+    public ResponseEntity<Resource> stopRecording() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("store.jfr").build().toString())
+                .body(new InputStreamResource(flightRecordings.stop()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.qual.store.controller;
+
+import com.qual.store.dto.SqlRouteStatisticsDto;
+import com.qual.store.sql.SqlStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/sql-statistics")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class SqlStatisticsController {
+
+    private final SqlStatistics sqlStatistics;
+
+    @GetMapping()
+    public ResponseEntity<List<SqlRouteStatisticsDto>> getSqlStatistics() {
+        return ResponseEntity.ok(sqlStatistics.getRouteStatistics());
+    }
+}
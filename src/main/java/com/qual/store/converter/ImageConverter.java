@@ -6,19 +6,16 @@ import com.qual.store.model.ImageModel;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import static com.qual.store.utils.images.ImageUtils.compressBytes;
-import static com.qual.store.utils.images.ImageUtils.decompressBytes;
-
 @Component
 @RequiredArgsConstructor
 public class ImageConverter extends BaseConverter<ImageModel, ImageModelDto> {
+    private static final String CONTENT_URL = "/api/images/content/";
 
     @Override
     public ImageModel convertDtoToModel(ImageModelDto dto) {
         return ImageModel.builder()
                 .name(dto.getName())
                 .type(dto.getType())
-                .picByte(dto.getPicByte())
                 .build();
     }
 
@@ -27,7 +24,8 @@ public class ImageConverter extends BaseConverter<ImageModel, ImageModelDto> {
         ImageModelDto result = ImageModelDto.builder()
                 .name(imageModel.getName())
                 .type(imageModel.getType())
-                .picByte(imageModel.getPicByte())
+                .size(imageModel.getSize())
+                .url(imageModel.getContentHash() != null ? CONTENT_URL + imageModel.getContentHash() : null)
                 .build();
         result.setId(imageModel.getId());
 
@@ -7,12 +7,16 @@ import com.qual.store.model.OrderItem;
 import com.qual.store.model.Product;
 import com.qual.store.repository.OrderRepository;
 import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.projection.BasketItem;
 import com.qual.store.service.OrderService;
 import com.qual.store.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Comparator;
+import java.util.Objects;
+
 @Component
 @RequiredArgsConstructor
 public class OrderItemConverter extends BaseConverter<OrderItem, OrderItemDto> {
@@ -46,10 +50,31 @@ public class OrderItemConverter extends BaseConverter<OrderItem, OrderItemDto> {
         if (orderItem.getOrder() != null) {
             orderItemDto.setOrderId(orderItem.getOrder().getId());
         }
-        productRepository.findAllWithCategoryAndReviewsAndImages().stream()
-                .filter(pr -> pr.getId().equals(orderItem.getProduct().getId()))
-                .findFirst().ifPresent(product -> orderItemDto.setImageName(product.getImages().stream().map(ImageModel::getName).findFirst().orElse(null)));
+        // the images come with the product from the orderItemWithProduct entity graph, the first by name as in the basket
+        if (orderItem.getProduct().getImages() != null) {
+            orderItemDto.setImageName(orderItem.getProduct().getImages().stream()
+                    .map(ImageModel::getName)
+                    .filter(Objects::nonNull)
+                    .min(Comparator.naturalOrder())
+                    .orElse(null));
+        }
         orderItemDto.setId(orderItem.getId());
         return orderItemDto;
     }
+
+    public OrderItemDto convertBasketItemToDto(BasketItem basketItem) {
+        OrderItemDto orderItemDto = OrderItemDto.builder()
+                .quantity(basketItem.getQuantity())
+                .orderId(basketItem.getOrderId())
+                .productId(basketItem.getProductId())
+                .productName(basketItem.getProductName())
+                .productPrice(basketItem.getProductPrice())
+                .unitsInStock(basketItem.getUnitsInStock())
+                .categoryId(basketItem.getCategoryId())
+                .categoryName(basketItem.getCategoryName())
+                .imageName(basketItem.getImageName())
+                .build();
+        orderItemDto.setId(basketItem.getId());
+        return orderItemDto;
+    }
 }
@@ -15,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.stream.Collectors;
 
@@ -63,7 +64,11 @@ public class ProductConverter extends BaseConverter<Product, ProductDto> {
                 .categoryName(product.getCategory().getName())
                 .userId(product.getUser().getId())
                 .reviewsId(product.getReviews().stream().map(BaseEntity::getId).collect(Collectors.toList()))
-                .imagesName(product.getImages().stream().map(ImageModel::getName).toList())
+                // the images are a set, sorted so that the same product always renders the same
+                .imagesName(product.getImages().stream()
+                        .map(ImageModel::getName)
+                        .sorted(Comparator.nullsLast(Comparator.naturalOrder()))
+                        .toList())
                 .favUserIds(product.getFavoriteByUsers().stream().map(BaseEntity::getId).collect(Collectors.toList()))
                 .build();
 
@@ -13,5 +13,8 @@ public class ImageModelDto extends BaseDto {
 
     private String type;
 
-    private byte[] picByte;
+    private Long size;
+
+    // streams the content, ?size= selects a derivative
+    private String url;
 }
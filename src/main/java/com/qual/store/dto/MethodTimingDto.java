@@ -0,0 +1,20 @@
+package com.qual.store.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class MethodTimingDto implements Serializable {
+    private String method;
+    private long count;
+    private long errorCount;
+    private double totalMillis;
+    private double meanMillis;
+    private double p50Millis;
+    private double p99Millis;
+    private double maxMillis;
+}
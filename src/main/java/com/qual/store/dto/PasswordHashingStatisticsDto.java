@@ -0,0 +1,21 @@
+package com.qual.store.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class PasswordHashingStatisticsDto implements Serializable {
+    private int workers;
+    private int queueCapacity;
+    private int active;
+    private int queued;
+    private long hashCount;
+    private long rejectedCount;
+    private double meanWaitMillis;
+    private double meanHashMillis;
+    private double maxHashMillis;
+}
@@ -0,0 +1,18 @@
+package com.qual.store.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class RecordingDto implements Serializable {
+    private long id;
+    private String state;
+    private Instant startTime;
+    private long maxDurationSeconds;
+    private long maxSizeBytes;
+}
@@ -0,0 +1,23 @@
+package com.qual.store.dto;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class SqlRouteStatisticsDto implements Serializable {
+    private String route;
+    private long requestCount;
+    private long statementCount;
+    private double meanStatements;
+    private long maxStatements;
+    private long rowCount;
+    private double meanRows;
+    private double jdbcMillis;
+    private double meanJdbcMillis;
+    private long nPlusOneRequestCount;
+    private String lastNPlusOne;
+}
@@ -13,7 +13,11 @@ public class PaginatedOrderResponse {
 
     private List<OrderDto> orders;
 
+    // null unless the total was requested on a cursor page
     private Long numberOfItems;
 
-    private int numberOfPages;
+    private Integer numberOfPages;
+
+    // opaque cursor of the next page, null on the last page
+    private String nextCursor;
 }
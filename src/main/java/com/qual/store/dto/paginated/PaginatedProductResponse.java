@@ -12,7 +12,11 @@ public class PaginatedProductResponse {
 
     private List<ProductDto> products;
 
+    // null unless the total was requested on a cursor page
     private Long numberOfItems;
 
-    private int numberOfPages;
+    private Integer numberOfPages;
+
+    // opaque cursor of the next page, null on the last page
+    private String nextCursor;
 }
@@ -0,0 +1,7 @@
+package com.qual.store.exceptions;
+
+public class InvalidSearchException extends RuntimeException {
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.qual.store.exceptions;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.qual.store.exceptions;
+
+public class RecordingException extends RuntimeException {
+    public RecordingException(String message) {
+        super(message);
+    }
+}
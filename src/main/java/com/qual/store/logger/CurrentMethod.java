@@ -0,0 +1,30 @@
+package com.qual.store.logger;
+
+// the innermost @Log method running on this thread, so what happens below it (the SQL statements of a request)
+// can be traced back to the service method that caused it
+public final class CurrentMethod {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CurrentMethod() {
+    }
+
+    public static String get() {
+        return CURRENT.get();
+    }
+
+    // returns the method it replaces, to be restored by exit
+    static String enter(String method) {
+        String previous = CURRENT.get();
+        CURRENT.set(method);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.qual.store.logger;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// the latencies and failures of one @Log method
+final class MethodTiming {
+
+    private final String name;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+
+    MethodTiming(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    long getErrorCount() {
+        return errors.sum();
+    }
+
+    void record(long nanos, boolean failed) {
+        latencies.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.qual.store.logger;
+
+import com.qual.store.dto.MethodTimingDto;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// the timings of every @Log method since startup
+@Component
+public class MethodTimings {
+
+    private final Map<Method, MethodTiming> timings = new ConcurrentHashMap<>();
+
+    MethodTiming timingOf(Method method) {
+        MethodTiming timing = timings.get(method);
+        if (timing == null) {
+            timing = timings.computeIfAbsent(method,
+                    key -> new MethodTiming(key.getDeclaringClass().getSimpleName() + "." + key.getName()));
+        }
+        return timing;
+    }
+
+    // the methods that took the most time first
+    public List<MethodTimingDto> getMethodTimings() {
+        return timings.values().stream()
+                .map(MethodTimings::toDto)
+                .sorted(Comparator.comparingDouble(MethodTimingDto::getTotalMillis).reversed()
+                        .thenComparing(MethodTimingDto::getMethod))
+                .toList();
+    }
+
+    private static MethodTimingDto toDto(MethodTiming timing) {
+        LatencyHistogram latencies = timing.getLatencies();
+        long count = latencies.getCount();
+
+        return MethodTimingDto.builder()
+                .method(timing.getName())
+                .count(count)
+                .errorCount(timing.getErrorCount())
+                .totalMillis(millis(latencies.getTotalNanos()))
+                .meanMillis(count == 0 ? 0 : millis(latencies.getTotalNanos()) / count)
+                .p50Millis(millis(latencies.getQuantileNanos(0.5)))
+                .p99Millis(millis(latencies.getQuantileNanos(0.99)))
+                .maxMillis(millis(latencies.getMaxNanos()))
+                .build();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,37 @@
+package com.qual.store.metrics;
+
+import com.qual.store.security.util.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// the state of the password hashing pool, as on /api/password-hashing
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingMetrics implements MeterBinder {
+
+    private final BoundedPasswordEncoder boundedPasswordEncoder;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("store.password.hashing.active", boundedPasswordEncoder,
+                        encoder -> encoder.getStatistics().getActive())
+                .description("Password hashes running")
+                .register(registry);
+        Gauge.builder("store.password.hashing.queued", boundedPasswordEncoder,
+                        encoder -> encoder.getStatistics().getQueued())
+                .description("Password hashes waiting for a worker")
+                .register(registry);
+        FunctionCounter.builder("store.password.hashing.hashes", boundedPasswordEncoder,
+                        encoder -> encoder.getStatistics().getHashCount())
+                .description("Password hashes computed")
+                .register(registry);
+        FunctionCounter.builder("store.password.hashing.rejected", boundedPasswordEncoder,
+                        encoder -> encoder.getStatistics().getRejectedCount())
+                .description("Password checks rejected with a 503 because the pool was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.qual.store.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+// the business counters of the store, published with the other metrics on /actuator/prometheus
+@Component
+public class StoreMetrics {
+
+    private final Counter ordersPlaced;
+    private final Counter basketItemsAdded;
+    private final Counter basketItemsUpdated;
+    private final Counter basketItemsRemoved;
+    private final Counter imageBytesServed;
+
+    public StoreMetrics(MeterRegistry meterRegistry) {
+        this.ordersPlaced = Counter.builder("store.orders.placed")
+                .description("Orders moved to the PLACED status")
+                .register(meterRegistry);
+        this.basketItemsAdded = basketMutations(meterRegistry, "add");
+        this.basketItemsUpdated = basketMutations(meterRegistry, "update");
+        this.basketItemsRemoved = basketMutations(meterRegistry, "remove");
+        this.imageBytesServed = Counter.builder("store.images.served")
+                .description("Bytes of image content and derivatives written to clients")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void orderPlaced() {
+        ordersPlaced.increment();
+    }
+
+    public void basketItemAdded() {
+        basketItemsAdded.increment();
+    }
+
+    public void basketItemUpdated() {
+        basketItemsUpdated.increment();
+    }
+
+    public void basketItemRemoved() {
+        basketItemsRemoved.increment();
+    }
+
+    public void imageBytesServed(long bytes) {
+        imageBytesServed.increment(bytes);
+    }
+
+    private static Counter basketMutations(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("store.basket.mutations")
+                .description("Order items added to, updated in or removed from baskets")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
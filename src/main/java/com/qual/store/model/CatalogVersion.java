@@ -0,0 +1,22 @@
+package com.qual.store.model;
+
+import com.qual.store.model.base.BaseEntity;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.*;
+
+// the version of the whole catalog, one row bumped with every product version, see CatalogVersions
+@Entity
+@Table(name = "catalog_version")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString(callSuper = true)
+@Builder
+public class CatalogVersion extends BaseEntity<Long> {
+
+    @Column(nullable = false)
+    private long version;
+}
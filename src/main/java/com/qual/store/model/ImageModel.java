@@ -10,7 +10,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "image_model")
+@Table(name = "image_model", indexes = {
+        @Index(name = "idx_image_model_product_id", columnList = "product_id"),
+        @Index(name = "idx_image_model_content_hash", columnList = "content_hash")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,10 +25,14 @@ public class ImageModel extends BaseEntity<Long> {
     
     private String type;
 
-    @Column(name = "pic_byte", length = 1000)
-    private byte[] picByte;
+    // the content is kept by the image storage under its SHA-256, the table only describes it
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 
-    @ManyToOne
+    @Column(name = "content_size")
+    private Long size;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
 //    @JsonBackReference
     @JsonIgnore
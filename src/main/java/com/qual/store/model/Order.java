@@ -40,7 +40,9 @@ import java.util.Set;
                 )
         }
 )
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_id_status", columnList = "user_id, status")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
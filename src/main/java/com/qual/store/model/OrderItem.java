@@ -12,12 +12,22 @@ import lombok.*;
                 @NamedEntityGraph(
                         name = "orderItemWithProduct",
                         attributeNodes = {
-                                @NamedAttributeNode(value = "product")
+                                @NamedAttributeNode(value = "product", subgraph = "productWithImages")
+                        },
+                        subgraphs = {
+                                @NamedSubgraph(
+                                        name = "productWithImages",
+                                        attributeNodes = {
+                                                @NamedAttributeNode("images")
+                                        }
+                                )
                         }
                 )
         }
 )
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.qual.store.model.base.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -31,7 +32,10 @@ import java.util.Set;
                 }
         )
 })
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_id", columnList = "category_id"),
+        @Index(name = "idx_products_price", columnList = "price")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
@@ -59,6 +63,12 @@ public class Product extends BaseEntity<Long> {
     @UpdateTimestamp
     private Date updateTime;
 
+    // bumped after every change to what the ProductDto of the product renders, for the catalog ETags; only
+    // ProductRepository.incrementCatalogVersions writes it, so saving a product read before a bump cannot undo it
+    @Column(nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private long catalogVersion;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "category_id")
     @ToString.Exclude
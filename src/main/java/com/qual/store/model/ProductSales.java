@@ -0,0 +1,26 @@
+package com.qual.store.model;
+
+import com.qual.store.model.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "product_sales", indexes = {
+        @Index(name = "idx_product_sales_units_sold", columnList = "units_sold")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString(callSuper = true)
+@Builder
+public class ProductSales extends BaseEntity<Long> {
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", unique = true, nullable = false)
+    @ToString.Exclude
+    private Product product;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+}
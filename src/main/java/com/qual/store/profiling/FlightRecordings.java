@@ -0,0 +1,115 @@
+package com.qual.store.profiling;
+
+import com.qual.store.dto.RecordingDto;
+import com.qual.store.exceptions.RecordingException;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+
+// one flight recording at a time, bounded in duration and size: it stops by itself after max-duration and keeps
+// at most max-size bytes on disk. The JDK events of the settings are recorded with the store events.
+@Component
+public class FlightRecordings {
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordings.class);
+
+    private final Configuration configuration;
+    private final Duration maxDuration;
+    private final long maxSize;
+    private final Duration eventThreshold;
+
+    private Recording recording;
+
+    public FlightRecordings(@Value("${store.profiling.settings}") String settings,
+                            @Value("${store.profiling.max-duration}") Duration maxDuration,
+                            @Value("${store.profiling.max-size}") long maxSize,
+                            @Value("${store.profiling.event-threshold}") Duration eventThreshold)
+            throws IOException, ParseException {
+        this.configuration = Configuration.getConfiguration(settings);
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.eventThreshold = eventThreshold;
+    }
+
+    // duration is capped at max-duration, null records for max-duration
+    public synchronized RecordingDto start(Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new RecordingException("Recording " + recording.getId() + " is already running");
+        }
+        closeRecording();
+
+        Duration bounded = duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        recording = new Recording(configuration);
+        recording.setName("store");
+        recording.setDuration(bounded);
+        recording.setMaxSize(maxSize);
+        recording.setToDisk(true);
+        recording.enable(ServiceCallEvent.class).withThreshold(eventThreshold);
+        recording.enable(JwtAuthenticationEvent.class).withThreshold(eventThreshold);
+        recording.start();
+        log.info("Flight recording {} started for {}", recording.getId(), bounded);
+        return toDto(recording);
+    }
+
+    public synchronized RecordingDto getRecording() {
+        if (recording == null) {
+            throw new RecordingException("No recording was started");
+        }
+        return toDto(recording);
+    }
+
+    // stops the recording if it is still running and returns its content, the file is deleted once it is read
+    public synchronized InputStream stop() {
+        if (recording == null) {
+            throw new RecordingException("No recording was started");
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile("store-", ".jfr");
+            recording.dump(file);
+            log.info("Flight recording {} stopped, {} bytes", recording.getId(), Files.size(file));
+            return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new RecordingException("Could not write recording " + recording.getId() + ": " + e.getMessage());
+        } finally {
+            closeRecording();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeRecording();
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private RecordingDto toDto(Recording recording) {
+        return RecordingDto.builder()
+                .id(recording.getId())
+                .state(recording.getState().name())
+                .startTime(recording.getStartTime())
+                .maxDurationSeconds(recording.getDuration() == null ? 0 : recording.getDuration().toSeconds())
+                .maxSizeBytes(recording.getMaxSize())
+                .build();
+    }
+}
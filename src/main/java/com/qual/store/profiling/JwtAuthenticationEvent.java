@@ -0,0 +1,25 @@
+package com.qual.store.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.qual.store.JwtAuthentication")
+@Label("JWT Authentication")
+@Category({"Store", "Security"})
+@Description("The verification of the bearer token of a request")
+public class JwtAuthenticationEvent extends Event {
+
+    @Label("Username")
+    public String username;
+
+    @Label("Outcome")
+    @Description("authenticated, rejected, expired or invalid")
+    public String outcome;
+
+    @Label("Principal From Token")
+    @Description("Whether the token carries the role claim")
+    public boolean principalFromToken;
+}
@@ -0,0 +1,80 @@
+package com.qual.store.profiling;
+
+import com.qual.store.sql.SqlAccounting;
+import com.qual.store.sql.SqlRequestStatistics;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+// emits a ServiceCallEvent around the methods of @Traced beans. Without a recording of the event, a call costs
+// the isEnabled check: the event is not filled in and, once compiled, not even allocated
+@Component
+public class ServiceCallAdvisor extends AbstractPointcutAdvisor implements MethodInterceptor {
+    private static final int MAX_ARGUMENT_LENGTH = 64;
+
+    private final transient Pointcut pointcut = new AnnotationMatchingPointcut(Traced.class, true);
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return this;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        SqlRequestStatistics statistics = SqlAccounting.current();
+        int statementsBefore = statistics == null ? 0 : statistics.getStatementCount();
+        long rowsBefore = statistics == null ? 0 : statistics.getRowCount();
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } catch (Throwable error) {
+            event.error = error.getClass().getSimpleName();
+            throw error;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = targetName(invocation) + "." + invocation.getMethod().getName();
+                describeArguments(event, invocation.getArguments());
+                event.results = result instanceof Collection<?> collection ? collection.size() : -1;
+                if (statistics != null) {
+                    event.statements = statistics.getStatementCount() - statementsBefore;
+                    event.rows = statistics.getRowCount() - rowsBefore;
+                }
+                event.commit();
+            }
+        }
+    }
+
+    private static String targetName(MethodInvocation invocation) {
+        Object target = invocation.getThis();
+        return (target == null ? invocation.getMethod().getDeclaringClass() : target.getClass()).getSimpleName();
+    }
+
+    private static void describeArguments(ServiceCallEvent event, Object[] arguments) {
+        for (Object argument : arguments) {
+            if (event.entityId == 0 && argument instanceof Long id) {
+                event.entityId = id;
+            } else if (event.argument == null && argument instanceof String text) {
+                event.argument = text.length() > MAX_ARGUMENT_LENGTH ? text.substring(0, MAX_ARGUMENT_LENGTH) : text;
+            }
+        }
+    }
+}
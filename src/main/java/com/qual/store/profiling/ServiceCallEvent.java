@@ -0,0 +1,38 @@
+package com.qual.store.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.qual.store.ServiceCall")
+@Label("Service Call")
+@Category({"Store", "Service"})
+@Description("A call of a @Traced service method, with the SQL it ran")
+public class ServiceCallEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Entity Id")
+    @Description("The first id argument, 0 when there is none")
+    long entityId;
+
+    @Label("Argument")
+    @Description("The first text argument, such as an image name or a search, truncated")
+    String argument;
+
+    @Label("Results")
+    @Description("The size of the returned collection, -1 when no collection is returned")
+    int results;
+
+    @Label("SQL Statements")
+    int statements;
+
+    @Label("Rows Fetched")
+    long rows;
+
+    @Label("Error")
+    String error;
+}
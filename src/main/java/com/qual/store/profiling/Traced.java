@@ -0,0 +1,12 @@
+package com.qual.store.profiling;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// the public methods of the annotated bean emit a ServiceCallEvent while a flight recording is running
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Traced {
+}
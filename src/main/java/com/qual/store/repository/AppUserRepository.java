@@ -2,10 +2,12 @@ package com.qual.store.repository;
 
 
 import com.qual.store.model.AppUser;
+import com.qual.store.repository.projection.AppUserCredentials;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 
 public interface AppUserRepository extends ShopRepository<AppUser, Long> {
@@ -13,6 +15,11 @@ public interface AppUserRepository extends ShopRepository<AppUser, Long> {
     @EntityGraph(value = "userWithOrders", type = EntityGraph.EntityGraphType.LOAD)
     AppUser findUserByUsername(String username);
 
+    // what authentication needs, without the orders and favorites of the user
+    @Query("select u.username as username, u.password as password, u.role as role " +
+            "from AppUser u where u.username = :username")
+    Optional<AppUserCredentials> findCredentialsByUsername(String username);
+
     // print user with orders
     @Query("select distinct u from AppUser u")
     @EntityGraph(value = "userWithOrders", type = EntityGraph.EntityGraphType.LOAD)
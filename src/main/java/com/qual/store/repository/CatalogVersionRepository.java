@@ -0,0 +1,17 @@
+package com.qual.store.repository;
+
+import com.qual.store.model.CatalogVersion;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CatalogVersionRepository extends ShopRepository<CatalogVersion, Long> {
+
+    // the row is inserted by the first change; should two instances insert it at once, every row is bumped and the
+    // highest version is read, which still grows with every change
+    @Query("select coalesce(max(c.version), 0L) from CatalogVersion c")
+    long findVersion();
+
+    @Modifying
+    @Query("update CatalogVersion c set c.version = c.version + 1")
+    int incrementVersion();
+}
@@ -3,8 +3,15 @@ package com.qual.store.repository;
 import com.qual.store.model.ImageModel;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface ImageRepository extends JpaRepository<ImageModel, Long> {
     Optional<ImageModel> findByName(String name);
+
+    List<ImageModel> findByProductIdOrderByName(Long productId);
+
+    Optional<ImageModel> findFirstByContentHash(String contentHash);
+
+    boolean existsByContentHash(String contentHash);
 }
@@ -1,6 +1,9 @@
 package com.qual.store.repository;
 
 import com.qual.store.model.OrderItem;
+import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.repository.projection.BasketItem;
+import com.qual.store.repository.projection.ProductQuantity;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 
@@ -10,4 +13,17 @@ public interface OrderItemRepository extends ShopRepository<OrderItem, Long> {
     @Query("select distinct oi from OrderItem oi join fetch oi.product p")
     @EntityGraph(value = "orderItemWithProduct", type = EntityGraph.EntityGraphType.LOAD)
     List<OrderItem> findAllWithProduct();
+
+    @Query("select oi.product.id as productId, sum(oi.quantity) as quantity from OrderItem oi " +
+            "join oi.order o where o.status = :status group by oi.product.id")
+    List<ProductQuantity> sumQuantityByOrderStatus(OrderStatus status);
+
+    // basket read model: a single statement, driven by the (user_id, status) and order_id indexes
+    @Query("select oi.id as id, oi.quantity as quantity, o.id as orderId, p.id as productId, " +
+            "p.name as productName, p.price as productPrice, p.unitsInStock as unitsInStock, " +
+            "c.id as categoryId, c.name as categoryName, " +
+            "(select min(i.name) from ImageModel i where i.product = p) as imageName " +
+            "from OrderItem oi join oi.order o join o.user u join oi.product p left join p.category c " +
+            "where u.username = :username and o.status = :status order by oi.id")
+    List<BasketItem> findBasketItemsByUsernameAndStatus(String username, OrderStatus status);
 }
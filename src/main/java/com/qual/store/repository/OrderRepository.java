@@ -1,11 +1,13 @@
 package com.qual.store.repository;
 
 import com.qual.store.model.Order;
+import com.qual.store.model.enums.OrderStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,14 +19,34 @@ public interface OrderRepository extends ShopRepository<Order, Long> {
     @Query("select distinct o from Order o join fetch o.orderItems oi join fetch oi.product p where o.id = :id")
     @EntityGraph(value = "orderWithOrderItems", type = EntityGraph.EntityGraphType.LOAD)
     Optional<Order> findOrderById(Long id);
+
+    // unlike findOrderById, an order without items is found too
+    @Query("select o from Order o join fetch o.user where o.id = :id")
+    @EntityGraph(value = "orderWithOrderItemsAndProducts", type = EntityGraph.EntityGraphType.LOAD)
+    Optional<Order> findWithOrderItemsAndProductsById(Long id);
     
     @Query("select distinct o from Order o where o.user.id = ?1")
     @EntityGraph(value = "orderWithOrderItems", type = EntityGraph.EntityGraphType.LOAD)
     List<Order> findAllByAppUserId(Long id);
 
-    @Query("select distinct o from Order o join fetch o.user")
+    // the user is matched through the unique username, the orders through the (user_id, status) index
+    @Query("select distinct o from Order o join fetch o.user u where u.username = :username")
+    @EntityGraph(value = "orderWithOrderItemsAndProducts", type = EntityGraph.EntityGraphType.LOAD)
+    List<Order> findAllWithOrderItemsAndProductsByUsername(String username);
+
+    @Query("select distinct o from Order o join fetch o.user u where u.username = :username and o.status = :status")
+    @EntityGraph(value = "orderWithOrderItems", type = EntityGraph.EntityGraphType.LOAD)
+    List<Order> findAllWithOrderItemsByUsernameAndStatus(String username, OrderStatus status);
+
+    @Query(value = "select o.id from Order o", countQuery = "select count(o) from Order o")
+    Page<Long> findOrderIds(Pageable pageable);
+
+    @Query("select o.id from Order o where o.id > :afterId order by o.id")
+    List<Long> findOrderIdsAfter(long afterId, Pageable limit);
+
+    @Query("select distinct o from Order o join fetch o.user where o.id in :orderIds")
     @EntityGraph(value = "orderWithOrderItemsAndProducts", type = EntityGraph.EntityGraphType.LOAD)
-    Page<Order> findAllWithOrderItems(Pageable pageable);
+    List<Order> findAllWithOrderItemsAndProductsByIds(Collection<Long> orderIds);
 
     @Query("select distinct o from Order o join fetch o.user")
     @EntityGraph(value = "orderWithOrderItemsAndProducts", type = EntityGraph.EntityGraphType.LOAD)
@@ -0,0 +1,12 @@
+package com.qual.store.repository;
+
+import com.qual.store.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface ProductIdRepository {
+
+    // the ids of one page of the products matching the specification, limited and counted in the database
+    Page<Long> findProductIds(Specification<Product> specification, Pageable pageable);
+}
@@ -0,0 +1,57 @@
+package com.qual.store.repository;
+
+import com.qual.store.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class ProductIdRepositoryImpl implements ProductIdRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<Long> findProductIds(Specification<Product> specification, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        // a tuple, the id is declared as Serializable by BaseEntity and Hibernate rejects it as a Long selection
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        query.select(builder.tuple(product.get("id")));
+        where(query, specification.toPredicate(product, query, builder));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), product, builder));
+
+        List<Long> productIds = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultStream()
+                .map(tuple -> tuple.get(0, Long.class))
+                .toList();
+        return PageableExecutionUtils.getPage(productIds, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Product> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(builder.count(product));
+        where(query, specification.toPredicate(product, query, builder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void where(CriteriaQuery<?> query, Predicate predicate) {
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -1,22 +1,61 @@
 package com.qual.store.repository;
 
 import com.qual.store.model.Product;
+import com.qual.store.repository.projection.ProductSearchDocument;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends ShopRepository<Product, Long> {
+public interface ProductRepository extends ShopRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductIdRepository {
     @Query("select distinct p from Product p")
     @EntityGraph(value = "productWithCategoryAndReviewsAndImages", type = EntityGraph.EntityGraphType.LOAD)
     List<Product> findAllWithCategoryAndReviewsAndImages();
 
-    @Override
+    @Query("select distinct p from Product p where p.id = :productId")
     @EntityGraph(value = "productWithCategoryAndReviewsAndImages", type = EntityGraph.EntityGraphType.LOAD)
-    Page<Product> findAll(Pageable pageable);
+    Optional<Product> findProductWithCategoryAndReviewsAndImages(Long productId);
 
+    @Query("select distinct p from Product p where p.id in :productIds")
     @EntityGraph(value = "productWithCategoryAndReviewsAndImages", type = EntityGraph.EntityGraphType.LOAD)
-    Page<Product> findAllByNameContainingIgnoreCase(String matchingName, Pageable pageable);
+    List<Product> findAllWithCategoryAndReviewsAndImagesByIds(Collection<Long> productIds);
+
+    // pages are selected as ids first, here or with ProductIdRepository.findProductIds for a specification, and
+    // fetched with findAllWithCategoryAndReviewsAndImagesByIds, a collection fetch join cannot be limited in the database
+    @Query(value = "select p.id from Product p", countQuery = "select count(p) from Product p")
+    Page<Long> findProductIds(Pageable pageable);
+
+    @Query("select p.id from Product p where p.id > :afterId order by p.id")
+    List<Long> findProductIdsAfter(long afterId, Pageable limit);
+
+    // the catalog ETags, see CatalogVersions
+    @Query("select p.catalogVersion from Product p where p.id = :productId")
+    Optional<Long> findCatalogVersionById(Long productId);
+
+    @Modifying
+    @Query("update Product p set p.catalogVersion = p.catalogVersion + 1 where p.id in :productIds")
+    int incrementCatalogVersions(Collection<Long> productIds);
+
+    // serializes the first sale of a product, see ProductSalesServiceImpl
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :productId")
+    Optional<Product> findAndLockById(Long productId);
+
+    // the text the search index is built from, without loading the products
+    @Query("select p.id as id, p.name as name, p.description as description, c.name as categoryName " +
+            "from Product p left join p.category c where p.id > :afterId order by p.id")
+    List<ProductSearchDocument> findSearchDocumentsAfter(long afterId, Pageable limit);
+
+    @Query("select p.id as id, p.name as name, p.description as description, c.name as categoryName " +
+            "from Product p left join p.category c where p.id in :productIds")
+    List<ProductSearchDocument> findSearchDocumentsByIds(Collection<Long> productIds);
 }
@@ -0,0 +1,23 @@
+package com.qual.store.repository;
+
+import com.qual.store.model.ProductSales;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ProductSalesRepository extends ShopRepository<ProductSales, Long> {
+
+    // top-N read served by the units_sold index, ties are broken by product id
+    @Query(value = "select s.product.id from ProductSales s where s.unitsSold > 0 order by s.unitsSold desc, s.product.id",
+            countQuery = "select count(s) from ProductSales s where s.unitsSold > 0")
+    Page<Long> findBestSellingProductIds(Pageable pageable);
+
+    @Modifying
+    @Query("update ProductSales s set s.unitsSold = s.unitsSold + :quantity where s.product.id = :productId")
+    int addUnitsSold(Long productId, long quantity);
+
+    @Modifying
+    @Query("delete from ProductSales s where s.product.id = :productId")
+    void deleteByProductId(Long productId);
+}
@@ -0,0 +1,11 @@
+package com.qual.store.repository.projection;
+
+import com.qual.store.model.enums.RoleName;
+
+public interface AppUserCredentials {
+    String getUsername();
+
+    String getPassword();
+
+    RoleName getRole();
+}
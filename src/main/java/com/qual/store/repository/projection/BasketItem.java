@@ -0,0 +1,23 @@
+package com.qual.store.repository.projection;
+
+public interface BasketItem {
+    Long getId();
+
+    Integer getQuantity();
+
+    Long getOrderId();
+
+    Long getProductId();
+
+    String getProductName();
+
+    Double getProductPrice();
+
+    Long getUnitsInStock();
+
+    Long getCategoryId();
+
+    String getCategoryName();
+
+    String getImageName();
+}
@@ -0,0 +1,7 @@
+package com.qual.store.repository.projection;
+
+public interface ProductQuantity {
+    Long getProductId();
+
+    Long getQuantity();
+}
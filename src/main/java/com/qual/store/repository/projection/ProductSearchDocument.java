@@ -0,0 +1,11 @@
+package com.qual.store.repository.projection;
+
+public interface ProductSearchDocument {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    String getCategoryName();
+}
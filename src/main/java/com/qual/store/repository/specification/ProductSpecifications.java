@@ -0,0 +1,57 @@
+package com.qual.store.repository.specification;
+
+import com.qual.store.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> hasDiscount() {
+        return (root, query, builder) -> builder.greaterThan(root.get("discountPercentage"), 0.0);
+    }
+
+    public static Specification<Product> priceBetween(Double minPrice, Double maxPrice) {
+        return (root, query, builder) -> {
+            if (minPrice == null && maxPrice == null) {
+                return null;
+            }
+            if (minPrice == null) {
+                return builder.lessThanOrEqualTo(root.get("price"), maxPrice);
+            }
+            if (maxPrice == null) {
+                return builder.greaterThanOrEqualTo(root.get("price"), minPrice);
+            }
+            return builder.between(root.get("price"), minPrice, maxPrice);
+        };
+    }
+
+    // the products selected elsewhere, such as by the search index; none for an empty collection
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, builder) -> productIds.isEmpty()
+                ? builder.disjunction()
+                : root.get("id").in(productIds);
+    }
+
+    public static Specification<Product> inCategory(Long categoryId) {
+        return (root, query, builder) -> categoryId == null
+                ? null
+                : builder.equal(root.get("category").get("id"), categoryId);
+    }
+
+    // combine the optional filters, a null or false argument leaves that filter out
+    public static Specification<Product> matching(Long categoryId, Double minPrice, Double maxPrice,
+                                                  Boolean discounted) {
+        Specification<Product> specification = Specification.where(inCategory(categoryId))
+                .and(priceBetween(minPrice, maxPrice));
+
+        if (Boolean.TRUE.equals(discounted)) {
+            specification = specification.and(hasDiscount());
+        }
+
+        return specification;
+    }
+}
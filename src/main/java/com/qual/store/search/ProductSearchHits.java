@@ -0,0 +1,15 @@
+package com.qual.store.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class ProductSearchHits {
+    private final List<Long> productIds;
+
+    // every product matching the query, not only the ones of the page
+    private final long totalHits;
+}
@@ -0,0 +1,477 @@
+package com.qual.store.search;
+
+import com.qual.store.repository.projection.ProductSearchDocument;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// in-memory inverted index over the product name, category name and description;
+// a product matches when it contains every query term, the last term also matching as a prefix
+@Component
+public class ProductSearchIndex {
+
+    // the fields a term was found in, also its weight: name above category above description
+    private static final int NAME = 4;
+    private static final int CATEGORY = 2;
+    private static final int DESCRIPTION = 1;
+
+    private static final Comparator<Hit> BY_ID = Comparator.comparingLong(hit -> hit.productId);
+    private static final Comparator<Hit> BY_RELEVANCE = Comparator.<Hit>comparingInt(hit -> hit.score).reversed()
+            .thenComparing(BY_ID);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postingsByTerm = new TreeMap<>();
+    // the terms of every product, to take them out when it changes
+    private final Map<Long, Postings[]> postingsByProduct = new HashMap<>();
+
+    public void index(ProductSearchDocument document) {
+        Map<String, Integer> fieldsByTerm = new LinkedHashMap<>();
+        addTerms(fieldsByTerm, document.getName(), NAME);
+        addTerms(fieldsByTerm, document.getCategoryName(), CATEGORY);
+        addTerms(fieldsByTerm, document.getDescription(), DESCRIPTION);
+
+        lock.writeLock().lock();
+        try {
+            removeProduct(document.getId());
+
+            Postings[] productPostings = new Postings[fieldsByTerm.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : fieldsByTerm.entrySet()) {
+                Postings postings = postingsByTerm.computeIfAbsent(entry.getKey(), Postings::new);
+                postings.put(document.getId(), entry.getValue());
+                productPostings[i++] = postings;
+            }
+            postingsByProduct.put(document.getId(), productPostings);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeProduct(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            postingsByProduct.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postingsByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // a page of the matching products, best first or in ascending id order
+    public ProductSearchHits search(String query, int offset, int limit, boolean rankByRelevance) {
+        Comparator<Hit> order = rankByRelevance ? BY_RELEVANCE : BY_ID;
+        int kept = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+        // the head is the worst hit kept so far, so the heap never grows past the requested page
+        PriorityQueue<Hit> best = new PriorityQueue<>(order.reversed());
+        long[] totalHits = {0};
+
+        lock.readLock().lock();
+        try {
+            forEachMatch(query, 0L, (productId, score) -> {
+                totalHits[0]++;
+                if (best.size() < kept) {
+                    best.add(new Hit(productId, score));
+                } else if (kept > 0 && order.compare(new Hit(productId, score), best.peek()) < 0) {
+                    best.poll();
+                    best.add(new Hit(productId, score));
+                }
+                return true;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(order);
+        List<Long> productIds = ranked.stream()
+                .skip(offset)
+                .map(hit -> hit.productId)
+                .toList();
+        return new ProductSearchHits(productIds, totalHits[0]);
+    }
+
+    // up to limit matching products with an id above afterId, in ascending id order
+    public List<Long> searchAfter(String query, long afterId, int limit) {
+        List<Long> productIds = new ArrayList<>();
+        if (limit <= 0) {
+            return productIds;
+        }
+
+        lock.readLock().lock();
+        try {
+            forEachMatch(query, afterId, (productId, score) -> {
+                productIds.add(productId);
+                return productIds.size() < limit;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return productIds;
+    }
+
+    public long count(String query) {
+        long[] totalHits = {0};
+
+        lock.readLock().lock();
+        try {
+            forEachMatch(query, 0L, (productId, score) -> {
+                totalHits[0]++;
+                return true;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return totalHits[0];
+    }
+
+    private static void addTerms(Map<String, Integer> fieldsByTerm, String text, int field) {
+        for (String term : SearchTokenizer.tokenize(text)) {
+            fieldsByTerm.merge(term, field, (fields, newField) -> fields | newField);
+        }
+    }
+
+    private void removeProduct(Long productId) {
+        Postings[] productPostings = postingsByProduct.remove(productId);
+        if (productPostings == null) {
+            return;
+        }
+
+        for (Postings postings : productPostings) {
+            postings.remove(productId);
+            if (postings.size == 0) {
+                postingsByTerm.remove(postings.term);
+            }
+        }
+    }
+
+    // called with the read lock held; the products are visited in ascending id order. Every query term walks its
+    // postings in id order and the terms leapfrog to the next product they all contain, so nothing is copied or
+    // sorted per query and a scan that is stopped early only paid for the products it visited
+    private void forEachMatch(String query, long afterId, MatchConsumer consumer) {
+        List<TermCursor> cursors = resolve(query);
+        if (cursors.isEmpty()) {
+            return;
+        }
+        // the rarest term leads, the others seek to its products
+        cursors.sort(Comparator.comparingLong(cursor -> cursor.size));
+
+        long candidate = afterId + 1;
+        int agreeing = 0;
+        int i = 0;
+        while (true) {
+            TermCursor cursor = cursors.get(i);
+            if (!cursor.advanceTo(candidate)) {
+                return;
+            }
+            if (cursor.current() != candidate) {
+                candidate = cursor.current();
+                agreeing = 0;
+            }
+            if (++agreeing == cursors.size()) {
+                int score = 0;
+                for (TermCursor termCursor : cursors) {
+                    score += termCursor.score();
+                }
+                if (!consumer.accept(candidate, score)) {
+                    return;
+                }
+                candidate++;
+                agreeing = 0;
+                i = 0;
+                continue;
+            }
+            i = (i + 1) % cursors.size();
+        }
+    }
+
+    // the last term also matches every term it is a prefix of, however many there are
+    private List<TermCursor> resolve(String query) {
+        List<String> tokens = SearchTokenizer.tokenize(query);
+        List<TermCursor> cursors = new ArrayList<>(tokens.size());
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Postings exact = postingsByTerm.get(token);
+
+            List<Postings> matching = new ArrayList<>();
+            if (exact != null) {
+                matching.add(exact);
+            }
+            if (i == tokens.size() - 1) {
+                matching.addAll(postingsByTerm.subMap(token, false, token + Character.MAX_VALUE, true).values());
+            }
+
+            // no product contains the term, so none contains all of them
+            if (matching.isEmpty()) {
+                return List.of();
+            }
+            cursors.add(TermCursor.of(exact, matching));
+        }
+        return cursors;
+    }
+
+    private interface MatchConsumer {
+        // false stops the scan
+        boolean accept(long productId, int score);
+    }
+
+    private static final class Hit {
+        private final long productId;
+        private final int score;
+
+        private Hit(long productId, int score) {
+            this.productId = productId;
+            this.score = score;
+        }
+    }
+
+    // the products containing a query term in ascending id order, with the score of the term for the current one
+    private abstract static class TermCursor {
+        private final long size;
+
+        private TermCursor(List<Postings> matching) {
+            long size = 0;
+            for (Postings postings : matching) {
+                size += postings.size;
+            }
+            this.size = size;
+        }
+
+        // a prefix whose postings are dense in their id range is merged up front, a sparse one lazily
+        private static TermCursor of(Postings exact, List<Postings> matching) {
+            long firstId = Long.MAX_VALUE;
+            long lastId = Long.MIN_VALUE;
+            long size = 0;
+            for (Postings postings : matching) {
+                firstId = Math.min(firstId, postings.productIds[0]);
+                lastId = Math.max(lastId, postings.productIds[postings.size - 1]);
+                size += postings.size;
+            }
+            long range = lastId - firstId + 1;
+            return matching.size() > 1 && range <= DenseTermCursor.MAX_RANGE_PER_POSTING * size
+                    && range <= Integer.MAX_VALUE
+                    ? new DenseTermCursor(exact, matching, firstId, (int) range)
+                    : new MergingTermCursor(exact, matching);
+        }
+
+        // moves to the first product at or above target, false when there is none; targets never decrease
+        abstract boolean advanceTo(long target);
+
+        abstract long current();
+
+        // an exact match counts twice a prefix match
+        abstract int score();
+    }
+
+    // merges the postings lazily through a heap ordered by the product each postings is positioned at,
+    // so a scan that stops at the end of a page only reads the postings up to there
+    private static final class MergingTermCursor extends TermCursor {
+        private final Postings exact;
+        private final PriorityQueue<PostingsCursor> heap =
+                new PriorityQueue<>(Comparator.comparingLong(PostingsCursor::productId));
+        // the cursors of the current product, taken off the heap by score
+        private final List<PostingsCursor> onCurrent = new ArrayList<>();
+        private long current;
+
+        private MergingTermCursor(Postings exact, List<Postings> matching) {
+            super(matching);
+            this.exact = exact;
+            for (Postings postings : matching) {
+                heap.add(new PostingsCursor(postings));
+            }
+        }
+
+        @Override
+        boolean advanceTo(long target) {
+            for (PostingsCursor cursor : onCurrent) {
+                if (cursor.seek(target)) {
+                    heap.add(cursor);
+                }
+            }
+            onCurrent.clear();
+            while (!heap.isEmpty() && heap.peek().productId() < target) {
+                PostingsCursor cursor = heap.poll();
+                if (cursor.seek(target)) {
+                    heap.add(cursor);
+                }
+            }
+            if (heap.isEmpty()) {
+                return false;
+            }
+            current = heap.peek().productId();
+            return true;
+        }
+
+        @Override
+        long current() {
+            return current;
+        }
+
+        @Override
+        int score() {
+            while (!heap.isEmpty() && heap.peek().productId() == current) {
+                onCurrent.add(heap.poll());
+            }
+
+            int exactFields = 0;
+            int prefixFields = 0;
+            for (PostingsCursor cursor : onCurrent) {
+                if (cursor.postings == exact) {
+                    exactFields = cursor.fields();
+                } else {
+                    prefixFields |= cursor.fields();
+                }
+            }
+            return exactFields != 0 ? 2 * exactFields : prefixFields;
+        }
+    }
+
+    // a short prefix such as "b" can expand to thousands of terms covering most products; their fields are
+    // merged into one array over the id range, exact fields in the low bits and prefix fields above them
+    private static final class DenseTermCursor extends TermCursor {
+        private static final int MAX_RANGE_PER_POSTING = 8;
+        private static final int PREFIX_SHIFT = 3;
+        private static final int FIELDS_MASK = NAME | CATEGORY | DESCRIPTION;
+
+        private final long firstId;
+        private final byte[] fields;
+        private int position;
+
+        private DenseTermCursor(Postings exact, List<Postings> matching, long firstId, int range) {
+            super(matching);
+            this.firstId = firstId;
+            this.fields = new byte[range];
+            for (Postings postings : matching) {
+                int shift = postings == exact ? 0 : PREFIX_SHIFT;
+                for (int i = 0; i < postings.size; i++) {
+                    fields[(int) (postings.productIds[i] - firstId)] |= (byte) (postings.fields[i] << shift);
+                }
+            }
+        }
+
+        @Override
+        boolean advanceTo(long target) {
+            if (target - firstId > position) {
+                position = (int) Math.min(target - firstId, fields.length);
+            }
+            while (position < fields.length && fields[position] == 0) {
+                position++;
+            }
+            return position < fields.length;
+        }
+
+        @Override
+        long current() {
+            return firstId + position;
+        }
+
+        @Override
+        int score() {
+            int exactFields = fields[position] & FIELDS_MASK;
+            return exactFields != 0 ? 2 * exactFields : (fields[position] >> PREFIX_SHIFT) & FIELDS_MASK;
+        }
+    }
+
+    private static final class PostingsCursor {
+        private final Postings postings;
+        private int index;
+
+        private PostingsCursor(Postings postings) {
+            this.postings = postings;
+        }
+
+        private long productId() {
+            return postings.productIds[index];
+        }
+
+        private int fields() {
+            return postings.fields[index];
+        }
+
+        // moves to the first product at or above target, false when the postings are exhausted
+        private boolean seek(long target) {
+            // a scan mostly moves to the next product
+            if (index + 1 < postings.size && postings.productIds[index + 1] >= target
+                    && postings.productIds[index] < target) {
+                index++;
+                return true;
+            }
+            int i = Arrays.binarySearch(postings.productIds, index, postings.size, target);
+            index = i >= 0 ? i : -i - 1;
+            return index < postings.size;
+        }
+    }
+
+    // the products containing a term, sorted by id, with the fields the term was found in
+    private static final class Postings {
+        private final String term;
+        private long[] productIds = new long[1];
+        private byte[] fields = new byte[1];
+        private int size;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        // new products have the highest ids, so they are appended without shifting
+        private void put(long productId, int productFields) {
+            int i = Arrays.binarySearch(productIds, 0, size, productId);
+            if (i >= 0) {
+                fields[i] = (byte) productFields;
+                return;
+            }
+
+            i = -i - 1;
+            if (size == productIds.length) {
+                int capacity = size + (size >> 1) + 1;
+                productIds = Arrays.copyOf(productIds, capacity);
+                fields = Arrays.copyOf(fields, capacity);
+            }
+            System.arraycopy(productIds, i, productIds, i + 1, size - i);
+            System.arraycopy(fields, i, fields, i + 1, size - i);
+            productIds[i] = productId;
+            fields[i] = (byte) productFields;
+            size++;
+        }
+
+        private void remove(long productId) {
+            int i = Arrays.binarySearch(productIds, 0, size, productId);
+            if (i < 0) {
+                return;
+            }
+
+            System.arraycopy(productIds, i + 1, productIds, i, size - i - 1);
+            System.arraycopy(fields, i + 1, fields, i, size - i - 1);
+            size--;
+        }
+    }
+}
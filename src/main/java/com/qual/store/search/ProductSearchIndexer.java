@@ -0,0 +1,78 @@
+package com.qual.store.search;
+
+import com.qual.store.cache.CategoryChangedEvent;
+import com.qual.store.cache.ProductChangedEvent;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.projection.ProductSearchDocument;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// keeps the search index in step with the products through the events of the catalog services
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndexer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+
+    // the index lives in memory, so it is filled from the products every time the application starts
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        productSearchIndex.clear();
+
+        long afterId = 0L;
+        List<ProductSearchDocument> documents;
+        do {
+            documents = productRepository.findSearchDocumentsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            documents.forEach(productSearchIndex::index);
+            if (!documents.isEmpty()) {
+                afterId = documents.get(documents.size() - 1).getId();
+            }
+        } while (documents.size() == BATCH_SIZE);
+    }
+
+    // after commit, so the products are read as they were saved
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Order(0)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getProductId() != null) {
+            reindex(List.of(event.getProductId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @Order(0)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        List<Long> productIds = event.getProductIds().stream()
+                .filter(Objects::nonNull)
+                .toList();
+        if (!productIds.isEmpty()) {
+            reindex(productIds);
+        }
+    }
+
+    // a product that cannot be read any more was deleted
+    private void reindex(List<Long> productIds) {
+        Set<Long> deletedProductIds = new HashSet<>(productIds);
+        for (ProductSearchDocument document : productRepository.findSearchDocumentsByIds(productIds)) {
+            productSearchIndex.index(document);
+            deletedProductIds.remove(document.getId());
+        }
+        deletedProductIds.forEach(productSearchIndex::remove);
+    }
+}
@@ -0,0 +1,50 @@
+package com.qual.store.security.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// security.rate-limit.groups.<name>.* limits the requests to a group of endpoints, per authenticated user, per client
+// IP and for all clients of the route together; a request passes when every limit of every group it belongs to does
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // buckets unused for this long are dropped, they would be full again anyway
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Group {
+        // exact paths, or prefixes ending with /**
+        private List<String> paths = new ArrayList<>();
+
+        // every method when empty
+        private Set<String> methods = new LinkedHashSet<>();
+
+        private Limit perUser;
+        private Limit perIp;
+        private Limit perRoute;
+    }
+
+    // up to capacity requests at once, refilled at capacity requests per period
+    @Getter
+    @Setter
+    public static class Limit {
+        private long capacity;
+        private Duration period;
+    }
+}
@@ -3,8 +3,10 @@ package com.qual.store.security.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.qual.store.model.enums.RoleName;
 import com.qual.store.security.util.JwtRequestFilter;
+import com.qual.store.security.util.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,7 +21,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.core.GrantedAuthorityDefaults;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -32,14 +34,17 @@ import java.util.Map;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 public class WebSecurityConfig {
     private final UserDetailsService jwtUserDetailsService;
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordEncoder passwordEncoder;
 
     @Autowired
     public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(jwtUserDetailsService).passwordEncoder(new BCryptPasswordEncoder());
+        auth.userDetailsService(jwtUserDetailsService).passwordEncoder(passwordEncoder);
     }
 
     @Bean
@@ -100,6 +105,14 @@ public class WebSecurityConfig {
                     auth.requestMatchers(HttpMethod.DELETE, "/api/adresses/**").hasAuthority(RoleName.ADMIN.name());
 
                     auth.requestMatchers(HttpMethod.GET,"/api/orders/display").hasAuthority(RoleName.ADMIN.name());
+                    auth.requestMatchers(HttpMethod.GET, "/api/caches/**").hasAuthority(RoleName.ADMIN.name());
+                    auth.requestMatchers(HttpMethod.GET, "/api/password-hashing/**").hasAuthority(RoleName.ADMIN.name());
+                    auth.requestMatchers(HttpMethod.GET, "/api/method-timings/**").hasAuthority(RoleName.ADMIN.name());
+                    auth.requestMatchers(HttpMethod.GET, "/api/sql-statistics/**").hasAuthority(RoleName.ADMIN.name());
+                    auth.requestMatchers("/api/recordings/**").hasAuthority(RoleName.ADMIN.name());
+                    //health is public for load balancers and compose, prometheus and the other endpoints are admin only
+                    auth.requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**").permitAll();
+                    auth.requestMatchers("/actuator/**").hasAuthority(RoleName.ADMIN.name());
                     auth.requestMatchers(HttpMethod.GET, "/api/products/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/addresses/**").permitAll();
                     auth.requestMatchers(HttpMethod.GET, "/api/categories/**").permitAll();
@@ -151,7 +164,8 @@ public class WebSecurityConfig {
                     });
                 })
                 .sessionManagement(ses -> ses.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtRequestFilter.class);
 
         return httpSecurity.build();
     }
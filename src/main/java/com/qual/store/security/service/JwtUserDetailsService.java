@@ -1,9 +1,13 @@
 package com.qual.store.security.service;
 
 
-import com.qual.store.model.AppUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.qual.store.model.enums.RoleName;
 import com.qual.store.repository.AppUserRepository;
+import com.qual.store.repository.projection.AppUserCredentials;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
@@ -12,24 +16,63 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class JwtUserDetailsService implements UserDetailsService {
 
+    public static final String PRINCIPALS = "principals";
+
+    private static final long MISSING_PRINCIPALS_MAXIMUM_SIZE = 10000;
+
     final AppUserRepository userRepository;
 
-    public JwtUserDetailsService(AppUserRepository userRepository) {
+    // usernames without a user, e.g. of deleted users whose tokens are still sent, so they are rejected without a
+    // query each; the principals cache does not keep a miss. Null when disabled
+    private final Cache<String, Boolean> missingPrincipals;
+
+    public JwtUserDetailsService(AppUserRepository userRepository,
+                                 @Value("${security.jwt.missing-principals.ttl}") Duration missingPrincipalsTtl) {
         this.userRepository = userRepository;
+
+        if (!missingPrincipalsTtl.isZero()) {
+            this.missingPrincipals = Caffeine.newBuilder()
+                    .maximumSize(MISSING_PRINCIPALS_MAXIMUM_SIZE)
+                    .expireAfterWrite(missingPrincipalsTtl)
+                    .build();
+        } else {
+            this.missingPrincipals = null;
+        }
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        AppUser user = userRepository.findUserByUsername(username);
-        List<GrantedAuthority> authorityList = new ArrayList<>();
-        authorityList.add(new SimpleGrantedAuthority(user.getRole().name()));
-        return new User(user.getUsername(), user.getPassword(), authorityList);
+        AppUserCredentials user = findCredentials(username);
+        // the user exists again, e.g. signed up with the name of a deleted user, and gets a token after this login
+        if (missingPrincipals != null) {
+            missingPrincipals.invalidate(username);
+        }
+        return createUserDetails(user.getUsername(), user.getPassword(), user.getRole());
+    }
+
+    // the principal every token is checked against, cached without the password
+    @Cacheable(PRINCIPALS)
+    public UserDetails loadPrincipal(String username) throws UsernameNotFoundException {
+        if (missingPrincipals != null && missingPrincipals.getIfPresent(username) != null) {
+            throw notFound(username);
+        }
+
+        Optional<AppUserCredentials> user = userRepository.findCredentialsByUsername(username);
+        if (user.isEmpty()) {
+            if (missingPrincipals != null) {
+                missingPrincipals.put(username, Boolean.TRUE);
+            }
+            throw notFound(username);
+        }
+        return createUserDetails(user.get().getUsername(), "", user.get().getRole());
     }
 
     public UserDetails createUserDetails(String username, String password, RoleName role) {
@@ -37,4 +80,13 @@ public class JwtUserDetailsService implements UserDetailsService {
         authorityList.add(new SimpleGrantedAuthority(role.name()));
         return new User(username, password, authorityList);
     }
+
+    private AppUserCredentials findCredentials(String username) {
+        return userRepository.findCredentialsByUsername(username)
+                .orElseThrow(() -> notFound(username));
+    }
+
+    private UsernameNotFoundException notFound(String username) {
+        return new UsernameNotFoundException(String.format("No user with username %s", username));
+    }
 }
@@ -0,0 +1,126 @@
+package com.qual.store.security.util;
+
+import com.qual.store.dto.PasswordHashingStatisticsDto;
+import com.qual.store.exceptions.PasswordHashingBusyException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// the single password encoder of the application. BCrypt runs on a bounded pool: a burst of logins keeps at most
+// workers + queue-capacity request threads waiting for a hash, the others are rejected at once with a 503
+// instead of taking every request thread from the rest of the API
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+
+    public BoundedPasswordEncoder(@Value("${security.password-hashing.strength}") int strength,
+                                  @Value("${security.password-hashing.workers}") int workers,
+                                  @Value("${security.password-hashing.queue-capacity}") int queueCapacity) {
+        this(new BCryptPasswordEncoder(strength), workers, queueCapacity);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int workers, int queueCapacity) {
+        this.delegate = delegate;
+        this.queueCapacity = queueCapacity;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordHashingStatisticsDto getStatistics() {
+        long hashes = hashCount.sum();
+        return PasswordHashingStatisticsDto.builder()
+                .workers(executor.getCorePoolSize())
+                .queueCapacity(queueCapacity)
+                .active(executor.getActiveCount())
+                .queued(executor.getQueue().size())
+                .hashCount(hashes)
+                .rejectedCount(rejectedCount.sum())
+                .meanWaitMillis(hashes == 0 ? 0 : waitNanos.sum() / 1e6 / hashes)
+                .meanHashMillis(hashes == 0 ? 0 : hashNanos.sum() / 1e6 / hashes)
+                .maxHashMillis(maxHashNanos.get() / 1e6)
+                .build();
+    }
+
+    private <T> T hash(Callable<T> hashing) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                try {
+                    return hashing.call();
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    waitNanos.add(started - submitted);
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                    hashCount.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCount.increment();
+            throw new PasswordHashingBusyException("Too many password checks in progress, try again later");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for a password check");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
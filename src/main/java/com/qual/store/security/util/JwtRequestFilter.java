@@ -1,5 +1,6 @@
 package com.qual.store.security.util;
 
+import com.qual.store.profiling.JwtAuthenticationEvent;
 import com.qual.store.security.service.JwtUserDetailsService;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
@@ -34,12 +35,23 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String requestTokenHeader = request.getHeader("Authorization");
         if (StringUtils.startsWith(requestTokenHeader, "Bearer ")) {
             String jwtToken = requestTokenHeader.substring(7);
+            // only filled in while a flight recording of the event is running
+            JwtAuthenticationEvent event = new JwtAuthenticationEvent();
+            event.begin();
             try {
-                String username = jwtTokenUtil.getUsernameFromToken(jwtToken);
+                // verified once, the username, role and expiration below are read from the verified claims
+                VerifiedToken verifiedToken = jwtTokenUtil.parseToken(jwtToken);
+                String username = verifiedToken.getUsername();
+                event.username = username;
+                event.outcome = "rejected";
                 if (StringUtils.isNotEmpty(username)
                         && null == SecurityContextHolder.getContext().getAuthentication()) {
-                    UserDetails userDetails = jwtUserDetailsService.loadUserByUsername(username);
-                    if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
+                    // the user is checked against the cached principal, so a deleted user or a changed role is
+                    // seen once the principal is evicted or expires rather than when the token does
+                    event.principalFromToken = verifiedToken.getPrincipal().isPresent();
+                    UserDetails userDetails = jwtUserDetailsService.loadPrincipal(username);
+                    if (jwtTokenUtil.validateToken(verifiedToken, userDetails)) {
+                        event.outcome = "authenticated";
                         UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
                                 new UsernamePasswordAuthenticationToken(
                                         userDetails, null, userDetails.getAuthorities());
@@ -50,12 +62,16 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                     }
                 }
             } catch (IllegalArgumentException e) {
+                event.outcome = "invalid";
                 logger.error("Unable to fetch JWT Token");
             } catch (ExpiredJwtException e) {
+                event.outcome = "expired";
                 logger.error("JWT Token is expired");
             } catch (Exception e) {
+                event.outcome = "invalid";
                 logger.error(e.getMessage());
             }
+            event.commit();
         } else {
             logger.warn("JWT Token does not begin with Bearer String");
         }
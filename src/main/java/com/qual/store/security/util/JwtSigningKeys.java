@@ -0,0 +1,96 @@
+package com.qual.store.security.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// the HMAC keys tokens are signed with, by key id (the kid header), shared by every instance of the service.
+// Tokens signed with any of them are accepted, new ones are signed with security.jwt.signing-key-id, so a key
+// is rotated by adding it, signing with it once every instance knows it, and removing the old one after
+// the tokens it signed have expired.
+@Component
+public class JwtSigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtSigningKeys.class);
+    private static final String GENERATED_KEY_ID = "generated";
+
+    private final Map<String, Key> keys = new LinkedHashMap<>();
+    private final String signingKeyId;
+
+    // keys are "kid:base64 secret" pairs separated by commas, the keys file has a kid=base64 secret line per key
+    public JwtSigningKeys(@Value("${security.jwt.keys}") String keys,
+                          @Value("${security.jwt.keys-file}") String keysFile,
+                          @Value("${security.jwt.signing-key-id}") String signingKeyId) {
+        for (String pair : StringUtils.split(StringUtils.defaultString(keys), ',')) {
+            String keyId = StringUtils.substringBefore(pair, ':').trim();
+            addKey(keyId, StringUtils.substringAfter(pair, ':'));
+        }
+        if (StringUtils.isNotBlank(keysFile)) {
+            loadKeysFile(Path.of(keysFile));
+        }
+
+        if (this.keys.isEmpty()) {
+            // only one instance can verify its tokens, and only until it restarts
+            log.warn("no JWT signing key is configured, tokens are signed with a key generated for this instance");
+            this.keys.put(GENERATED_KEY_ID, Keys.secretKeyFor(SignatureAlgorithm.HS256));
+            this.signingKeyId = GENERATED_KEY_ID;
+        } else if (StringUtils.isNotBlank(signingKeyId)) {
+            if (!this.keys.containsKey(signingKeyId)) {
+                throw new IllegalStateException("JWT signing key " + signingKeyId + " is not configured");
+            }
+            this.signingKeyId = signingKeyId;
+        } else if (this.keys.size() == 1) {
+            this.signingKeyId = this.keys.keySet().iterator().next();
+        } else {
+            throw new IllegalStateException("security.jwt.signing-key-id must name one of the JWT keys "
+                    + this.keys.keySet());
+        }
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Key getSigningKey() {
+        return keys.get(signingKeyId);
+    }
+
+    // null when no key has this id
+    public Key getKey(String keyId) {
+        return keyId == null ? null : keys.get(keyId);
+    }
+
+    private void loadKeysFile(Path keysFile) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(keysFile)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the JWT keys file " + keysFile, e);
+        }
+        properties.stringPropertyNames().stream()
+                .sorted()
+                .forEach(keyId -> addKey(keyId, properties.getProperty(keyId)));
+    }
+
+    private void addKey(String keyId, String secret) {
+        if (StringUtils.isBlank(keyId) || StringUtils.isBlank(secret)) {
+            throw new IllegalStateException("A JWT key needs an id and a base64 secret");
+        }
+        // hmacShaKeyFor rejects secrets shorter than the 256 bits of HS256
+        keys.put(keyId, Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret.trim())));
+    }
+}
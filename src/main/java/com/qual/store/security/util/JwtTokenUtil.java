@@ -1,32 +1,98 @@
 package com.qual.store.security.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
 public class JwtTokenUtil implements Serializable {
 
     public static final long JWT_TOKEN_VALIDITY = 5 * 60 * 60;
+    public static final String ROLE_CLAIM = "role";
 
-    Key key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final JwtSigningKeys signingKeys;
+    private final transient JwtParser parser;
+
+    // tokens already verified, by the SHA-256 of the token so the bearer tokens themselves are not kept,
+    // each until it expires; null when disabled
+    private final transient Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    public JwtTokenUtil(JwtSigningKeys signingKeys,
+                        @Value("${security.jwt.verified-tokens.maximum-size}") long verifiedTokensMaximumSize) {
+        this.signingKeys = signingKeys;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new KeyIdResolver(signingKeys)).build();
+
+        if (verifiedTokensMaximumSize > 0) {
+            this.verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedTokensMaximumSize)
+                    .expireAfter(new UntilTokenExpires())
+                    .build();
+        } else {
+            this.verifiedTokens = null;
+        }
+    }
+
+    // verifies the signature and the expiration once, the claims of a token seen before are read from the cache
+    public VerifiedToken parseToken(String token) {
+        if (verifiedTokens == null) {
+            return verify(token);
+        }
+
+        ByteBuffer digest = digest(token);
+        VerifiedToken verifiedToken = verifiedTokens.getIfPresent(digest);
+        if (verifiedToken == null || verifiedToken.isExpired()) {
+            // an expired token throws while it is verified again
+            verifiedToken = verify(token);
+            verifiedTokens.put(digest, verifiedToken);
+        }
+        return verifiedToken;
+    }
 
     public String getUsernameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return parseToken(token).getUsername();
     }
 
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return parseToken(token).getExpiration();
+    }
+
+    // the principal signed into the token, empty for tokens issued without the role claim
+    public Optional<UserDetails> getUserDetailsFromToken(String token) {
+        return parseToken(token).getPrincipal();
     }
 
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
@@ -35,21 +101,85 @@ public class JwtTokenUtil implements Serializable {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    private VerifiedToken verify(String token) {
+        final Claims claims = getAllClaimsFromToken(token);
+        if (claims.getExpiration() == null) {
+            throw new IllegalArgumentException("JWT Token has no expiration");
+        }
+        String role = claims.get(ROLE_CLAIM, String.class);
+        UserDetails principal = role == null ? null
+                : new User(claims.getSubject(), "", List.of(new SimpleGrantedAuthority(role)));
+        return new VerifiedToken(claims.getSubject(), claims.getExpiration(), principal);
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        return Jwts.builder().setClaims(claims).setSubject(userDetails.getUsername()).setIssuedAt(new Date(System.currentTimeMillis())).setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000)).signWith(key).compact();
+        userDetails.getAuthorities().stream()
+                .findFirst()
+                .ifPresent(authority -> claims.put(ROLE_CLAIM, authority.getAuthority()));
+        return Jwts.builder().setClaims(claims).setSubject(userDetails.getUsername()).setIssuedAt(new Date(System.currentTimeMillis())).setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY * 1000)).setHeaderParam(JwsHeader.KEY_ID, signingKeys.getSigningKeyId()).signWith(signingKeys.getSigningKey()).compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parseToken(token), userDetails);
+    }
+
+    // a token signed with a role the user no longer has is not valid, the user has to log in again
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return token.getUsername().equals(userDetails.getUsername()) && !token.isExpired()
+                && token.getPrincipal()
+                .map(principal -> hasSameAuthorities(principal, userDetails))
+                .orElse(true);
+    }
+
+    private static boolean hasSameAuthorities(UserDetails principal, UserDetails userDetails) {
+        return principal.getAuthorities().size() == userDetails.getAuthorities().size()
+                && principal.getAuthorities().containsAll(userDetails.getAuthorities());
+    }
+
+    // the key named by the kid header, tokens without one were signed with the current signing key
+    @RequiredArgsConstructor
+    private static class KeyIdResolver extends SigningKeyResolverAdapter {
+        private final JwtSigningKeys signingKeys;
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            if (header.getKeyId() == null) {
+                return signingKeys.getSigningKey();
+            }
+            Key key = signingKeys.getKey(header.getKeyId());
+            if (key == null) {
+                throw new UnsupportedJwtException("JWT Token is signed with the unknown key " + header.getKeyId());
+            }
+            return key;
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer digest, VerifiedToken token, long currentTime) {
+            long remainingMillis = token.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer digest, VerifiedToken token, long currentTime,
+                                      long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer digest, VerifiedToken token, long currentTime,
+                                    long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.qual.store.security.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// runs after JwtRequestFilter, so the requests of a logged-in user are limited per user as well as per IP
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String TOO_MANY_REQUESTS = "{\"error\":true,\"message\":\"Too many requests\"}";
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String user = authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null : authentication.getName();
+        // decoded, without ;parameters and with duplicate slashes removed, as the controllers are matched:
+        // /auth/%6cogin or /api//orders must not get around the limits of their routes
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+
+        long waitNanos = rateLimiter.tryAcquire(request.getMethod(), path, user, request.getRemoteAddr());
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(TOO_MANY_REQUESTS);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,208 @@
+package com.qual.store.security.util;
+
+import com.qual.store.security.config.RateLimitProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// the token buckets of the rate limited endpoint groups. A request costs a few string comparisons to find its
+// groups and one lookup plus one compare-and-set per limit; idle buckets are swept in the background
+@Component
+public class RateLimiter {
+
+    private final Rule[] rules;
+    private final long idleNanos;
+    private final ScheduledExecutorService sweeper;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.rules = properties.isEnabled()
+                ? properties.getGroups().entrySet().stream().map(Rule::new).toArray(Rule[]::new)
+                : new Rule[0];
+        this.idleNanos = properties.getIdleTimeout().toNanos();
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1000, properties.getIdleTimeout().toMillis());
+        sweeper.scheduleWithFixedDelay(() -> sweep(System.nanoTime()), sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return rules.length > 0;
+    }
+
+    // 0 when the request may proceed, otherwise the nanoseconds until it would; user is null for anonymous requests
+    public long tryAcquire(String method, String path, String user, String ip) {
+        // most requests match no group, they do not read the clock
+        for (Rule rule : rules) {
+            if (rule.matches(method, path)) {
+                return tryAcquire(method, path, user, ip, System.nanoTime());
+            }
+        }
+        return 0;
+    }
+
+    long tryAcquire(String method, String path, String user, String ip, long now) {
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].matches(method, path)) {
+                long wait = rules[i].tryAcquire(user, ip, now);
+                if (wait > 0) {
+                    // a rejected request must not use up the limits of the groups that let it through
+                    for (int j = 0; j < i; j++) {
+                        if (rules[j].matches(method, path)) {
+                            rules[j].giveBack(user, ip);
+                        }
+                    }
+                    return wait;
+                }
+            }
+        }
+        return 0;
+    }
+
+    void sweep(long now) {
+        for (Rule rule : rules) {
+            rule.userBuckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+            rule.ipBuckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+        }
+    }
+
+    int bucketCount() {
+        int count = 0;
+        for (Rule rule : rules) {
+            count += rule.userBuckets.size() + rule.ipBuckets.size();
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private static final class Rule {
+        private final String[] exactPaths;
+        private final String[] prefixes;
+        private final Set<String> methods;
+
+        private final RateLimitProperties.Limit perUser;
+        private final RateLimitProperties.Limit perIp;
+        private final TokenBucket routeBucket;
+
+        private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+        private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+
+        Rule(Map.Entry<String, RateLimitProperties.Group> group) {
+            List<String> exact = new ArrayList<>();
+            List<String> prefix = new ArrayList<>();
+            for (String path : group.getValue().getPaths()) {
+                if (path.endsWith("/**")) {
+                    String base = path.substring(0, path.length() - 3);
+                    exact.add(base);
+                    prefix.add(base + "/");
+                } else if (path.contains("*") || path.contains("{")) {
+                    throw new IllegalStateException("Rate limit group " + group.getKey()
+                            + " can only have exact paths or paths ending with /**: " + path);
+                } else {
+                    exact.add(path);
+                }
+            }
+            this.exactPaths = exact.toArray(String[]::new);
+            this.prefixes = prefix.toArray(String[]::new);
+            this.methods = group.getValue().getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+
+            this.perUser = validate(group.getKey(), group.getValue().getPerUser());
+            this.perIp = validate(group.getKey(), group.getValue().getPerIp());
+            RateLimitProperties.Limit perRoute = validate(group.getKey(), group.getValue().getPerRoute());
+            this.routeBucket = perRoute == null ? null : newBucket(perRoute, System.nanoTime());
+        }
+
+        boolean matches(String method, String path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (String exactPath : exactPaths) {
+                if (exactPath.equals(path)) {
+                    return true;
+                }
+            }
+            for (String prefix : prefixes) {
+                if (path.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // takes a token from every limit or from none of them
+        long tryAcquire(String user, String ip, long now) {
+            TokenBucket route = routeBucket;
+            TokenBucket byIp = perIp != null && ip != null ? bucket(ipBuckets, ip, perIp, now) : null;
+            TokenBucket byUser = perUser != null && user != null ? bucket(userBuckets, user, perUser, now) : null;
+
+            long wait = route == null ? 0 : route.tryTake(now);
+            if (wait > 0) {
+                return wait;
+            }
+            wait = byIp == null ? 0 : byIp.tryTake(now);
+            if (wait > 0) {
+                giveBack(route);
+                return wait;
+            }
+            wait = byUser == null ? 0 : byUser.tryTake(now);
+            if (wait > 0) {
+                giveBack(route);
+                giveBack(byIp);
+            }
+            return wait;
+        }
+
+        void giveBack(String user, String ip) {
+            giveBack(routeBucket);
+            giveBack(ip == null ? null : ipBuckets.get(ip));
+            giveBack(user == null ? null : userBuckets.get(user));
+        }
+
+        private static void giveBack(TokenBucket bucket) {
+            if (bucket != null) {
+                bucket.giveBack();
+            }
+        }
+
+        private static TokenBucket bucket(Map<String, TokenBucket> buckets, String client,
+                                          RateLimitProperties.Limit limit, long now) {
+            TokenBucket bucket = buckets.get(client);
+            if (bucket == null) {
+                bucket = buckets.computeIfAbsent(client, key -> newBucket(limit, now));
+            }
+            return bucket;
+        }
+
+        private static TokenBucket newBucket(RateLimitProperties.Limit limit, long now) {
+            return new TokenBucket(limit.getCapacity(), limit.getPeriod().toNanos(), now);
+        }
+
+        private static RateLimitProperties.Limit validate(String group, RateLimitProperties.Limit limit) {
+            if (limit != null && (limit.getCapacity() < 1 || limit.getPeriod() == null
+                    || limit.getPeriod().isNegative() || limit.getPeriod().isZero())) {
+                throw new IllegalStateException("Rate limit group " + group + " needs a capacity of at least 1 "
+                        + "and a positive period");
+            }
+            return limit;
+        }
+    }
+}
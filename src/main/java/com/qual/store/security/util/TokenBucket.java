@@ -0,0 +1,42 @@
+package com.qual.store.security.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// a token bucket kept as the time it will be full again (the generic cell rate algorithm), so taking a token is
+// a single compare-and-set without a lock and without a refill timer
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(long capacity, long periodNanos, long now) {
+        this.emissionIntervalNanos = Math.max(1, periodNanos / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.fullAt = new AtomicLong(now);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until the next one
+    long tryTake(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long start = Math.max(current, now);
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, start + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    // returns a token taken by tryTake, for a request that another limit rejected
+    void giveBack() {
+        fullAt.addAndGet(-emissionIntervalNanos);
+    }
+
+    boolean isIdle(long now, long idleNanos) {
+        return now - fullAt.get() > idleNanos;
+    }
+}
@@ -0,0 +1,29 @@
+package com.qual.store.security.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.Optional;
+
+// the claims of a token whose signature was verified, so the filter reads them without parsing it again
+@Getter
+@RequiredArgsConstructor
+public class VerifiedToken {
+    private final String username;
+    private final Date expiration;
+
+    // built from the role claim, null for tokens issued without it
+    @Getter(AccessLevel.NONE)
+    private final UserDetails principal;
+
+    public Optional<UserDetails> getPrincipal() {
+        return Optional.ofNullable(principal);
+    }
+
+    public boolean isExpired() {
+        return expiration.getTime() <= System.currentTimeMillis();
+    }
+}
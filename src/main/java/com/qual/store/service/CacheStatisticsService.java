@@ -0,0 +1,9 @@
+package com.qual.store.service;
+
+import com.qual.store.dto.CacheStatisticsDto;
+
+import java.util.List;
+
+public interface CacheStatisticsService {
+    List<CacheStatisticsDto> getCacheStatistics();
+}
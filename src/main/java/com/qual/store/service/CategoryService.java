@@ -1,5 +1,6 @@
 package com.qual.store.service;
 
+import com.qual.store.dto.CategoryDto;
 import com.qual.store.model.Category;
 
 import java.util.List;
@@ -8,12 +9,16 @@ import java.util.Optional;
 public interface CategoryService {
     List<Category> getAllCategories();
 
+    List<CategoryDto> getAllCategoryDtos();
+
     Category saveCategory(String categoryName);
 
     Category updateCategory(Long id, Category category);
 
     Category findCategoryById(Long id);
 
+    CategoryDto getCategoryDtoById(Long id);
+
     void deleteCategoryById(Long id);
 
 }
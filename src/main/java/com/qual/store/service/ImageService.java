@@ -2,6 +2,8 @@ package com.qual.store.service;
 
 import com.qual.store.model.ImageModel;
 import com.qual.store.model.Product;
+import com.qual.store.storage.ImageDerivative;
+import org.springframework.core.io.Resource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
@@ -12,13 +14,21 @@ public interface ImageService {
 
     Product saveImageModel(MultipartFile file, Long productId);
 
+    ImageModel storeImageContent(MultipartFile file);
+
     Optional<ImageModel> updateImageModel(Long id, ImageModel image);
 
     ImageModel findImageModelById(Long id);
 
     ImageModel findImageModelByName(String name);
 
-    byte[] downloadImage(String fileName);
+    ImageModel findImageModelByContentHash(String contentHash);
+
+    Resource loadImageContent(ImageModel imageModel);
+
+    Optional<ImageDerivative> findImageDerivative(String contentHash, int size);
+
+    List<ImageModel> findImageModelsByProductId(Long productId);
 
     void deleteImageModelByName(String imageName);
 }
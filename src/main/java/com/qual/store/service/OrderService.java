@@ -4,14 +4,14 @@ import com.qual.store.dto.OrderDto;
 import com.qual.store.dto.OrderItemDto;
 import com.qual.store.dto.paginated.PaginatedOrderResponse;
 import com.qual.store.model.Order;
-import com.qual.store.model.OrderItem;
+import com.qual.store.repository.projection.BasketItem;
 
 import java.util.List;
 import java.util.Map;
 
 public interface OrderService {
     List<Order> getAllOrders();
-    List<OrderItem> getBasketAsOrderItems();
+    List<BasketItem> getBasketItems();
 
     Order addToOrder(Long orderItemId);
 
@@ -27,6 +27,8 @@ public interface OrderService {
 
     PaginatedOrderResponse getOrders(Integer pageNumber, Integer pageSize, String sortBy);
 
+    PaginatedOrderResponse getOrdersAfter(String after, Integer limit, Boolean withTotal);
+
     Order getBasket();
 
     List<OrderDto> searchOrdersByUsername(String username);
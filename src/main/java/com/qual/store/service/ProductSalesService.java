@@ -0,0 +1,12 @@
+package com.qual.store.service;
+
+import com.qual.store.model.Order;
+import com.qual.store.model.enums.OrderStatus;
+
+public interface ProductSalesService {
+    void updateSales(Order order, OrderStatus previousStatus);
+
+    void removeSales(Order order);
+
+    void rebuildSales();
+}
@@ -10,9 +10,12 @@ import java.util.List;
 public interface ProductService {
     List<Product> getAllProducts();
 
-    List<Product> getAllProductsByDiscount();
+    List<ProductDto> getAllProductDtos();
 
-    List<Product> getAllProductsByPriceRange(Double minPrice, Double maxPrice);
+    PaginatedProductResponse getAllProductsByDiscount(Integer pageNumber, Integer pageSize, String sortBy);
+
+    PaginatedProductResponse getAllProductsByPriceRange(Double minPrice, Double maxPrice,
+                                                        Integer pageNumber, Integer pageSize, String sortBy);
 
     Product saveProductCategory(ProductRequestDto productRequestDto, Long categoryId);
 
@@ -26,9 +29,15 @@ public interface ProductService {
 
     PaginatedProductResponse getProducts(Integer pageNumber, Integer pageSize, String sortBy);
 
+    PaginatedProductResponse getProductsAfter(String after, Integer limit, Boolean withTotal);
+
     ProductDto getProductById(Long productId);
 
-    List<Product> findProductsByCategory(Long categoryId);
+    PaginatedProductResponse findProductsByCategory(Long categoryId,
+                                                    Integer pageNumber, Integer pageSize, String sortBy);
+
+    PaginatedProductResponse filterProducts(Long categoryId, Double minPrice, Double maxPrice, Boolean discounted,
+                                            Integer pageNumber, Integer pageSize, String sortBy);
 
     void addToFavorites(Long productId);
 
@@ -36,5 +45,9 @@ public interface ProductService {
 
     List<ProductDto> getFavProductsByLoggedInUser();
 
+    PaginatedProductResponse getBestSellingProducts(Integer pageNumber, Integer pageSize);
+
     PaginatedProductResponse searchProductByName(String name, Integer pageNumber, Integer pageSize, String sortBy);
+
+    PaginatedProductResponse searchProductByNameAfter(String name, String after, Integer limit, Boolean withTotal);
 }
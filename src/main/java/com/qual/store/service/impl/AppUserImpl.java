@@ -8,12 +8,14 @@ import com.qual.store.model.AppUser;
 import com.qual.store.model.Order;
 import com.qual.store.repository.AppUserRepository;
 import com.qual.store.repository.OrderRepository;
+import com.qual.store.security.service.JwtUserDetailsService;
 import com.qual.store.service.AppUserService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -24,6 +26,7 @@ public class AppUserImpl implements AppUserService {
     private final OrderRepository orderRepository;
     private final AppUserRepository appUserRepository;
     private final AppUserConverter appUserConverter;
+    private final PasswordEncoder passwordEncoder;
 
     @Override
     @Log
@@ -40,6 +43,7 @@ public class AppUserImpl implements AppUserService {
     @Override
     @Log
     @Transactional
+    @CacheEvict(cacheNames = JwtUserDetailsService.PRINCIPALS, key = "#username")
     public void deleteUserByUsername(String username) {
         AppUser user = appUserRepository.findUserByUsername(username);
 
@@ -57,7 +61,7 @@ public class AppUserImpl implements AppUserService {
     @Log
     public AppUser updateUserByUsername(String username, String password) {
         AppUser userToUpdate = appUserRepository.findUserByUsername(username);
-        userToUpdate.setPassword(new BCryptPasswordEncoder().encode(password));
+        userToUpdate.setPassword(passwordEncoder.encode(password));
         return appUserRepository.save(userToUpdate);
     }
 
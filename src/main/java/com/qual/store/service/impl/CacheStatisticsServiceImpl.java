@@ -0,0 +1,46 @@
+package com.qual.store.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.qual.store.dto.CacheStatisticsDto;
+import com.qual.store.logger.Log;
+import com.qual.store.service.CacheStatisticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private final CacheManager cacheManager;
+
+    @Override
+    @Log
+    public List<CacheStatisticsDto> getCacheStatistics() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(CaffeineCache.class::isInstance)
+                .map(CaffeineCache.class::cast)
+                .map(this::toStatistics)
+                .toList();
+    }
+
+    private CacheStatisticsDto toStatistics(CaffeineCache caffeineCache) {
+        Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+
+        return CacheStatisticsDto.builder()
+                .name(caffeineCache.getName())
+                .size(nativeCache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
@@ -1,14 +1,21 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.CatalogCacheNames;
+import com.qual.store.cache.CategoryChangedEvent;
+import com.qual.store.converter.CategoryConverter;
+import com.qual.store.dto.CategoryDto;
 import com.qual.store.exceptions.CategoryNotFoundException;
 import com.qual.store.logger.Log;
 import com.qual.store.model.Category;
+import com.qual.store.model.base.BaseEntity;
 import com.qual.store.repository.CategoryRepository;
 import com.qual.store.service.CategoryService;
 import com.qual.store.utils.validators.Validator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -20,6 +27,8 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final Validator<Category> validator;
+    private final CategoryConverter categoryConverter;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Override
     @Log
@@ -27,6 +36,15 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryRepository.findAllWithProducts();
     }
 
+    @Override
+    @Log
+    @Cacheable(CatalogCacheNames.CATEGORY_LIST)
+    public List<CategoryDto> getAllCategoryDtos() {
+        return categoryRepository.findAllWithProducts().stream()
+                .map(categoryConverter::convertModelToDto)
+                .toList();
+    }
+
     @Override
     @Log
     public Category saveCategory(String categoryName) {
@@ -37,10 +55,13 @@ public class CategoryServiceImpl implements CategoryService {
         validator.validate(category);
         Category savedCategory = categoryRepository.save(category);
 
-        return categoryRepository.findAllWithProducts().stream()
+        Category result = categoryRepository.findAllWithProducts().stream()
                 .filter(c -> c.getId().equals(savedCategory.getId()))
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("category not saved"));
+
+        applicationEventPublisher.publishEvent(new CategoryChangedEvent(result.getId()));
+        return result;
     }
 
     @Transactional
@@ -56,10 +77,14 @@ public class CategoryServiceImpl implements CategoryService {
         optionalCategory
                 .ifPresent(updateCategory -> updateCategory.setName(category.getName()));
 
-        return categoryRepository.findAllWithProducts().stream()
+        Category result = categoryRepository.findAllWithProducts().stream()
                 .filter(c -> c.getId().equals(optionalCategory.get().getId()))
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("category not saved"));
+
+        // the category name is rendered in every product of the category
+        applicationEventPublisher.publishEvent(new CategoryChangedEvent(id, productIdsOf(result)));
+        return result;
     }
 
     @Override
@@ -69,12 +94,31 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new CategoryNotFoundException(String.format("No category found with id %s", id)));
     }
 
+    @Override
+    @Log
+    @Cacheable(CatalogCacheNames.CATEGORIES)
+    public CategoryDto getCategoryDtoById(Long id) {
+        return categoryConverter.convertModelToDto(findCategoryById(id));
+    }
+
     @Override
     @Log
     public void deleteCategoryById(Long id) {
-        categoryRepository.findById(id)
+        Category category = categoryRepository.findCategoryWithProducts(id)
                 .orElseThrow(() -> new CategoryNotFoundException(String.format("No category found with id %s", id)));
 
+        List<Long> productIds = productIdsOf(category);
         categoryRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new CategoryChangedEvent(id, productIds));
+    }
+
+    private List<Long> productIdsOf(Category category) {
+        if (category.getProducts() == null) {
+            return List.of();
+        }
+
+        return category.getProducts().stream()
+                .map(BaseEntity::getId)
+                .toList();
     }
 }
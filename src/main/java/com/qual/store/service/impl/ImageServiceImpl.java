@@ -1,31 +1,50 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.exceptions.ImageModelException;
 import com.qual.store.exceptions.ProductNotFoundException;
 import com.qual.store.logger.Log;
 import com.qual.store.model.ImageModel;
 import com.qual.store.model.Product;
+import com.qual.store.profiling.Traced;
 import com.qual.store.repository.ImageRepository;
 import com.qual.store.repository.ProductRepository;
 import com.qual.store.service.ImageService;
+import com.qual.store.storage.ImageContentCleaner;
+import com.qual.store.storage.ImageContentReleasedEvent;
+import com.qual.store.storage.ImageContentStoredEvent;
+import com.qual.store.storage.ImageDerivative;
+import com.qual.store.storage.ImageDerivativeGenerator;
+import com.qual.store.storage.ImageStorage;
+import com.qual.store.storage.StoredImageContent;
+import com.qual.store.utils.images.ImageUtils;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
-
-import static com.qual.store.utils.images.ImageUtils.compressBytes;
-import static com.qual.store.utils.images.ImageUtils.decompressBytes;
+import java.util.OptionalInt;
 
 @Service
+@Traced
 @RequiredArgsConstructor
 public class ImageServiceImpl implements ImageService {
 
+    private static final int IMAGE_HEADER_LENGTH = 12;
+
     private final ImageRepository imageRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ImageStorage imageStorage;
+    private final ImageContentCleaner imageContentCleaner;
+    private final ImageDerivativeGenerator imageDerivativeGenerator;
 
     @Override
     @Log
@@ -41,28 +60,56 @@ public class ImageServiceImpl implements ImageService {
             throw new ImageModelException("No image to save");
         }
 
-        Product existingProduct = productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(product -> product.getId().equals(productId))
-                .findFirst()
+        Product existingProduct = productRepository.findProductWithCategoryAndReviewsAndImages(productId)
                 .orElseThrow(() -> new ProductNotFoundException(
                         String.format("product with id = %s not found", productId)
                 ));
 
-        Optional<ImageModel> image;
+        ImageModel imageToSave = storeImageContent(file);
+        imageToSave.setProduct(existingProduct);
+
+        existingProduct.addImageModel(imageToSave);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productId));
+        return productRepository.save(existingProduct);
+    }
+
+    // streams the upload into the image storage and describes it in an image that is not saved yet; the content is
+    // kept until the transaction saving the image completes, and deleted again if it rolls back
+    @Override
+    @Log
+    public ImageModel storeImageContent(MultipartFile file) {
+        StoredImageContent content = store(file);
+        if (!imageContentCleaner.retain(content.getContentHash())) {
+            // the same content was released and deleted since it was found in the storage
+            content = store(file);
+        }
+        applicationEventPublisher.publishEvent(new ImageContentStoredEvent(content.getContentHash()));
+
+        return ImageModel.builder()
+                .name(file.getOriginalFilename())
+                .type(typeOf(file))
+                .contentHash(content.getContentHash())
+                .size(content.getSize())
+                .build();
+    }
 
-        try {
-            System.out.println("Original Image Byte Size - " + file.getBytes().length);
-            image = Optional.of(new ImageModel(file.getOriginalFilename(), file.getContentType(),
-                    compressBytes(file.getBytes()), existingProduct));
+    // read from the content, the type the client sent is not trusted: the content is served with it
+    private String typeOf(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            byte[] header = inputStream.readNBytes(IMAGE_HEADER_LENGTH);
+            String type = ImageUtils.imageTypeOf(header, header.length);
+            return type != null ? type : MediaType.APPLICATION_OCTET_STREAM_VALUE;
         } catch (IOException e) {
             throw new ImageModelException(e.getMessage());
         }
+    }
 
-        ImageModel imageToSave = image.orElseThrow();
-
-        existingProduct.addImageModel(imageToSave);
-        return productRepository.save(existingProduct);
+    private StoredImageContent store(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return imageStorage.store(inputStream);
+        } catch (IOException e) {
+            throw new ImageModelException(e.getMessage());
+        }
     }
 
     @Override
@@ -74,56 +121,71 @@ public class ImageServiceImpl implements ImageService {
     @Override
     @Log
     public ImageModel findImageModelById(Long id) {
-        Optional<ImageModel> retrievedImage = imageRepository.findById(id);
-
-        ImageModel imageModel = retrievedImage
+        return imageRepository.findById(id)
                 .orElseThrow(() -> new ImageModelException(String.format("No image with id = %s", id)));
+    }
 
-        ImageModel result = new ImageModel(imageModel.getName(), imageModel.getType(),
-                decompressBytes(imageModel.getPicByte()), null);
-        result.setId(imageModel.getId());
+    @Override
+    @Log
+    public ImageModel findImageModelByName(String name) {
+        return imageRepository.findByName(name)
+                .orElseThrow(() -> new ImageModelException(String.format("No image with name = %s", name)));
+    }
 
-        return result;
+    @Override
+    @Log
+    public ImageModel findImageModelByContentHash(String contentHash) {
+        return imageRepository.findFirstByContentHash(contentHash)
+                .orElseThrow(() -> new ImageModelException(String.format("No image with content %s", contentHash)));
     }
 
     @Override
     @Log
-    public ImageModel findImageModelByName(String name) {
-        Optional<ImageModel> retrievedImage = imageRepository.findByName(name);
+    public Resource loadImageContent(ImageModel imageModel) {
+        return imageStorage.load(imageModel.getContentHash());
+    }
 
-        ImageModel imageModel = retrievedImage
-                .orElseThrow(() -> new ImageModelException(String.format("No image with name = %s", name)));
+    // a missing derivative is queued for rendering, the caller serves the original meanwhile
+    @Override
+    @Log
+    public Optional<ImageDerivative> findImageDerivative(String contentHash, int size) {
+        OptionalInt derivativeSize = imageDerivativeGenerator.nearestSize(size);
+        if (contentHash == null || derivativeSize.isEmpty()) {
+            return Optional.empty();
+        }
 
-        ImageModel result = new ImageModel(imageModel.getName(), imageModel.getType(),
-                decompressBytes(imageModel.getPicByte()), imageModel.getProduct());
-        result.setId(imageModel.getId());
+        Optional<Resource> derivative = imageStorage.loadDerivative(contentHash, derivativeSize.getAsInt());
+        if (derivative.isEmpty()) {
+            imageDerivativeGenerator.generate(contentHash);
+            return Optional.empty();
+        }
 
-        return result;
+        return Optional.of(new ImageDerivative(derivativeSize.getAsInt(), derivative.get()));
     }
 
     @Override
     @Log
-    public byte[] downloadImage(String fileName) {
-        ImageModel dbImageData = imageRepository.findByName(fileName)
-                .orElseThrow(() -> new ImageModelException(String.format("image with name = %s not found", fileName)));
+    public List<ImageModel> findImageModelsByProductId(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(String.format("product with id = %s not found", productId));
+        }
 
-        return decompressBytes(dbImageData.getPicByte());
+        return imageRepository.findByProductIdOrderByName(productId);
     }
 
     @Override
     @Log
+    @Transactional
     public void deleteImageModelByName(String imageName) {
         ImageModel dbImageData = imageRepository.findByName(imageName)
                 .orElseThrow(() -> new ImageModelException(String.format("image with name = %s not found", imageName)));
 
-
-        Product product = productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream().filter(prod -> prod.getId().equals(dbImageData.getProduct().getId()))
-                .findFirst()
-                .orElseThrow(() -> new ProductNotFoundException("product not found"));
-
-        productRepository.save(product);
-
-        imageRepository.deleteById(dbImageData.getId());
+        // the product is a lazy reference, its id is read without loading it
+        Long productId = dbImageData.getProduct().getId();
+        imageRepository.delete(dbImageData);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productId));
+        if (dbImageData.getContentHash() != null) {
+            applicationEventPublisher.publishEvent(new ImageContentReleasedEvent(List.of(dbImageData.getContentHash())));
+        }
     }
 }
@@ -1,10 +1,12 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.OrderItemConverter;
 import com.qual.store.dto.OrderItemDto;
 import com.qual.store.exceptions.OrderItemNotFoundException;
 import com.qual.store.exceptions.ProductNotFoundException;
 import com.qual.store.logger.Log;
+import com.qual.store.metrics.StoreMetrics;
 import com.qual.store.model.AppUser;
 import com.qual.store.model.Order;
 import com.qual.store.model.OrderItem;
@@ -17,7 +19,9 @@ import com.qual.store.service.OrderItemService;
 import com.qual.store.utils.validators.Validator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -41,6 +45,10 @@ public class OrderItemServiceImpl implements OrderItemService {
 
     private final ProductRepository productRepository;
 
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final StoreMetrics storeMetrics;
+
 //    @Override
 //    @Log
 //    public List<OrderItem> getAllOrderItems() {
@@ -87,6 +95,8 @@ public class OrderItemServiceImpl implements OrderItemService {
         productRepository.save(product);
 
         orderItemRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
+        storeMetrics.basketItemRemoved();
     }
 
     @Override
@@ -97,8 +107,11 @@ public class OrderItemServiceImpl implements OrderItemService {
         if (newQuantity >= 1) {
             orderItem1.setQuantity(newQuantity);
             orderItemRepository.save(orderItem1);
+            storeMetrics.basketItemUpdated();
         } else {
             orderItemRepository.delete(orderItem1);
+            applicationEventPublisher.publishEvent(new ProductChangedEvent(orderItem1.getProduct().getId()));
+            storeMetrics.basketItemRemoved();
         }
     }
 
@@ -115,7 +128,12 @@ public class OrderItemServiceImpl implements OrderItemService {
         orderItem.setProduct(product);
         validator.validate(orderItem);
         product.addOrderItem(orderItem);
-        return orderItemRepository.save(orderItem);
+        // the returned item is converted after the transaction, with the image name of its product
+        Hibernate.initialize(product.getImages());
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(id));
+        OrderItem saved = orderItemRepository.save(orderItem);
+        storeMetrics.basketItemAdded();
+        return saved;
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.OrderConverter;
 import com.qual.store.dto.OrderDto;
 import com.qual.store.dto.paginated.PaginatedOrderResponse;
@@ -8,20 +9,27 @@ import com.qual.store.exceptions.OrderItemNotFoundException;
 import com.qual.store.exceptions.OrderNotFoundException;
 import com.qual.store.exceptions.UpdateOrderStatusException;
 import com.qual.store.logger.Log;
+import com.qual.store.metrics.StoreMetrics;
 import com.qual.store.model.AppUser;
 import com.qual.store.model.Order;
 import com.qual.store.model.OrderItem;
 import com.qual.store.model.Product;
 import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.profiling.Traced;
 import com.qual.store.repository.AppUserRepository;
 import com.qual.store.repository.OrderItemRepository;
 import com.qual.store.repository.OrderRepository;
 import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.projection.BasketItem;
+import com.qual.store.repository.projection.ProductQuantity;
 import com.qual.store.service.OrderItemService;
 import com.qual.store.service.OrderService;
+import com.qual.store.service.ProductSalesService;
+import com.qual.store.utils.pagination.KeysetPagination;
 import com.qual.store.utils.validators.Validator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -32,9 +40,11 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Traced
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
@@ -45,6 +55,9 @@ public class OrderServiceImpl implements OrderService {
     private final OrderItemService orderItemService;
     private final OrderConverter orderConverter;
     private final ProductRepository productRepository;
+    private final ProductSalesService productSalesService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final StoreMetrics storeMetrics;
 
 
     @Override
@@ -61,10 +74,7 @@ public class OrderServiceImpl implements OrderService {
         String currentUsername = authentication.getName();
         AppUser appUser = appUserRepository.findUserByUsername(currentUsername);
         OrderStatus orderStatus = OrderStatus.ACTIVE;
-        List<Order> orders = getAllOrders().stream()
-                .filter(order -> order.getUser().equals(appUser))
-                .filter(order -> order.getStatus().equals(orderStatus))
-                .toList();
+        List<Order> orders = orderRepository.findAllWithOrderItemsByUsernameAndStatus(currentUsername, orderStatus);
         Order order;
         if (orders.size() == 0) {
             order = Order.builder()
@@ -100,6 +110,8 @@ public class OrderServiceImpl implements OrderService {
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new OrderNotFoundException(String.format("order with id %s not found", id)));
 
+        productSalesService.removeSales(order);
+
         List<OrderItem> orderItems = order.getOrderItems().stream().toList();
         order.setOrderItems(null);
         order.setUser(null);
@@ -124,13 +136,12 @@ public class OrderServiceImpl implements OrderService {
     @Log
     public Order updateOrderStatus(Long id, String status) {
         String uppStatus = status.toUpperCase();
-        Optional<Order> existingOrder = orderRepository.findAllWithOrderItems().stream()
-                .filter(o -> o.getId().equals(id))
-                .findFirst();
+        Optional<Order> existingOrder = orderRepository.findWithOrderItemsAndProductsById(id);
 
         existingOrder.orElseThrow(() -> new OrderNotFoundException(
                 String.format("No order found with id %s = ", id)
         ));
+        OrderStatus previousStatus = existingOrder.get().getStatus();
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
@@ -155,6 +166,7 @@ public class OrderServiceImpl implements OrderService {
                 }
             }
             productRepository.saveAll(productsToUpdate);
+            publishStockChanges(productsToUpdate);
 
             existingOrder.ifPresent(updateOrder -> {
                 OrderStatus orderStatus = getOrderStatusFromString(uppStatus);
@@ -187,6 +199,7 @@ public class OrderServiceImpl implements OrderService {
 
             // Update product stock outside of the loop
             productRepository.saveAll(productsToUpdate);
+            publishStockChanges(productsToUpdate);
 
             existingOrder.ifPresent(updateOrder -> {
                 OrderStatus orderStatus = getOrderStatusFromString(uppStatus);
@@ -198,9 +211,18 @@ public class OrderServiceImpl implements OrderService {
             });
         }
 
+        productSalesService.updateSales(existingOrder.get(), previousStatus);
+        if (previousStatus != OrderStatus.PLACED && existingOrder.get().getStatus() == OrderStatus.PLACED) {
+            storeMetrics.orderPlaced();
+        }
+
         return existingOrder.get();
     }
 
+    private void publishStockChanges(List<Product> products) {
+        products.forEach(product -> applicationEventPublisher.publishEvent(new ProductChangedEvent(product.getId())));
+    }
+
     private OrderStatus getOrderStatusFromString(String status) {
         try {
             return OrderStatus.valueOf(status.toUpperCase());
@@ -214,14 +236,7 @@ public class OrderServiceImpl implements OrderService {
     public List<Order> getAllOrdersByUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
-        AppUser appUser = appUserRepository.findUserByUsername(currentUsername);
-        List<OrderDto> ordersDto = getAllOrders().stream()
-                .map(orderConverter::convertModelToDto)
-                .toList();
-        return ordersDto.stream()
-                .filter(o -> o.getUserId().equals(appUser.getId()))
-                .map(orderConverter::convertDtoToModel)
-                .toList();
+        return orderRepository.findAllWithOrderItemsAndProductsByUsername(currentUsername);
     }
 
     @Override
@@ -229,44 +244,28 @@ public class OrderServiceImpl implements OrderService {
     public Order getBasket() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
-        AppUser appUser = appUserRepository.findUserByUsername(currentUsername);
-        Order order = orderRepository.findAllWithOrderItems().stream()
-                .filter(o -> o.getUser().equals(appUser) && o.getStatus().equals(OrderStatus.ACTIVE))
+        return orderRepository.findAllWithOrderItemsByUsernameAndStatus(currentUsername, OrderStatus.ACTIVE)
+                .stream()
                 .findFirst()
-                .orElse(null);
-        if (order == null) {
-            return new Order();
-        }
-        return order;
+                .orElseGet(Order::new);
     }
 
     @Override
     @Log
-    public List<OrderItem> getBasketAsOrderItems() {
-        return orderItemRepository.findAllWithProduct().stream()
-                .filter(oi -> oi.getOrder().getId().equals(getBasket().getId()))
-                .toList();
+    public List<BasketItem> getBasketItems() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String currentUsername = authentication.getName();
+        return orderItemRepository.findBasketItemsByUsernameAndStatus(currentUsername, OrderStatus.ACTIVE);
     }
 
     @Override
     @Log
     public Map<Long, Integer> getProductsQuantity() {
-        List<Order> orders = getAllOrders().stream()
-                .filter(o -> o.getStatus().equals(OrderStatus.PLACED))
-                .toList();
         Map<Long, Integer> productsQuantity = new HashMap<>();
-        for (Order order : orders) {
-            for (OrderItem orderItem : order.getOrderItems()) {
-                if (productsQuantity.containsKey(orderItem.getProduct().getId())) {
-                    productsQuantity.put(orderItem.getProduct().getId(),
-                            productsQuantity.get(orderItem.getProduct().getId()) + orderItem.getQuantity());
-                } else {
-                    productsQuantity.put(orderItem.getProduct().getId(), orderItem.getQuantity());
-                }
-            }
+        for (ProductQuantity productQuantity : orderItemRepository.sumQuantityByOrderStatus(OrderStatus.PLACED)) {
+            productsQuantity.put(productQuantity.getProductId(), productQuantity.getQuantity().intValue());
         }
 
-        System.out.println("productsQuantity = " + productsQuantity);
         return productsQuantity;
     }
 
@@ -274,21 +273,50 @@ public class OrderServiceImpl implements OrderService {
     public PaginatedOrderResponse getOrders(Integer pageNumber, Integer pageSize, String sortBy) {
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
 
-        Page<Order> page = orderRepository.findAllWithOrderItems(pageable);
+        Page<Long> orderIds = orderRepository.findOrderIds(pageable);
 
         return PaginatedOrderResponse.builder()
-                .orders(page.getContent().stream()
-                        .map(orderConverter::convertModelToDto)
-                        .collect(Collectors.toList()))
-                .numberOfItems(page.getTotalElements())
-                .numberOfPages(page.getTotalPages())
+                .orders(findOrderDtosInOrder(orderIds.getContent()))
+                .numberOfItems(orderIds.getTotalElements())
+                .numberOfPages(orderIds.getTotalPages())
                 .build();
     }
 
+    @Override
+    @Log
+    public PaginatedOrderResponse getOrdersAfter(String after, Integer limit, Boolean withTotal) {
+        int pageLimit = KeysetPagination.limit(limit);
+        List<Long> orderIds = orderRepository.findOrderIdsAfter(KeysetPagination.afterId(after),
+                KeysetPagination.seek(pageLimit));
+        Long numberOfItems = Boolean.TRUE.equals(withTotal) ? orderRepository.count() : null;
+
+        return PaginatedOrderResponse.builder()
+                .orders(findOrderDtosInOrder(KeysetPagination.page(orderIds, pageLimit)))
+                .nextCursor(KeysetPagination.nextCursor(orderIds, pageLimit))
+                .numberOfItems(numberOfItems)
+                .numberOfPages(numberOfItems != null ? KeysetPagination.numberOfPages(numberOfItems, pageLimit) : null)
+                .build();
+    }
+
+    // second phase of a page: fetch the orders of the selected ids and keep the order of the ids
+    private List<OrderDto> findOrderDtosInOrder(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Order> ordersById = orderRepository.findAllWithOrderItemsAndProductsByIds(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        return orderIds.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .map(orderConverter::convertModelToDto)
+                .toList();
+    }
+
     @Override
     public List<OrderDto> searchOrdersByUsername(String username) {
-        return orderRepository.findAllWithOrderItems().stream()
-                .filter(o -> o.getUser().getUsername().equals(username))
+        return orderRepository.findAllWithOrderItemsAndProductsByUsername(username).stream()
                 .map(orderConverter::convertModelToDto)
                 .toList();
     }
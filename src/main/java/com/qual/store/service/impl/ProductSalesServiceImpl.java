@@ -0,0 +1,98 @@
+package com.qual.store.service.impl;
+
+import com.qual.store.cache.ProductChangedEvent;
+import com.qual.store.logger.Log;
+import com.qual.store.model.Order;
+import com.qual.store.model.OrderItem;
+import com.qual.store.model.ProductSales;
+import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.repository.OrderItemRepository;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.ProductSalesRepository;
+import com.qual.store.repository.projection.ProductQuantity;
+import com.qual.store.service.ProductSalesService;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+// keeps product_sales in step with the quantities of the PLACED orders,
+// so ranking the best sellers never aggregates the order items on a read
+@Service
+@RequiredArgsConstructor
+public class ProductSalesServiceImpl implements ProductSalesService {
+
+    private final ProductSalesRepository productSalesRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    @Log
+    @Transactional
+    public void updateSales(Order order, OrderStatus previousStatus) {
+        boolean wasPlaced = OrderStatus.PLACED.equals(previousStatus);
+        boolean isPlaced = OrderStatus.PLACED.equals(order.getStatus());
+        if (wasPlaced == isPlaced) {
+            return;
+        }
+
+        addUnitsSold(order, isPlaced ? 1 : -1);
+    }
+
+    @Override
+    @Log
+    @Transactional
+    public void removeSales(Order order) {
+        if (OrderStatus.PLACED.equals(order.getStatus())) {
+            addUnitsSold(order, -1);
+        }
+    }
+
+    // the table is filled from the order items the first time the application starts with it
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildSalesIfEmpty() {
+        if (productSalesRepository.count() == 0) {
+            rebuildSales();
+        }
+    }
+
+    @Override
+    @Log
+    @Transactional
+    public void rebuildSales() {
+        productSalesRepository.deleteAllInBatch();
+        for (ProductQuantity productQuantity : orderItemRepository.sumQuantityByOrderStatus(OrderStatus.PLACED)) {
+            productSalesRepository.save(ProductSales.builder()
+                    .product(productRepository.getReferenceById(productQuantity.getProductId()))
+                    .unitsSold(productQuantity.getQuantity())
+                    .build());
+        }
+    }
+
+    private void addUnitsSold(Order order, int sign) {
+        for (OrderItem orderItem : order.getOrderItems()) {
+            addUnitsSold(orderItem.getProduct().getId(), sign * (long) orderItem.getQuantity());
+        }
+    }
+
+    // the row of a product is created by its first sale; two first sales of the same product would both insert it,
+    // so the insert happens under the lock of the product row and the update is tried again once the lock is held.
+    // The sales are part of the catalog (/api/products/placed), every change is published like a stock change
+    private void addUnitsSold(Long productId, long quantity) {
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productId));
+        if (productSalesRepository.addUnitsSold(productId, quantity) > 0) {
+            return;
+        }
+        productRepository.findAndLockById(productId);
+        if (productSalesRepository.addUnitsSold(productId, quantity) == 0) {
+            productSalesRepository.save(ProductSales.builder()
+                    .product(productRepository.getReferenceById(productId))
+                    .unitsSold(quantity)
+                    .build());
+        }
+    }
+}
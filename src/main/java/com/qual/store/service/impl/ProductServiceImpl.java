@@ -1,40 +1,58 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.CatalogCacheNames;
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.ProductConverter;
 import com.qual.store.dto.ProductDto;
 import com.qual.store.dto.paginated.PaginatedProductResponse;
 import com.qual.store.dto.request.ProductRequestDto;
 import com.qual.store.exceptions.DeleteProductException;
-import com.qual.store.exceptions.ImageModelException;
+import com.qual.store.exceptions.InvalidSearchException;
 import com.qual.store.exceptions.ProductNotFoundException;
 import com.qual.store.logger.Log;
 import com.qual.store.model.*;
+import com.qual.store.profiling.Traced;
 import com.qual.store.repository.*;
+import com.qual.store.repository.specification.ProductSpecifications;
+import com.qual.store.search.ProductSearchHits;
+import com.qual.store.search.ProductSearchIndex;
+import com.qual.store.service.ImageService;
 import com.qual.store.service.ProductService;
+import com.qual.store.storage.ImageContentReleasedEvent;
+import com.qual.store.utils.pagination.KeysetPagination;
 import com.qual.store.utils.validators.Validator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static com.qual.store.utils.images.ImageUtils.compressBytes;
-
 @Service
+@Traced
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final String SORT_BY_ID = "id";
+    private static final String SORT_BY_RELEVANCE = "relevance";
+    // the most matches of a search the database is given to sort by a product field
+    private static final int MAX_SORTED_MATCHES = 10_000;
+
     private final ProductRepository productRepository;
     private final Validator<Product> validator;
     private final CategoryRepository categoryRepository;
@@ -42,9 +60,14 @@ public class ProductServiceImpl implements ProductService {
     private final AppUserRepository appUserRepository;
     private final ImageRepository imageRepository;
     private final ReviewRepository reviewRepository;
+    private final ProductSalesRepository productSalesRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageService imageService;
 
     @Override
     @Log
+    @Transactional
     public Product saveProductCategory(ProductRequestDto productRequestDto, Long categoryId) {
         Product product = productConverter.convertRequestToModel(productRequestDto);
 
@@ -76,6 +99,7 @@ public class ProductServiceImpl implements ProductService {
             imageRepository.save(imageModel);
         }
 
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(product.getId(), categoryId));
         return savedProduct;
     }
 
@@ -84,16 +108,7 @@ public class ProductServiceImpl implements ProductService {
             return Optional.empty();
         }
 
-        try {
-            return Optional.of(
-                    ImageModel.builder()
-                            .name(file.getOriginalFilename())
-                            .type(file.getContentType())
-                            .picByte(compressBytes(file.getBytes()))
-                            .build());
-        } catch (IOException e) {
-            throw new ImageModelException(e.getMessage());
-        }
+        return Optional.of(imageService.storeImageContent(file));
     }
 
     @Override
@@ -102,22 +117,27 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.findAllWithCategoryAndReviewsAndImages();
     }
 
+    @Override
+    @Log
+    @Cacheable(CatalogCacheNames.PRODUCT_LIST)
+    public List<ProductDto> getAllProductDtos() {
+        return productRepository.findAllWithCategoryAndReviewsAndImages().stream()
+                .map(productConverter::convertModelToDto)
+                .toList();
+    }
+
     @Log
     @Override
-    public List<Product> getAllProductsByDiscount() {
-        return productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(product -> product.getDiscountPercentage() > 0)
-                .collect(Collectors.toList());
+    public PaginatedProductResponse getAllProductsByDiscount(Integer pageNumber, Integer pageSize, String sortBy) {
+        return findProductsMatching(ProductSpecifications.hasDiscount(), pageNumber, pageSize, sortBy);
     }
 
     @Override
     @Log
-    public List<Product> getAllProductsByPriceRange(Double minPrice, Double maxPrice) {
-        return productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(product -> product.getPrice() >= minPrice && product.getPrice() <= maxPrice)
-                .collect(Collectors.toList());
+    public PaginatedProductResponse getAllProductsByPriceRange(Double minPrice, Double maxPrice,
+                                                               Integer pageNumber, Integer pageSize, String sortBy) {
+        return findProductsMatching(ProductSpecifications.priceBetween(minPrice, maxPrice),
+                pageNumber, pageSize, sortBy);
     }
 
     @Override
@@ -125,6 +145,9 @@ public class ProductServiceImpl implements ProductService {
     public void saveProduct(Product product) {
         validator.validate(product);
         productRepository.save(product);
+
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(product.getId(), categoryId));
     }
 
     @Transactional
@@ -134,23 +157,17 @@ public class ProductServiceImpl implements ProductService {
         Product product = productConverter.convertRequestToModel(productRequestDto);
         validator.validate(product);
 
-        Optional<Product> optionalProduct = productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream().filter(pro -> pro.getId().equals(id)).findFirst();
-
-        optionalProduct
+        Product updateProduct = productRepository.findProductWithCategoryAndReviewsAndImages(id)
                 .orElseThrow(() -> new ProductNotFoundException(String.format("No product found with id %s", id)));
 
-        optionalProduct
-                .ifPresent(updateProduct -> {
-                    updateProduct.setName(product.getName());
-                    updateProduct.setPrice(product.getPrice());
-                    updateProduct.setDescription(product.getDescription());
-                    updateProduct.setUnitsInStock(product.getUnitsInStock());
-                    updateProduct.setDiscountPercentage(product.getDiscountPercentage());
-                });
+        updateProduct.setName(product.getName());
+        updateProduct.setPrice(product.getPrice());
+        updateProduct.setDescription(product.getDescription());
+        updateProduct.setUnitsInStock(product.getUnitsInStock());
+        updateProduct.setDiscountPercentage(product.getDiscountPercentage());
 
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException(String.format("No product found with id %s", id)));
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(id));
+        return updateProduct;
     }
 
     @Override
@@ -185,7 +202,14 @@ public class ProductServiceImpl implements ProductService {
         Set<ImageModel> imageModels = product.getImages();
         imageRepository.deleteAll(imageModels);
 
+        // a product whose orders were deleted still has its sales row, the row references the product
+        productSalesRepository.deleteByProductId(id);
         productRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(id, category.getId()));
+        applicationEventPublisher.publishEvent(new ImageContentReleasedEvent(imageModels.stream()
+                .map(ImageModel::getContentHash)
+                .filter(Objects::nonNull)
+                .toList()));
     }
 
     @Override
@@ -193,23 +217,30 @@ public class ProductServiceImpl implements ProductService {
     public PaginatedProductResponse getProducts(Integer pageNumber, Integer pageSize, String sortBy) {
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
 
-        Page<Product> page = productRepository.findAll(pageable);
+        Page<Long> productIds = productRepository.findProductIds(pageable);
         return PaginatedProductResponse.builder()
-                .products(page.getContent().stream()
-                        .map(productConverter::convertModelToDto)
-                        .collect(Collectors.toList()))
-                .numberOfItems(page.getTotalElements())
-                .numberOfPages(page.getTotalPages())
+                .products(findProductDtosInOrder(productIds.getContent()))
+                .numberOfItems(productIds.getTotalElements())
+                .numberOfPages(productIds.getTotalPages())
                 .build();
     }
 
     @Override
     @Log
+    public PaginatedProductResponse getProductsAfter(String after, Integer limit, Boolean withTotal) {
+        int pageLimit = KeysetPagination.limit(limit);
+        List<Long> productIds = productRepository.findProductIdsAfter(KeysetPagination.afterId(after),
+                KeysetPagination.seek(pageLimit));
+
+        return toCursorPage(productIds, pageLimit,
+                Boolean.TRUE.equals(withTotal) ? productRepository.count() : null);
+    }
+
+    @Override
+    @Log
+    @Cacheable(CatalogCacheNames.PRODUCTS)
     public ProductDto getProductById(Long productId) {
-        Product product = productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(p -> p.getId().equals(productId))
-                .findFirst()
+        Product product = productRepository.findProductWithCategoryAndReviewsAndImages(productId)
                 .orElseThrow(
                         () -> new ProductNotFoundException(String.format("No product found with id %s", productId))
                 );
@@ -219,43 +250,60 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Log
-    public List<Product> findProductsByCategory(Long categoryId) {
-        return productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(product -> product.getCategory().getId().equals(categoryId))
-                .collect(Collectors.toList());
+    public PaginatedProductResponse findProductsByCategory(Long categoryId,
+                                                           Integer pageNumber, Integer pageSize, String sortBy) {
+        return findProductsMatching(ProductSpecifications.inCategory(categoryId), pageNumber, pageSize, sortBy);
     }
 
     @Override
     @Log
+    public PaginatedProductResponse filterProducts(Long categoryId, Double minPrice, Double maxPrice,
+                                                   Boolean discounted,
+                                                   Integer pageNumber, Integer pageSize, String sortBy) {
+        return findProductsMatching(ProductSpecifications.matching(categoryId, minPrice, maxPrice, discounted),
+                pageNumber, pageSize, sortBy);
+    }
+
+    private PaginatedProductResponse findProductsMatching(Specification<Product> specification,
+                                                          Integer pageNumber, Integer pageSize, String sortBy) {
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
+
+        Page<Long> productIds = productRepository.findProductIds(specification, pageable);
+        return PaginatedProductResponse.builder()
+                .products(findProductDtosInOrder(productIds.getContent()))
+                .numberOfItems(productIds.getTotalElements())
+                .numberOfPages(productIds.getTotalPages())
+                .build();
+    }
+
+    @Override
+    @Log
+    @Transactional
     public void addToFavorites(Long productId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
         AppUser appUser = appUserRepository.findUserByUsername(currentUsername);
 
-        Product product = productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(prod -> prod.getId().equals(productId))
-                .findFirst()
+        Product product = productRepository.findProductWithCategoryAndReviewsAndImages(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found"));
         appUser.addFavoriteProduct(product);
         appUserRepository.save(appUser);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productId));
     }
 
     @Override
     @Log
+    @Transactional
     public void removeFromFavorites(Long productId) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String currentUsername = authentication.getName();
         AppUser appUser = appUserRepository.findUserByUsername(currentUsername);
 
-        Product product = productRepository.findAllWithCategoryAndReviewsAndImages()
-                .stream()
-                .filter(prod -> prod.getId().equals(productId))
-                .findFirst()
+        Product product = productRepository.findProductWithCategoryAndReviewsAndImages(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found"));
         appUser.removeFavoriteProduct(product);
         appUserRepository.save(appUser);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productId));
     }
 
     @Override
@@ -271,16 +319,77 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Log
+    public PaginatedProductResponse getBestSellingProducts(Integer pageNumber, Integer pageSize) {
+        Page<Long> productIds = productSalesRepository.findBestSellingProductIds(PageRequest.of(pageNumber, pageSize));
+
+        return PaginatedProductResponse.builder()
+                .products(findProductDtosInOrder(productIds.getContent()))
+                .numberOfItems(productIds.getTotalElements())
+                .numberOfPages(productIds.getTotalPages())
+                .build();
+    }
+
+    // relevance and id pages come from the search index, only the products of the page are read; for any other
+    // product field the index selects the matches and the database only sorts and pages those ids
+    @Override
+    @Log
     public PaginatedProductResponse searchProductByName(String name,
                                                         Integer pageNumber, Integer pageSize, String sortBy) {
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
+        if (!SORT_BY_RELEVANCE.equals(sortBy) && !SORT_BY_ID.equals(sortBy)) {
+            List<Long> productIds = productSearchIndex.searchAfter(name, 0L, MAX_SORTED_MATCHES + 1);
+            if (productIds.size() > MAX_SORTED_MATCHES) {
+                throw new InvalidSearchException(String.format(
+                        "More than %d products match %s, sort them by relevance or id", MAX_SORTED_MATCHES, name));
+            }
+            return findProductsMatching(ProductSpecifications.idIn(productIds), pageNumber, pageSize, sortBy);
+        }
 
-        Page<Product> products = productRepository.findAllByNameContainingIgnoreCase(name, pageable);
+        ProductSearchHits hits = productSearchIndex.search(name, pageNumber * pageSize, pageSize,
+                SORT_BY_RELEVANCE.equals(sortBy));
 
         return PaginatedProductResponse.builder()
-                .products(products.getContent().stream().map(productConverter::convertModelToDto).toList())
-                .numberOfItems(products.getTotalElements())
-                .numberOfPages(products.getTotalPages())
+                .products(findProductDtosInOrder(hits.getProductIds()))
+                .numberOfItems(hits.getTotalHits())
+                .numberOfPages(KeysetPagination.numberOfPages(hits.getTotalHits(), pageSize))
                 .build();
     }
+
+    @Override
+    @Log
+    public PaginatedProductResponse searchProductByNameAfter(String name, String after, Integer limit,
+                                                             Boolean withTotal) {
+        int pageLimit = KeysetPagination.limit(limit);
+        List<Long> productIds = productSearchIndex.searchAfter(name, KeysetPagination.afterId(after), pageLimit + 1);
+
+        return toCursorPage(productIds, pageLimit,
+                Boolean.TRUE.equals(withTotal) ? productSearchIndex.count(name) : null);
+    }
+
+    private PaginatedProductResponse toCursorPage(List<Long> seekedIds, int limit, Long numberOfItems) {
+        return PaginatedProductResponse.builder()
+                .products(findProductDtosInOrder(KeysetPagination.page(seekedIds, limit)))
+                .nextCursor(KeysetPagination.nextCursor(seekedIds, limit))
+                .numberOfItems(numberOfItems)
+                .numberOfPages(numberOfItems != null ? KeysetPagination.numberOfPages(numberOfItems, limit) : null)
+                .build();
+    }
+
+    // second phase of a page: fetch the products of the selected ids and keep the order of the ids
+    private List<ProductDto> findProductDtosInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Product> productsById = productRepository
+                .findAllWithCategoryAndReviewsAndImagesByIds(productIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(productConverter::convertModelToDto)
+                .toList();
+    }
 }
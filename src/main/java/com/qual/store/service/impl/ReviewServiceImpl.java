@@ -1,5 +1,6 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.ReviewConverter;
 import com.qual.store.dto.ReviewDto;
 import com.qual.store.dto.request.ReviewRequestDto;
@@ -17,6 +18,7 @@ import com.qual.store.utils.validators.ReviewValidator;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -33,6 +35,7 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewConverter reviewConverter;
     private final ReviewValidator validator;
     private final AppUserRepository appUserRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Log
     @Override
@@ -73,6 +76,7 @@ public class ReviewServiceImpl implements ReviewService {
         product.addReview(review);
 
         productRepository.save(product);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(productId));
 
         return reviewConverter.convertModelToDto(reviewRepository
                 .findByTitle(review.getTitle())
@@ -95,6 +99,7 @@ public class ReviewServiceImpl implements ReviewService {
             review.setTitle(reviewRequestDto.getTitle());
             review.setComment(reviewRequestDto.getComment());
             review.setRating(reviewRequestDto.getRating());
+            applicationEventPublisher.publishEvent(new ProductChangedEvent(review.getProduct().getId()));
         });
 
         return reviewConverter.convertModelToDto(reviewRepository.findById(id).orElseThrow());
@@ -123,5 +128,6 @@ public class ReviewServiceImpl implements ReviewService {
 
         productRepository.save(product);
         reviewRepository.delete(review);
+        applicationEventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
     }
 }
@@ -0,0 +1,134 @@
+package com.qual.store.sql;
+
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// the connections of the application DataSource as Hibernate gets them, wrapped so the statements time their
+// executions and the result sets count their rows for the current request. Registered by
+// hibernate.connection.provider_class; only Hibernate's connections are wrapped, the DataSource bean and its
+// pool are left as they are
+public class AccountingConnectionProvider extends DatasourceConnectionProviderImpl {
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    static Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(AccountingConnectionProvider.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    private abstract static class Delegating implements InvocationHandler {
+        final Object target;
+
+        Delegating(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Hibernate keeps statements and result sets in hash maps, a proxy is only equal to itself
+            switch (method.getName()) {
+                case "equals":
+                    if (args != null && args.length == 1) {
+                        return proxy == args[0];
+                    }
+                    break;
+                case "hashCode":
+                    if (args == null) {
+                        return System.identityHashCode(proxy);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            return handle(method, args);
+        }
+
+        abstract Object handle(Method method, Object[] args) throws Throwable;
+
+        Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class ConnectionHandler extends Delegating {
+        ConnectionHandler(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            // createStatement, prepareStatement and prepareCall, as the type they are declared to return
+            if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy(method.getReturnType(), new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler extends Delegating {
+        StatementHandler(Statement statement) {
+            super(statement);
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result;
+            if (method.getName().startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    result = call(method, args);
+                } finally {
+                    SqlRequestStatistics statistics = SqlAccounting.current();
+                    if (statistics != null) {
+                        statistics.jdbcTime(System.nanoTime() - start);
+                    }
+                }
+            } else {
+                result = call(method, args);
+            }
+            // executeQuery, getResultSet and getGeneratedKeys
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, SqlAccounting.current()));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler extends Delegating {
+        private final SqlRequestStatistics statistics;
+
+        ResultSetHandler(ResultSet resultSet, SqlRequestStatistics statistics) {
+            super(resultSet);
+            this.statistics = statistics;
+        }
+
+        @Override
+        Object handle(Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            if (statistics != null && Boolean.TRUE.equals(result) && args == null && "next".equals(method.getName())) {
+                statistics.row();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.qual.store.sql;
+
+// the SQL statistics of the HTTP request running on this thread. Static because the statement inspector and the
+// connection provider are instantiated by Hibernate rather than by Spring; null outside a request
+public final class SqlAccounting {
+
+    private static final ThreadLocal<SqlRequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private SqlAccounting() {
+    }
+
+    public static SqlRequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    static SqlRequestStatistics begin() {
+        SqlRequestStatistics statistics = new SqlRequestStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,47 @@
+package com.qual.store.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// opens the SQL statistics of a request before the security filters, so the principal lookups are counted too,
+// and records them under the route that handled it. Requests no controller handled (static resources, rejections
+// by the security filters, 404s) are not recorded, they would all fall under a single meaningless route
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    private final SqlStatistics sqlStatistics;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlRequestStatistics statistics = SqlAccounting.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlAccounting.end();
+            String uri = uri(request);
+            if (uri != null) {
+                sqlStatistics.record(request.getMethod(), uri, statistics);
+            }
+        }
+    }
+
+    // the mapping pattern rather than the path, /api/products/{productId} is one route whatever the id; null when
+    // no handler matched
+    static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? null : pattern.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.qual.store.sql;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// the statements, rows and JDBC time of one request, only touched by the request thread
+@Getter
+public class SqlRequestStatistics {
+
+    // in lists of any length are one shape, loading 3 or 30 children one query at a time is the same N+1
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private int statementCount;
+    private long rowCount;
+    private long jdbcNanos;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Shape> shapes = new HashMap<>();
+
+    void statement(String sql, String method) {
+        statementCount++;
+        String shape = sql.contains("?,") || sql.contains("?, ") ? IN_LIST.matcher(sql).replaceAll("(?)") : sql;
+        Shape counted = shapes.get(shape);
+        if (counted == null) {
+            shapes.put(shape, new Shape(method));
+        } else {
+            counted.count++;
+        }
+    }
+
+    void row() {
+        rowCount++;
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    // the selects of the same shape run at least threshold times, the N+1 candidates of this request. Repeated
+    // inserts and updates are batches of changes rather than lazy loading, they are not reported
+    public List<RepeatedStatement> getRepeatedSelects(int threshold) {
+        List<RepeatedStatement> repeated = new ArrayList<>();
+        shapes.forEach((sql, shape) -> {
+            if (shape.count >= threshold && isSelect(sql)) {
+                repeated.add(new RepeatedStatement(sql, shape.count, shape.method));
+            }
+        });
+        return repeated;
+    }
+
+    private static boolean isSelect(String sql) {
+        String start = sql.stripLeading();
+        return start.regionMatches(true, 0, "select", 0, 6) || start.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    private static final class Shape {
+        private final String method;
+        private int count = 1;
+
+        Shape(String method) {
+            this.method = method;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class RepeatedStatement {
+        private final String sql;
+        private final int count;
+        // the innermost @Log method that ran the first of them, null when none was running
+        private final String method;
+    }
+}
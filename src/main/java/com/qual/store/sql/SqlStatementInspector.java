@@ -0,0 +1,18 @@
+package com.qual.store.sql;
+
+import com.qual.store.logger.CurrentMethod;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// sees every statement Hibernate prepares, counts it against the current request together with the @Log method
+// that caused it. Registered by hibernate.session_factory.statement_inspector, the SQL is left unchanged
+public class SqlStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStatistics statistics = SqlAccounting.current();
+        if (statistics != null) {
+            statistics.statement(sql, CurrentMethod.get());
+        }
+        return sql;
+    }
+}
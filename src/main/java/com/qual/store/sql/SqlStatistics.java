@@ -0,0 +1,139 @@
+package com.qual.store.sql;
+
+import com.qual.store.dto.SqlRouteStatisticsDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// the SQL statistics of the requests per route, also published as store.sql.* meters tagged like
+// http.server.requests. A select shape repeated n-plus-one-threshold times within one
+// request is an N+1: it is logged at WARN the first time it is seen on a route, then at DEBUG
+@Component
+public class SqlStatistics {
+    private static final Logger log = LoggerFactory.getLogger(SqlStatistics.class);
+    private static final int MAX_LOGGED_SQL_LENGTH = 200;
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final Map<String, RouteStatistics> routes = new ConcurrentHashMap<>();
+    private final Set<String> reportedNPlusOnes = ConcurrentHashMap.newKeySet();
+
+    public SqlStatistics(MeterRegistry meterRegistry,
+                         @Value("${store.sql-accounting.n-plus-one-threshold}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = Math.max(2, nPlusOneThreshold);
+    }
+
+    public List<SqlRequestStatistics.RepeatedStatement> nPlusOnes(SqlRequestStatistics statistics) {
+        return statistics.getRepeatedSelects(nPlusOneThreshold);
+    }
+
+    public void record(String method, String uri, SqlRequestStatistics statistics) {
+        String route = method + " " + uri;
+        RouteStatistics routeStatistics = routes.get(route);
+        if (routeStatistics == null) {
+            routeStatistics = routes.computeIfAbsent(route,
+                    key -> new RouteStatistics(meterRegistry, Tags.of("method", method, "uri", uri)));
+        }
+        routeStatistics.requests.increment();
+        routeStatistics.statements.add(statistics.getStatementCount());
+        routeStatistics.maxStatements.accumulate(statistics.getStatementCount());
+        routeStatistics.rows.add(statistics.getRowCount());
+        routeStatistics.jdbcNanos.add(statistics.getJdbcNanos());
+        routeStatistics.statementsPerRequest.record(statistics.getStatementCount());
+        routeStatistics.rowsPerRequest.record(statistics.getRowCount());
+        routeStatistics.jdbcTime.record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (statistics.getStatementCount() < nPlusOneThreshold) {
+            return;
+        }
+        List<SqlRequestStatistics.RepeatedStatement> nPlusOnes = nPlusOnes(statistics);
+        if (nPlusOnes.isEmpty()) {
+            return;
+        }
+        routeStatistics.nPlusOneRequests.increment();
+        routeStatistics.nPlusOneCounter.increment();
+        for (SqlRequestStatistics.RepeatedStatement nPlusOne : nPlusOnes) {
+            String description = nPlusOne.getCount() + " x " + abbreviate(nPlusOne.getSql())
+                    + " from " + (nPlusOne.getMethod() == null ? "outside any @Log method" : nPlusOne.getMethod());
+            routeStatistics.lastNPlusOne = description;
+            if (reportedNPlusOnes.add(route + '\n' + nPlusOne.getSql())) {
+                log.warn("N+1 in {}: {}", route, description);
+            } else {
+                log.debug("N+1 in {}: {}", route, description);
+            }
+        }
+    }
+
+    public List<SqlRouteStatisticsDto> getRouteStatistics() {
+        return routes.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingLong(SqlRouteStatisticsDto::getStatementCount).reversed())
+                .toList();
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+    }
+
+    private static final class RouteStatistics {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Long::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder jdbcNanos = new LongAdder();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+        private volatile String lastNPlusOne;
+
+        private final DistributionSummary statementsPerRequest;
+        private final DistributionSummary rowsPerRequest;
+        private final Timer jdbcTime;
+        private final Counter nPlusOneCounter;
+
+        RouteStatistics(MeterRegistry meterRegistry, Tags tags) {
+            this.statementsPerRequest = DistributionSummary.builder("store.sql.statements")
+                    .description("SQL statements per request").tags(tags).register(meterRegistry);
+            this.rowsPerRequest = DistributionSummary.builder("store.sql.rows")
+                    .description("Rows fetched per request").baseUnit("rows").tags(tags).register(meterRegistry);
+            this.jdbcTime = Timer.builder("store.sql.jdbc")
+                    .description("JDBC execution time per request").tags(tags).register(meterRegistry);
+            this.nPlusOneCounter = Counter.builder("store.sql.n-plus-one")
+                    .description("Requests with an N+1 select").tags(tags).register(meterRegistry);
+        }
+
+        SqlRouteStatisticsDto toDto(String route) {
+            long requestCount = requests.sum();
+            long statementCount = statements.sum();
+            long rowCount = rows.sum();
+            double jdbcMillis = jdbcNanos.sum() / 1e6;
+            return SqlRouteStatisticsDto.builder()
+                    .route(route)
+                    .requestCount(requestCount)
+                    .statementCount(statementCount)
+                    .meanStatements(requestCount == 0 ? 0 : (double) statementCount / requestCount)
+                    .maxStatements(maxStatements.get())
+                    .rowCount(rowCount)
+                    .meanRows(requestCount == 0 ? 0 : (double) rowCount / requestCount)
+                    .jdbcMillis(jdbcMillis)
+                    .meanJdbcMillis(requestCount == 0 ? 0 : jdbcMillis / requestCount)
+                    .nPlusOneRequestCount(nPlusOneRequests.sum())
+                    .lastNPlusOne(lastNPlusOne)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.qual.store.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// with the debug profile every response body carries the SQL statistics of its request as headers. They are set
+// just before the body is written, when the handler is done, so the response does not have to be buffered
+@ControllerAdvice
+@Profile("debug")
+@RequiredArgsConstructor
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlStatistics sqlStatistics;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlRequestStatistics statistics = SqlAccounting.current();
+        if (statistics != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set("X-Sql-Statements", String.valueOf(statistics.getStatementCount()));
+            headers.set("X-Sql-Rows", String.valueOf(statistics.getRowCount()));
+            headers.set("X-Sql-Time-Micros", String.valueOf(statistics.getJdbcNanos() / 1000));
+            headers.set("X-Sql-N-Plus-One", String.valueOf(sqlStatistics.nPlusOnes(statistics).size()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,118 @@
+package com.qual.store.storage;
+
+import com.qual.store.repository.ImageRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// deletes the content no image refers to any more. An upload holds the read lock of its content until its image is
+// committed and the cleaner checks and deletes under the write lock, so content stored again meanwhile is kept
+@Component
+@RequiredArgsConstructor
+public class ImageContentCleaner {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ImageRepository imageRepository;
+    private final ImageStorage imageStorage;
+
+    private final ReadWriteLock[] locks = newLocks();
+
+    // keeps the content until the current transaction completes; false when it was deleted after it was stored,
+    // the caller stores it again, still protected by the lock
+    public boolean retain(String contentHash) {
+        Lock lock = lockOf(contentHash).readLock();
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new ReleaseAfterCompletion(lock));
+        } else {
+            lock.unlock();
+        }
+        return imageStorage.exists(contentHash);
+    }
+
+    // after commit, so a rolled back delete still finds its content
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onImageContentReleased(ImageContentReleasedEvent event) {
+        deleteUnused(event.getContentHashes());
+    }
+
+    // the content of a rolled back upload is not left behind
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void onImageContentStored(ImageContentStoredEvent event) {
+        deleteUnused(List.of(event.getContentHash()));
+    }
+
+    private void deleteUnused(List<String> contentHashes) {
+        contentHashes.stream()
+                .distinct()
+                .filter(contentHash -> contentHash != null)
+                .forEach(contentHash -> {
+                    Lock lock = lockOf(contentHash).writeLock();
+                    lock.lock();
+                    try {
+                        if (!imageRepository.existsByContentHash(contentHash)) {
+                            imageStorage.delete(contentHash);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                });
+    }
+
+    private ReadWriteLock lockOf(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static ReadWriteLock[] newLocks() {
+        ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        return locks;
+    }
+
+    // released before the event listeners of the transaction run, they may clean the same lock stripe
+    private static final class ReleaseAfterCompletion implements TransactionSynchronization {
+        private final Lock lock;
+        private boolean released;
+
+        private ReleaseAfterCompletion(Lock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void afterCommit() {
+            release();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            release();
+        }
+
+        private void release() {
+            if (!released) {
+                released = true;
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.qual.store.storage;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class ImageContentReleasedEvent {
+    // contents no longer used by the deleted images, other images may still share them
+    private final List<String> contentHashes;
+}
@@ -0,0 +1,10 @@
+package com.qual.store.storage;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class ImageContentStoredEvent {
+    private final String contentHash;
+}
@@ -0,0 +1,14 @@
+package com.qual.store.storage;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+
+@Getter
+@RequiredArgsConstructor
+public class ImageDerivative {
+    // the derivative fits size x size
+    private final int size;
+
+    private final Resource content;
+}
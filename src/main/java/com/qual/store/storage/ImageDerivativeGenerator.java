@@ -0,0 +1,202 @@
+package com.qual.store.storage;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// renders the JPEG derivatives of the stored images on a bounded pool, never on a request thread;
+// a content whose derivatives are missing is served in full until they are written
+@Component
+public class ImageDerivativeGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeGenerator.class);
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final ImageStorage imageStorage;
+    private final int[] sizes;
+    private final ThreadPoolExecutor executor;
+
+    // contents queued or being rendered, so repeated misses queue them once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeGenerator(ImageStorage imageStorage,
+                                    @Value("${store.images.derivatives.sizes}") int[] sizes,
+                                    @Value("${store.images.derivatives.workers}") int workers,
+                                    @Value("${store.images.derivatives.queue-capacity}") int queueCapacity) {
+        this.imageStorage = imageStorage;
+        this.sizes = Arrays.stream(sizes).filter(size -> size > 0).sorted().distinct().toArray();
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // the smallest derivative covering the requested size, none when only the original is large enough
+    public OptionalInt nearestSize(int requestedSize) {
+        return Arrays.stream(sizes)
+                .filter(size -> size >= requestedSize)
+                .findFirst();
+    }
+
+    // after commit, so the derivatives of a rolled back upload are not rendered
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageContentStored(ImageContentStoredEvent event) {
+        generate(event.getContentHash());
+    }
+
+    public void generate(String contentHash) {
+        if (contentHash == null || sizes.length == 0 || !pending.add(contentHash)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generateNow(contentHash);
+                } catch (RuntimeException | IOException e) {
+                    log.warn("could not render the derivatives of image content {}: {}", contentHash, e.toString());
+                } finally {
+                    pending.remove(contentHash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the queue is full, the next request for a missing derivative queues it again
+            pending.remove(contentHash);
+        }
+    }
+
+    void generateNow(String contentHash) throws IOException {
+        Resource original = imageStorage.load(contentHash);
+        BufferedImage image;
+        try (InputStream content = original.getInputStream()) {
+            image = decode(content, sizes[sizes.length - 1]);
+        }
+        if (image == null) {
+            log.warn("image content {} is not a readable image", contentHash);
+            return;
+        }
+
+        // the largest first, every smaller one is scaled down from the previous
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            image = scaleToFit(image, sizes[i]);
+            imageStorage.storeDerivative(contentHash, sizes[i], new ByteArrayInputStream(encodeJpeg(image)));
+        }
+    }
+
+    // subsamples while decoding so a huge original never takes more than about twice the largest size in memory
+    private static BufferedImage decode(InputStream content, int largestSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (2 * largestSize));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // halves with bilinear filtering before the last step, a single bilinear step would skip most pixels;
+    // never enlarges, and flattens transparency on white for JPEG
+    static BufferedImage scaleToFit(BufferedImage image, int size) {
+        int longestSide = Math.max(image.getWidth(), image.getHeight());
+        double scale = Math.min(1.0, (double) size / longestSide);
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = image;
+        do {
+            boolean lastStep = current.getWidth() / 2 < targetWidth || current.getHeight() / 2 < targetHeight;
+            current = lastStep ? draw(current, targetWidth, targetHeight)
+                    : draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        } while (current.getWidth() != targetWidth || current.getHeight() != targetHeight);
+
+        return current;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return scaled;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        return output.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,24 @@
+package com.qual.store.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+// keeps the content of the images out of the database, addressed by its SHA-256
+public interface ImageStorage {
+    // the same content is stored once, however many images use it
+    StoredImageContent store(InputStream content);
+
+    Resource load(String contentHash);
+
+    boolean exists(String contentHash);
+
+    // a JPEG of the content scaled to fit size x size, kept next to it
+    void storeDerivative(String contentHash, int size, InputStream content);
+
+    Optional<Resource> loadDerivative(String contentHash, int size);
+
+    // deletes the derivatives of the content as well
+    void delete(String contentHash);
+}
@@ -0,0 +1,51 @@
+package com.qual.store.storage;
+
+import com.qual.store.exceptions.ImageModelException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.qual.store.utils.images.ImageUtils.decompressing;
+
+// moves the deflated blobs left in image_model.pic_byte by earlier versions into the image storage
+@Component
+@RequiredArgsConstructor
+public class LegacyImageContentMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStorage imageStorage;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyImageContent() {
+        Integer legacyColumns = jdbcTemplate.queryForObject("select count(*) from information_schema.columns " +
+                "where lower(table_name) = 'image_model' and lower(column_name) = 'pic_byte'", Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+
+        // one blob in memory at a time
+        List<Long> imageIds = jdbcTemplate.queryForList(
+                "select id from image_model where pic_byte is not null and content_hash is null", Long.class);
+        for (Long imageId : imageIds) {
+            byte[] picByte = jdbcTemplate.queryForObject(
+                    "select pic_byte from image_model where id = ?", byte[].class, imageId);
+            // inflated while it is stored, never held in memory a second time
+            StoredImageContent content;
+            try (InputStream decompressed = decompressing(new ByteArrayInputStream(picByte))) {
+                content = imageStorage.store(decompressed);
+            } catch (IOException e) {
+                throw new ImageModelException(e.getMessage());
+            }
+
+            jdbcTemplate.update("update image_model set content_hash = ?, content_size = ?, pic_byte = null " +
+                    "where id = ?", content.getContentHash(), content.getSize(), imageId);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.qual.store.storage;
+
+import com.qual.store.exceptions.ImageModelException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// one file per content under <location>/ab/cd/abcd..., written once and never modified, with its derivatives
+// in abcd...-<size>.jpg beside it;
+// another backend replaces it with store.images.storage set to something else than local
+@Component
+@ConditionalOnProperty(name = "store.images.storage", havingValue = "local", matchIfMissing = true)
+public class LocalFileSystemImageStorage implements ImageStorage {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path location;
+
+    public LocalFileSystemImageStorage(@Value("${store.images.location}") String location) {
+        this.location = Path.of(location).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public StoredImageContent store(InputStream content) {
+        try {
+            Files.createDirectories(location);
+            Path upload = Files.createTempFile(location, "upload-", ".tmp");
+            try {
+                // hashed while it is written, the content is read only once
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                long size;
+                try (InputStream digestedContent = new DigestInputStream(content, digest)) {
+                    size = Files.copy(digestedContent, upload, StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                String contentHash = HexFormat.of().formatHex(digest.digest());
+                Path file = pathOf(contentHash);
+                if (Files.notExists(file)) {
+                    Files.createDirectories(file.getParent());
+                    Files.move(upload, file, StandardCopyOption.ATOMIC_MOVE);
+                }
+                return new StoredImageContent(contentHash, size);
+            } finally {
+                Files.deleteIfExists(upload);
+            }
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ImageModelException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Resource load(String contentHash) {
+        Path file = pathOf(contentHash);
+        if (!Files.isRegularFile(file)) {
+            throw new ImageModelException(String.format("No image content %s", contentHash));
+        }
+
+        return new FileSystemResource(file);
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.isRegularFile(pathOf(contentHash));
+    }
+
+    @Override
+    public void storeDerivative(String contentHash, int size, InputStream content) {
+        Path file = derivativePathOf(contentHash, size);
+        try {
+            Files.createDirectories(file.getParent());
+            Path upload = Files.createTempFile(file.getParent(), "derivative-", ".tmp");
+            try {
+                try (content) {
+                    Files.copy(content, upload, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(upload, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(upload);
+            }
+        } catch (IOException e) {
+            throw new ImageModelException(e.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<Resource> loadDerivative(String contentHash, int size) {
+        Path file = derivativePathOf(contentHash, size);
+        return Files.isRegularFile(file) ? Optional.of(new FileSystemResource(file)) : Optional.empty();
+    }
+
+    @Override
+    public void delete(String contentHash) {
+        Path file = pathOf(contentHash);
+        try {
+            if (Files.isDirectory(file.getParent())) {
+                try (DirectoryStream<Path> derivatives = Files.newDirectoryStream(file.getParent(), contentHash + "-*")) {
+                    for (Path derivative : derivatives) {
+                        Files.deleteIfExists(derivative);
+                    }
+                }
+            }
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new ImageModelException(e.getMessage());
+        }
+    }
+
+    private Path derivativePathOf(String contentHash, int size) {
+        return pathOf(contentHash).resolveSibling(contentHash + "-" + size + ".jpg");
+    }
+
+    private Path pathOf(String contentHash) {
+        if (contentHash == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+            throw new ImageModelException(String.format("Invalid image content %s", contentHash));
+        }
+
+        return location.resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+}
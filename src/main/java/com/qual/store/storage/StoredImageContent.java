@@ -0,0 +1,12 @@
+package com.qual.store.storage;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class StoredImageContent {
+    private final String contentHash;
+
+    private final long size;
+}
@@ -1,51 +1,63 @@
 package com.qual.store.utils.images;
 
-import com.qual.store.exceptions.ImageModelException;
-
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.zip.DataFormatException;
-import java.util.zip.Deflater;
+import java.io.InputStream;
 import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+public final class ImageUtils {
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-public class ImageUtils {
-    // compress the image bytes before storing it in the database
-    public static byte[] compressBytes(byte[] data) {
-        Deflater deflater = new Deflater();
-        deflater.setInput(data);
-        deflater.finish();
+    private ImageUtils() {
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
-        while (!deflater.finished()) {
-            int count = deflater.deflate(buffer);
-            outputStream.write(buffer, 0, count);
+    // inflates the zlib content stored by earlier versions while it is read; the inflater holds native memory, so it
+    // is ended when the stream is closed instead of waiting for the GC
+    public static InputStream decompressing(InputStream input) {
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream(input, inflater, BUFFER_SIZE) {
+            private boolean ended;
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!ended) {
+                        ended = true;
+                        inflater.end();
+                    }
+                }
+            }
+        };
+    }
+
+    // the type of the image the content starts with, null for anything else than a JPEG, PNG, GIF or WebP image
+    public static String imageTypeOf(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
         }
-        try {
-            outputStream.close();
-        } catch (IOException e) {
-            throw new ImageModelException(e.getMessage());
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
         }
-        System.out.println("Compressed Image Byte Size - " + outputStream.toByteArray().length);
-
-        return outputStream.toByteArray();
+        if (startsWith(header, length, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 0, 'R', 'I', 'F', 'F') && startsWith(header, length, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
     }
 
-    // uncompress the image bytes before returning it to the angular application
-    public static byte[] decompressBytes(byte[] data) {
-        Inflater inflater = new Inflater();
-        inflater.setInput(data);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
-        try {
-            while (!inflater.finished()) {
-                int count = inflater.inflate(buffer);
-                outputStream.write(buffer, 0, count);
+    private static boolean startsWith(byte[] header, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[offset + i] & 0xFF) != signature[i]) {
+                return false;
             }
-            outputStream.close();
-        } catch (IOException | DataFormatException ioe) {
-            throw new ImageModelException(ioe.getMessage());
         }
-        return outputStream.toByteArray();
+        return true;
     }
 }
@@ -0,0 +1,67 @@
+package com.qual.store.utils.pagination;
+
+import com.qual.store.exceptions.InvalidCursorException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+// seek-method paging over ascending ids; the cursor is the opaque, encoded id of the last row of a page
+public final class KeysetPagination {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private KeysetPagination() {
+    }
+
+    public static int limit(Integer requestedLimit) {
+        if (requestedLimit == null) {
+            return DEFAULT_LIMIT;
+        }
+
+        return Math.max(1, Math.min(requestedLimit, MAX_LIMIT));
+    }
+
+    public static long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException(String.format("Invalid cursor %s", cursor));
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(String.format("Invalid cursor %s", cursor));
+        }
+    }
+
+    public static String cursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // one row more than the limit tells whether a next page exists without counting
+    public static Pageable seek(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    public static List<Long> page(List<Long> seekedIds, int limit) {
+        return seekedIds.size() > limit ? seekedIds.subList(0, limit) : seekedIds;
+    }
+
+    public static String nextCursor(List<Long> seekedIds, int limit) {
+        return seekedIds.size() > limit ? cursor(seekedIds.get(limit - 1)) : null;
+    }
+
+    public static int numberOfPages(long numberOfItems, int limit) {
+        return (int) ((numberOfItems + limit - 1) / limit);
+    }
+}
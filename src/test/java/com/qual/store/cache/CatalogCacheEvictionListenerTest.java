@@ -0,0 +1,91 @@
+package com.qual.store.cache;
+
+import com.qual.store.dto.CategoryDto;
+import com.qual.store.dto.ProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogCacheEvictionListenerTest {
+
+    private CacheManager cacheManager;
+    private CatalogCacheEvictionListener catalogCacheEvictionListener;
+
+    @BeforeEach
+    void setup() {
+        cacheManager = new ConcurrentMapCacheManager(CatalogCacheNames.PRODUCTS, CatalogCacheNames.PRODUCT_LIST,
+                CatalogCacheNames.CATEGORIES, CatalogCacheNames.CATEGORY_LIST);
+        catalogCacheEvictionListener = new CatalogCacheEvictionListener(cacheManager);
+
+        cache(CatalogCacheNames.PRODUCTS).put(1L, new ProductDto());
+        cache(CatalogCacheNames.PRODUCTS).put(2L, new ProductDto());
+        cache(CatalogCacheNames.PRODUCT_LIST).put(SimpleKey.EMPTY, List.of(new ProductDto()));
+        cache(CatalogCacheNames.CATEGORIES).put(1L, new CategoryDto());
+        cache(CatalogCacheNames.CATEGORIES).put(2L, new CategoryDto());
+        cache(CatalogCacheNames.CATEGORY_LIST).put(SimpleKey.EMPTY, List.of(new CategoryDto()));
+    }
+
+    @Test
+    void onProductChangedTest() {
+        // when
+        catalogCacheEvictionListener.onProductChanged(new ProductChangedEvent(1L));
+
+        // then
+        assertNull(cache(CatalogCacheNames.PRODUCTS).get(1L));
+        assertNotNull(cache(CatalogCacheNames.PRODUCTS).get(2L));
+        assertNull(cache(CatalogCacheNames.PRODUCT_LIST).get(SimpleKey.EMPTY));
+        assertNotNull(cache(CatalogCacheNames.CATEGORIES).get(1L));
+        assertNotNull(cache(CatalogCacheNames.CATEGORY_LIST).get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    void onProductChangedWithCategoryTest() {
+        // when
+        catalogCacheEvictionListener.onProductChanged(new ProductChangedEvent(1L, 2L));
+
+        // then
+        assertNull(cache(CatalogCacheNames.PRODUCTS).get(1L));
+        assertNull(cache(CatalogCacheNames.PRODUCT_LIST).get(SimpleKey.EMPTY));
+        assertNotNull(cache(CatalogCacheNames.CATEGORIES).get(1L));
+        assertNull(cache(CatalogCacheNames.CATEGORIES).get(2L));
+        assertNull(cache(CatalogCacheNames.CATEGORY_LIST).get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    void onCategoryChangedTest() {
+        // when
+        catalogCacheEvictionListener.onCategoryChanged(new CategoryChangedEvent(1L, List.of(2L)));
+
+        // then
+        assertNull(cache(CatalogCacheNames.CATEGORIES).get(1L));
+        assertNotNull(cache(CatalogCacheNames.CATEGORIES).get(2L));
+        assertNull(cache(CatalogCacheNames.CATEGORY_LIST).get(SimpleKey.EMPTY));
+        assertNotNull(cache(CatalogCacheNames.PRODUCTS).get(1L));
+        assertNull(cache(CatalogCacheNames.PRODUCTS).get(2L));
+        assertNull(cache(CatalogCacheNames.PRODUCT_LIST).get(SimpleKey.EMPTY));
+    }
+
+    @Test
+    void onCategoryChangedWithoutProductsTest() {
+        // when
+        catalogCacheEvictionListener.onCategoryChanged(new CategoryChangedEvent(1L));
+
+        // then
+        assertNull(cache(CatalogCacheNames.CATEGORIES).get(1L));
+        assertNull(cache(CatalogCacheNames.CATEGORY_LIST).get(SimpleKey.EMPTY));
+        assertNotNull(cache(CatalogCacheNames.PRODUCTS).get(1L));
+        assertNotNull(cache(CatalogCacheNames.PRODUCT_LIST).get(SimpleKey.EMPTY));
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
@@ -0,0 +1,183 @@
+package com.qual.store.cache;
+
+import com.qual.store.model.Product;
+import com.qual.store.repository.CatalogVersionRepository;
+import com.qual.store.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the ETags come from the database, so another instance, or this one after a restart, hands out the same ones
+@DataJpaTest
+@Import(CatalogVersions.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogVersionsTest {
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CatalogVersionRepository catalogVersionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Product product;
+    private Product otherProduct;
+
+    @TestConfiguration
+    static class CatalogCacheConfiguration {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+
+    @BeforeEach
+    void setup() {
+        product = productRepository.save(newProduct("Versioned product"));
+        otherProduct = productRepository.save(newProduct("Other product"));
+    }
+
+    @Test
+    void onProductChangedTest() {
+        // given
+        String productETag = catalogVersions.productETag(product.getId());
+        String otherProductETag = catalogVersions.productETag(otherProduct.getId());
+        String catalogETag = catalogVersions.catalogETag();
+
+        // when
+        catalogVersions.onProductChanged(new ProductChangedEvent(product.getId()));
+
+        // then
+        assertNotEquals(productETag, catalogVersions.productETag(product.getId()));
+        assertEquals(otherProductETag, catalogVersions.productETag(otherProduct.getId()));
+        assertNotEquals(catalogETag, catalogVersions.catalogETag());
+    }
+
+    @Test
+    void onCategoryChangedTest() {
+        // given
+        String productETag = catalogVersions.productETag(product.getId());
+        String otherProductETag = catalogVersions.productETag(otherProduct.getId());
+        String catalogETag = catalogVersions.catalogETag();
+
+        // when
+        catalogVersions.onCategoryChanged(new CategoryChangedEvent(3L, List.of(product.getId())));
+
+        // then
+        assertNotEquals(productETag, catalogVersions.productETag(product.getId()));
+        assertEquals(otherProductETag, catalogVersions.productETag(otherProduct.getId()));
+        assertNotEquals(catalogETag, catalogVersions.catalogETag());
+    }
+
+    @Test
+    void eTagsAreSharedByEveryInstanceTest() {
+        // given
+        catalogVersions.onProductChanged(new ProductChangedEvent(product.getId()));
+
+        // when
+        CatalogVersions otherInstance = new CatalogVersions(productRepository, catalogVersionRepository,
+                new ConcurrentMapCacheManager());
+
+        // then
+        assertEquals(catalogVersions.productETag(product.getId()), otherInstance.productETag(product.getId()));
+        assertEquals(catalogVersions.catalogETag(), otherInstance.catalogETag());
+    }
+
+    @Test
+    void savingProductReadBeforeChangeKeepsVersionTest() {
+        // given
+        Product readBeforeChange = productRepository.findById(product.getId()).orElseThrow();
+        catalogVersions.onProductChanged(new ProductChangedEvent(product.getId()));
+        String productETag = catalogVersions.productETag(product.getId());
+
+        // when
+        readBeforeChange.setName("Renamed product");
+        productRepository.save(readBeforeChange);
+
+        // then
+        assertEquals(productETag, catalogVersions.productETag(product.getId()));
+    }
+
+    @Test
+    void deletingProductChangesCatalogETagTest() {
+        // given
+        String productETag = catalogVersions.productETag(otherProduct.getId());
+        String catalogETag = catalogVersions.catalogETag();
+
+        // when
+        productRepository.deleteById(otherProduct.getId());
+        catalogVersions.onProductChanged(new ProductChangedEvent(otherProduct.getId()));
+
+        // then
+        assertNotEquals(productETag, catalogVersions.productETag(otherProduct.getId()));
+        assertNotEquals(catalogETag, catalogVersions.catalogETag());
+    }
+
+    @Test
+    void deletingThenCreatingProductChangesCatalogETagTest() {
+        // given
+        catalogVersions.onProductChanged(new ProductChangedEvent(otherProduct.getId()));
+        String catalogETag = catalogVersions.catalogETag();
+
+        // when
+        productRepository.deleteById(otherProduct.getId());
+        catalogVersions.onProductChanged(new ProductChangedEvent(otherProduct.getId()));
+        Product createdProduct = productRepository.save(newProduct("Created product"));
+        catalogVersions.onProductChanged(new ProductChangedEvent(createdProduct.getId()));
+
+        // then
+        assertNotEquals(catalogETag, catalogVersions.catalogETag());
+    }
+
+    @Test
+    void changeThroughAnotherInstanceEvictsCachedProductTest() {
+        // given
+        CacheManager localCacheManager = new ConcurrentMapCacheManager(CatalogCacheNames.PRODUCTS);
+        CatalogVersions localVersions = new CatalogVersions(productRepository, catalogVersionRepository,
+                localCacheManager);
+        localVersions.productETag(product.getId());
+        localCacheManager.getCache(CatalogCacheNames.PRODUCTS).put(product.getId(), "cached");
+
+        // when
+        String unchangedETag = localVersions.productETag(product.getId());
+        boolean keptWhileUnchanged = localCacheManager.getCache(CatalogCacheNames.PRODUCTS).get(product.getId()) != null;
+        catalogVersions.onProductChanged(new ProductChangedEvent(product.getId()));
+        String changedETag = localVersions.productETag(product.getId());
+
+        // then
+        assertTrue(keptWhileUnchanged);
+        assertNotEquals(unchangedETag, changedETag);
+        assertNull(localCacheManager.getCache(CatalogCacheNames.PRODUCTS).get(product.getId()));
+    }
+
+    private Product newProduct(String name) {
+        return Product.builder()
+                .name(name)
+                .description("Description of " + name)
+                .price(10)
+                .unitsInStock(5)
+                .build();
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("delete from products");
+        jdbcTemplate.execute("delete from catalog_version");
+    }
+}
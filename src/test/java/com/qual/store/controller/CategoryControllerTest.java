@@ -46,20 +46,15 @@ class CategoryControllerTest {
     @Test
     public void getAllCategoriesTest() throws Exception {
         // given
-        Category category = new Category();
-        category.setId(1L);
-        category.setName("Test Category");
-
         CategoryDto categoryDto = new CategoryDto();
         categoryDto.setId(1L);
         categoryDto.setName("Test Category");
 
-        List<Category> categoryList = new ArrayList<>();
-        categoryList.add(category);
+        List<CategoryDto> categoryDtoList = new ArrayList<>();
+        categoryDtoList.add(categoryDto);
 
         // when
-        when(categoryService.getAllCategories()).thenReturn(categoryList);
-        when(categoryConverter.convertModelToDto(category)).thenReturn(categoryDto);
+        when(categoryService.getAllCategoryDtos()).thenReturn(categoryDtoList);
 
         // then
         mockMvc.perform(get("/api/categories")
@@ -69,24 +64,19 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$[0].id").value(categoryDto.getId()))
                 .andExpect(jsonPath("$[0].name").value(categoryDto.getName()));
 
-        verify(categoryService, times(1)).getAllCategories();
-        verify(categoryConverter, times(1)).convertModelToDto(category);
+        verify(categoryService, times(1)).getAllCategoryDtos();
+        verify(categoryConverter, never()).convertModelToDto(any(Category.class));
     }
 
     @Test
     public void getCategoryByIdTest() throws Exception {
         // given
-        Category category = new Category();
-        category.setId(1L);
-        category.setName("Test Category");
-
         CategoryDto categoryDto = new CategoryDto();
         categoryDto.setId(1L);
         categoryDto.setName("Test Category");
 
         // when
-        when(categoryService.findCategoryById(1L)).thenReturn(category);
-        when(categoryConverter.convertModelToDto(category)).thenReturn(categoryDto);
+        when(categoryService.getCategoryDtoById(1L)).thenReturn(categoryDto);
 
         // then
         mockMvc.perform(get("/api/categories/{categoryId}", 1L)
@@ -96,8 +86,7 @@ class CategoryControllerTest {
                 .andExpect(jsonPath("$.id").value(categoryDto.getId()))
                 .andExpect(jsonPath("$.name").value(categoryDto.getName()));
 
-        verify(categoryService, times(1)).findCategoryById(1L);
-        verify(categoryConverter, times(1)).convertModelToDto(category);
+        verify(categoryService, times(1)).getCategoryDtoById(1L);
     }
 
     @Test
@@ -0,0 +1,298 @@
+package com.qual.store.controller;
+
+import com.qual.store.converter.ImageConverter;
+import com.qual.store.converter.ProductConverter;
+import com.qual.store.dto.ImageModelDto;
+import com.qual.store.model.ImageModel;
+import com.qual.store.service.ImageService;
+import com.qual.store.storage.ImageDerivative;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ImageControllerTest {
+    private MockMvc mockMvc;
+
+    @Mock
+    private ImageService imageService;
+
+    @Mock
+    private ImageConverter imageConverter;
+
+    @Mock
+    private ProductConverter productConverter;
+
+    @InjectMocks
+    private ImageController imageController;
+
+    private AutoCloseable closeable;
+
+    private ImageModel imageModel;
+
+    @BeforeEach
+    public void init() {
+        closeable = MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(imageController)
+                .build();
+
+        imageModel = ImageModel.builder()
+                .name("chair.jpg")
+                .type("image/jpeg")
+                .contentHash("a".repeat(64))
+                .size(10L)
+                .build();
+    }
+
+    @Test
+    public void downloadImageByNameTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageService.loadImageContent(imageModel)).thenReturn(imageContent());
+
+        // then
+        mockMvc.perform(get("/api/images/download").param("name", "chair.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + "a".repeat(64) + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=3600, public"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(content().string("0123456789"));
+
+        verify(imageService, times(1)).findImageModelByName("chair.jpg");
+        verify(imageService, times(1)).loadImageContent(imageModel);
+    }
+
+    @Test
+    public void downloadImageOfUntrustedTypeTest() throws Exception {
+        // given
+        imageModel.setType("text/html");
+
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageService.loadImageContent(imageModel)).thenReturn(imageContent());
+
+        // then
+        mockMvc.perform(get("/api/images/download").param("name", "chair.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"));
+    }
+
+    @Test
+    public void downloadImageByNameNotModifiedTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+
+        // then
+        mockMvc.perform(get("/api/images/download")
+                        .param("name", "chair.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + "a".repeat(64) + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(imageService, never()).loadImageContent(any());
+    }
+
+    @Test
+    public void downloadImageDerivativeByNameTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageService.findImageDerivative("a".repeat(64), 200))
+                .thenReturn(Optional.of(new ImageDerivative(480, new ByteArrayResource(new byte[]{1, 2, 3}))));
+
+        // then
+        mockMvc.perform(get("/api/images/download").param("name", "chair.jpg").param("size", "200"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + "a".repeat(64) + "-480\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3));
+
+        verify(imageService, never()).loadImageContent(any());
+    }
+
+    @Test
+    public void downloadPendingImageDerivativeByNameTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageService.findImageDerivative("a".repeat(64), 200)).thenReturn(Optional.empty());
+        when(imageService.loadImageContent(imageModel)).thenReturn(imageContent());
+
+        // then
+        mockMvc.perform(get("/api/images/download").param("name", "chair.jpg").param("size", "200"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    public void downloadImageDerivativeContentNotModifiedTest() throws Exception {
+        // when
+        when(imageService.findImageDerivative("a".repeat(64), 128))
+                .thenReturn(Optional.of(new ImageDerivative(128, new ByteArrayResource(new byte[]{1, 2, 3}))));
+
+        // then
+        mockMvc.perform(get("/api/images/content/{contentHash}", "a".repeat(64))
+                        .param("size", "128")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + "a".repeat(64) + "-128\""))
+                .andExpect(status().isNotModified());
+
+        verify(imageService, never()).findImageModelByContentHash(any());
+    }
+
+    @Test
+    public void downloadImageContentTest() throws Exception {
+        // when
+        when(imageService.findImageModelByContentHash("a".repeat(64))).thenReturn(imageModel);
+        when(imageService.loadImageContent(imageModel)).thenReturn(imageContent());
+
+        // then
+        mockMvc.perform(get("/api/images/content/{contentHash}", "a".repeat(64)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    public void downloadImageContentNotModifiedTest() throws Exception {
+        // then
+        mockMvc.perform(get("/api/images/content/{contentHash}", "a".repeat(64))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + "a".repeat(64) + "\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(imageService);
+    }
+
+    @Test
+    public void getImageByNameNotModifiedTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+
+        // then
+        mockMvc.perform(get("/api/images/getByName")
+                        .param("name", "chair.jpg")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + "a".repeat(64) + "\""))
+                .andExpect(status().isNotModified());
+
+        verify(imageConverter, never()).convertModelToDto(any());
+    }
+
+    @Test
+    public void downloadImageByNameRangeTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageService.loadImageContent(imageModel)).thenReturn(imageContent());
+
+        // then
+        mockMvc.perform(get("/api/images/download")
+                        .param("name", "chair.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    public void downloadImageByNameUnsatisfiableRangeTest() throws Exception {
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageService.loadImageContent(imageModel)).thenReturn(imageContent());
+
+        // then
+        mockMvc.perform(get("/api/images/download")
+                        .param("name", "chair.jpg")
+                        .header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    public void getImageByNameTest() throws Exception {
+        // given
+        ImageModelDto imageModelDto = ImageModelDto.builder()
+                .name("chair.jpg")
+                .type("image/jpeg")
+                .size(10L)
+                .url("/api/images/content/" + "a".repeat(64))
+                .build();
+
+        // when
+        when(imageService.findImageModelByName("chair.jpg")).thenReturn(imageModel);
+        when(imageConverter.convertModelToDto(imageModel)).thenReturn(imageModelDto);
+
+        // then
+        mockMvc.perform(get("/api/images/getByName").param("name", "chair.jpg"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("chair.jpg"))
+                .andExpect(jsonPath("$.url").value("/api/images/content/" + "a".repeat(64)))
+                .andExpect(jsonPath("$.picByte").doesNotExist());
+
+        verify(imageService, never()).loadImageContent(any());
+    }
+
+    @Test
+    public void downloadProductImagesTest() throws Exception {
+        // given
+        ImageModel otherImageModel = ImageModel.builder()
+                .name("table.png")
+                .type("image/png")
+                .contentHash("b".repeat(64))
+                .size(5L)
+                .build();
+
+        // when
+        when(imageService.findImageModelsByProductId(1L)).thenReturn(List.of(imageModel, otherImageModel));
+        when(imageService.findImageDerivative("a".repeat(64), 128))
+                .thenReturn(Optional.of(new ImageDerivative(128, new ByteArrayResource(
+                        "small chair".getBytes(StandardCharsets.UTF_8)))));
+        when(imageService.findImageDerivative("b".repeat(64), 128)).thenReturn(Optional.empty());
+        when(imageService.loadImageContent(otherImageModel))
+                .thenReturn(new ByteArrayResource("table".getBytes(StandardCharsets.UTF_8)));
+
+        // then
+        MvcResult result = mockMvc.perform(get("/api/images/product/{productId}", 1L).param("size", "128"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.MULTIPART_MIXED))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.contains("Content-Disposition: inline; filename=\"chair.jpg\""));
+        assertTrue(body.contains("Content-Type: image/jpeg"));
+        assertTrue(body.contains("small chair"));
+        assertTrue(body.contains("Content-Disposition: inline; filename=\"table.png\""));
+        assertTrue(body.contains("Content-Type: image/png"));
+        assertTrue(body.contains("table"));
+        assertTrue(body.contains("X-Content-Type-Options: nosniff"));
+        verify(imageService, never()).loadImageContent(imageModel);
+    }
+
+    private ByteArrayResource imageContent() {
+        return new ByteArrayResource("0123456789".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+}
@@ -10,6 +10,7 @@ import com.qual.store.dto.paginated.PaginatedOrderResponse;
 import com.qual.store.model.Order;
 import com.qual.store.model.OrderItem;
 import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.repository.projection.BasketItem;
 import com.qual.store.service.OrderItemService;
 import com.qual.store.service.OrderService;
 import org.junit.jupiter.api.AfterEach;
@@ -252,29 +253,17 @@ class OrderControllerTest {
     @Test
     void getBasketTest() throws Exception {
         // given
-        Order order = new Order();
-        order.setId(1L);
-        order.setStatus(OrderStatus.ACTIVE);
-        order.setOrderItems(new HashSet<>());
-
-        OrderItem orderItem = new OrderItem();
-        orderItem.setId(1L);
-        orderItem.setQuantity(1);
+        BasketItem basketItem = mock(BasketItem.class);
 
         OrderItemDto orderItemDto = new OrderItemDto();
         orderItemDto.setId(1L);
         orderItemDto.setQuantity(1);
-
-        orderItem.setOrder(order);
         orderItemDto.setOrderId(1L);
-        order.addOrderItem(orderItem);
-
-        List<OrderItem> orderItemList = new ArrayList<>();
-        orderItemList.add(orderItem);
+        orderItemDto.setProductName("product");
 
         // when
-        when(orderService.getBasketAsOrderItems()).thenReturn(orderItemList);
-        when(orderItemConverter.convertModelToDto(orderItem)).thenReturn(orderItemDto);
+        when(orderService.getBasketItems()).thenReturn(List.of(basketItem));
+        when(orderItemConverter.convertBasketItemToDto(basketItem)).thenReturn(orderItemDto);
 
         // then
         mockMvc.perform(get("/api/orders/me/basket")
@@ -282,12 +271,13 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].id").value(orderItemDto.getId()))
-                .andExpect(jsonPath("$[0].orderId").value(order.getId()))
+                .andExpect(jsonPath("$[0].orderId").value(orderItemDto.getOrderId()))
                 .andExpect(jsonPath("$[0].quantity").value(orderItemDto.getQuantity()))
-                .andExpect(jsonPath("$.length()").value(order.getOrderItems().size()));
+                .andExpect(jsonPath("$[0].productName").value(orderItemDto.getProductName()))
+                .andExpect(jsonPath("$.length()").value(1));
 
-        verify(orderService, times(1)).getBasketAsOrderItems();
-        verify(orderItemConverter, times(1)).convertModelToDto(orderItem);
+        verify(orderService, times(1)).getBasketItems();
+        verify(orderItemConverter, times(1)).convertBasketItemToDto(basketItem);
     }
 
     @Test
@@ -341,6 +331,35 @@ class OrderControllerTest {
         verify(orderService, times(1)).getOrders(pageNumber, pageSize, sortBy);
     }
 
+    @Test
+    void getOrdersAfterCursorTest() throws Exception {
+        // given
+        OrderDto orderDto = OrderDto.builder()
+                .deliveryPrice(200)
+                .status("ACTIVE")
+                .build();
+        PaginatedOrderResponse paginatedResponse = PaginatedOrderResponse.builder()
+                .orders(List.of(orderDto))
+                .numberOfItems(1L)
+                .numberOfPages(1)
+                .build();
+
+        // when
+        when(orderService.getOrdersAfter(null, 5, true)).thenReturn(paginatedResponse);
+
+        // then
+        mockMvc.perform(get("/api/orders/display")
+                        .param("limit", "5")
+                        .param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orders[0].deliveryPrice").value(200))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.numberOfItems").value(1));
+
+        verify(orderService, times(1)).getOrdersAfter(null, 5, true);
+        verify(orderService, never()).getOrders(any(), any(), any());
+    }
+
     @Test
     void searchOrdersByUsernameTest() throws Exception {
         // given
@@ -2,12 +2,12 @@ package com.qual.store.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.qual.store.cache.CatalogVersions;
 import com.qual.store.converter.ProductConverter;
 import com.qual.store.dto.ProductDto;
 import com.qual.store.dto.paginated.PaginatedProductResponse;
 import com.qual.store.dto.request.ProductRequestDto;
 import com.qual.store.model.Product;
-import com.qual.store.service.OrderService;
 import com.qual.store.service.ProductService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -34,10 +35,10 @@ class ProductControllerTest {
     private ProductService productService;
 
     @Mock
-    private OrderService orderService;
+    private ProductConverter productConverter;
 
     @Mock
-    private ProductConverter productConverter;
+    private CatalogVersions catalogVersions;
 
     @InjectMocks
     private ProductController productController;
@@ -53,20 +54,15 @@ class ProductControllerTest {
     @Test
     public void getAllProductsTest() throws Exception {
         // given
-        Product product = new Product();
-        product.setId(1L);
-        product.setName("Test Product");
-
         ProductDto productDto = new ProductDto();
         productDto.setId(1L);
         productDto.setName("Test Product");
 
-        List<Product> productList = new ArrayList<>();
-        productList.add(product);
+        List<ProductDto> productDtoList = new ArrayList<>();
+        productDtoList.add(productDto);
 
         // when
-        when(productService.getAllProducts()).thenReturn(productList);
-        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
+        when(productService.getAllProductDtos()).thenReturn(productDtoList);
 
         // then
         mockMvc.perform(get("/api/products")
@@ -75,46 +71,46 @@ class ProductControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].id").value(productDto.getId()))
                 .andExpect(jsonPath("$[0].name").value(productDto.getName()))
-                .andExpect(jsonPath("$.length()").value(productList.size()));
+                .andExpect(jsonPath("$.length()").value(productDtoList.size()));
 
-        verify(productService, times(1)).getAllProducts();
-        verify(productConverter, times(1)).convertModelToDto(product);
+        verify(productService, times(1)).getAllProductDtos();
+        verify(productConverter, never()).convertModelToDto(any(Product.class));
     }
 
     @Test
     public void getAllProductsByDiscount() throws Exception {
         // given
         double discount = 20.0;
-
-        Product product = new Product();
-        product.setId(1L);
-        product.setDiscountPercentage(discount);
-        product.setName("Test Product");
+        int pageNumber = 0;
+        int pageSize = 10;
+        String sortBy = "id";
 
         ProductDto productDto = new ProductDto();
         productDto.setId(1L);
         productDto.setDiscountPercentage(discount);
         productDto.setName("Test Product");
 
-        List<Product> productList = new ArrayList<>();
-        productList.add(product);
+        PaginatedProductResponse paginatedResponse = PaginatedProductResponse.builder()
+                .products(List.of(productDto))
+                .numberOfItems(1L)
+                .numberOfPages(1)
+                .build();
 
         // when
-        when(productService.getAllProductsByDiscount()).thenReturn(productList);
-        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
+        when(productService.getAllProductsByDiscount(pageNumber, pageSize, sortBy)).thenReturn(paginatedResponse);
 
         // then
         mockMvc.perform(get("/api/products/discount")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(productDto.getId()))
-                .andExpect(jsonPath("$[0].name").value(productDto.getName()))
-                .andExpect(jsonPath("$[0].discountPercentage").value(productDto.getDiscountPercentage()))
-                .andExpect(jsonPath("$.length()").value(productList.size()));
+                .andExpect(jsonPath("$.products[0].id").value(productDto.getId()))
+                .andExpect(jsonPath("$.products[0].name").value(productDto.getName()))
+                .andExpect(jsonPath("$.products[0].discountPercentage").value(productDto.getDiscountPercentage()))
+                .andExpect(jsonPath("$.numberOfItems").value(1))
+                .andExpect(jsonPath("$.numberOfPages").value(1));
 
-        verify(productService, times(1)).getAllProductsByDiscount();
-        verify(productConverter, times(1)).convertModelToDto(product);
+        verify(productService, times(1)).getAllProductsByDiscount(pageNumber, pageSize, sortBy);
     }
 
     @Test
@@ -122,78 +118,108 @@ class ProductControllerTest {
         // given
         double minPrice = 10;
         double maxPrice = 100;
-
-        Product product1 = new Product();
-        product1.setId(1L);
-        product1.setPrice(50.0);
-        product1.setName("Test Product 1");
-
+        int pageNumber = 1;
+        int pageSize = 5;
+        String sortBy = "price";
 
         ProductDto productDto = new ProductDto();
         productDto.setId(1L);
         productDto.setPrice(50.0);
         productDto.setName("Test Product");
 
-        List<Product> productList = new ArrayList<>();
-        productList.add(product1);
+        PaginatedProductResponse paginatedResponse = PaginatedProductResponse.builder()
+                .products(List.of(productDto))
+                .numberOfItems(6L)
+                .numberOfPages(2)
+                .build();
 
         // when
-        when(productService.getAllProductsByPriceRange(minPrice, maxPrice)).thenReturn(productList);
-        when(productConverter.convertModelToDto(product1)).thenReturn(productDto);
+        when(productService.getAllProductsByPriceRange(minPrice, maxPrice, pageNumber, pageSize, sortBy))
+                .thenReturn(paginatedResponse);
 
         // then
         mockMvc.perform(get("/api/products/price")
                         .param("minPrice", String.valueOf(minPrice))
                         .param("maxPrice", String.valueOf(maxPrice))
+                        .param("pageNumber", String.valueOf(pageNumber))
+                        .param("pageSize", String.valueOf(pageSize))
+                        .param("sortBy", sortBy)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(productDto.getId()))
-                .andExpect(jsonPath("$[0].name").value(productDto.getName()))
-                .andExpect(jsonPath("$.length()").value(productList.size()));
+                .andExpect(jsonPath("$.products[0].id").value(productDto.getId()))
+                .andExpect(jsonPath("$.products[0].name").value(productDto.getName()))
+                .andExpect(jsonPath("$.numberOfItems").value(6))
+                .andExpect(jsonPath("$.numberOfPages").value(2));
 
-        verify(productService, times(1)).getAllProductsByPriceRange(minPrice, maxPrice);
-        verify(productConverter, times(1)).convertModelToDto(product1);
+        verify(productService, times(1))
+                .getAllProductsByPriceRange(minPrice, maxPrice, pageNumber, pageSize, sortBy);
     }
 
     @Test
-    public void getProductsByOrderStatusPlaced() throws Exception {
+    public void filterProductsTest() throws Exception {
         // given
-        Integer quantity = 1;
+        Long categoryId = 3L;
+        double maxPrice = 100;
 
-        Long productId = 1L;
+        PaginatedProductResponse paginatedResponse = PaginatedProductResponse.builder()
+                .products(new ArrayList<>())
+                .numberOfItems(0L)
+                .numberOfPages(0)
+                .build();
 
-        Product product1 = new Product();
-        product1.setId(productId);
-        product1.setName("Test Product");
+        // when
+        when(productService.filterProducts(categoryId, null, maxPrice, true, 0, 10, "id"))
+                .thenReturn(paginatedResponse);
 
-        ProductDto productDto = new ProductDto();
-        productDto.setId(productId);
-        productDto.setName("Test Product");
+        // then
+        mockMvc.perform(get("/api/products/filter")
+                        .param("categoryId", String.valueOf(categoryId))
+                        .param("maxPrice", String.valueOf(maxPrice))
+                        .param("discounted", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(0))
+                .andExpect(jsonPath("$.numberOfItems").value(0));
+
+        verify(productService, times(1)).filterProducts(categoryId, null, maxPrice, true, 0, 10, "id");
+    }
+
+    @Test
+    public void getProductsByOrderStatusPlaced() throws Exception {
+        // given
+        int pageNumber = 0;
+        int pageSize = 3;
 
-        List<Product> productList = new ArrayList<>();
-        productList.add(product1);
+        ProductDto bestSeller = new ProductDto();
+        bestSeller.setId(2L);
+        bestSeller.setName("Best seller");
 
-        Map<Long, Integer> productQuantityMap = new HashMap<>();
-        productQuantityMap.put(productId, quantity);
+        ProductDto runnerUp = new ProductDto();
+        runnerUp.setId(1L);
+        runnerUp.setName("Runner up");
+
+        PaginatedProductResponse paginatedResponse = PaginatedProductResponse.builder()
+                .products(List.of(bestSeller, runnerUp))
+                .numberOfItems(2L)
+                .numberOfPages(1)
+                .build();
 
         // when
-        when(orderService.getProductsQuantity()).thenReturn(productQuantityMap);
-        when(productService.getAllProducts()).thenReturn(productList);
-        when(productConverter.convertModelToDto(product1)).thenReturn(productDto);
+        when(productService.getBestSellingProducts(pageNumber, pageSize)).thenReturn(paginatedResponse);
 
         // then
         mockMvc.perform(get("/api/products/placed")
+                        .param("pageSize", String.valueOf(pageSize))
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].id").value(productDto.getId()))
-                .andExpect(jsonPath("$[0].name").value(productDto.getName()))
-                .andExpect(jsonPath("$.length()").value(productList.size()));
+                .andExpect(jsonPath("$.products[0].id").value(bestSeller.getId()))
+                .andExpect(jsonPath("$.products[1].id").value(runnerUp.getId()))
+                .andExpect(jsonPath("$.numberOfItems").value(2));
 
-        verify(orderService, times(1)).getProductsQuantity();
-        verify(productService, times(1)).getAllProducts();
-        verify(productConverter, times(1)).convertModelToDto(product1);
+        verify(productService, times(1)).getBestSellingProducts(pageNumber, pageSize);
+        verify(productService, times(0)).getAllProducts();
     }
 
     @Test
@@ -206,12 +232,15 @@ class ProductControllerTest {
         productDto.setName("Test Product");
 
         // when
+        when(catalogVersions.productETag(productId)).thenReturn("1-3");
         when(productService.getProductById(productId)).thenReturn(productDto);
 
         // then
         mockMvc.perform(get("/api/products/{productId}", productId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(productDto.getId()))
                 .andExpect(jsonPath("$.name").value(productDto.getName()));
@@ -219,6 +248,34 @@ class ProductControllerTest {
         verify(productService, times(1)).getProductById(productId);
     }
 
+    @Test
+    public void getProductByIdNotModifiedTest() throws Exception {
+        // when
+        when(catalogVersions.productETag(1L)).thenReturn("1-3");
+
+        // then
+        mockMvc.perform(get("/api/products/{productId}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getProductById(any());
+    }
+
+    @Test
+    public void getAllProductsNotModifiedTest() throws Exception {
+        // when
+        when(catalogVersions.catalogETag()).thenReturn("7-12");
+
+        // then
+        mockMvc.perform(get("/api/products/display")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7-12\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getProducts(anyInt(), anyInt(), anyString());
+    }
+
     @Test
     void testAddProductCategory() throws Exception {
         // given
@@ -357,22 +414,55 @@ class ProductControllerTest {
         verify(productService, times(1)).getProducts(pageNumber, pageSize, sortBy);
     }
 
+    @Test
+    void getProductsAfterCursorTest() throws Exception {
+        // given
+        ProductDto productDto = new ProductDto();
+        productDto.setId(3L);
+        productDto.setName("Test Product 3");
+
+        PaginatedProductResponse paginatedResponse = PaginatedProductResponse.builder()
+                .products(List.of(productDto))
+                .nextCursor("next")
+                .build();
+
+        // when
+        when(productService.getProductsAfter("current", 1, false)).thenReturn(paginatedResponse);
+
+        // then
+        mockMvc.perform(get("/api/products/display")
+                        .param("after", "current")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[0].name").value("Test Product 3"))
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.numberOfItems").doesNotExist());
+
+        verify(productService, times(1)).getProductsAfter("current", 1, false);
+        verify(productService, never()).getProducts(any(), any(), any());
+    }
+
     @Test
     void getProductsByCategoryTest() throws Exception {
         // given
         Long categoryId = 1L;
+        PaginatedProductResponse paginatedResponse = PaginatedProductResponse.builder()
+                .products(new ArrayList<>())
+                .numberOfItems(0L)
+                .numberOfPages(0)
+                .build();
 
         // when
-        when(productService.findProductsByCategory(categoryId)).thenReturn(new ArrayList<>());
-        when(productConverter.convertModelToDto(any())).thenReturn(new ProductDto());
+        when(productService.findProductsByCategory(categoryId, 0, 10, "id")).thenReturn(paginatedResponse);
 
         // then
         mockMvc.perform(get("/api/products/category")
                         .param("categoryId", String.valueOf(categoryId)))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products.length()").value(0))
                 .andReturn();
 
-        verify(productService, times(1)).findProductsByCategory(categoryId);
+        verify(productService, times(1)).findProductsByCategory(categoryId, 0, 10, "id");
         verify(productConverter, times(0)).convertModelToDto(any());
     }
 
@@ -2,6 +2,7 @@ package com.qual.store.converter;
 
 import com.qual.store.dto.OrderItemDto;
 import com.qual.store.model.Category;
+import com.qual.store.model.ImageModel;
 import com.qual.store.model.Order;
 import com.qual.store.model.OrderItem;
 import com.qual.store.model.Product;
@@ -15,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.HashSet;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -118,6 +120,31 @@ public class OrderItemConverterTest {
         assertEquals(expectedOrderItemDto.getId(), actualOrderItemDto.getId());
     }
 
+    @Test
+    public void convertModelToDtoWithImagesTest() {
+        // given
+        Product product = Product.builder()
+                .name("Product")
+                .category(new Category())
+                .images(new HashSet<>())
+                .build();
+        product.setId(2L);
+        product.addImageModel(ImageModel.builder().name("chair-side.jpg").build());
+        product.addImageModel(ImageModel.builder().name("chair-front.jpg").build());
+
+        OrderItem orderItem = OrderItem.builder()
+                .product(product)
+                .quantity(1)
+                .build();
+
+        // when
+        OrderItemDto actualOrderItemDto = orderItemConverter.convertModelToDto(orderItem);
+
+        // then
+        assertEquals("chair-front.jpg", actualOrderItemDto.getImageName());
+        verifyNoInteractions(productRepository);
+    }
+
     @AfterEach
     public void closeService() throws Exception {
         closeable.close();
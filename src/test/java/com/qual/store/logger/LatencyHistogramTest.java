@@ -0,0 +1,40 @@
+package com.qual.store.logger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsCoverEveryValueTest() {
+        int previous = 0;
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index == previous || index == previous + 1);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(index));
+            previous = index;
+        }
+        assertEquals(LatencyHistogram.indexOf(1L << 41), LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void quantilesTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMaxNanos());
+        assertEquals(500_500_000, histogram.getTotalNanos());
+        assertEquals(500_000, histogram.getQuantileNanos(0.5), 500_000 * 0.125);
+        assertEquals(990_000, histogram.getQuantileNanos(0.99), 990_000 * 0.125);
+        assertTrue(histogram.getQuantileNanos(1.0) <= histogram.getMaxNanos());
+    }
+
+    @Test
+    void emptyTest() {
+        assertEquals(0, new LatencyHistogram().getQuantileNanos(0.99));
+    }
+}
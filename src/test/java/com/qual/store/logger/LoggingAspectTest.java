@@ -0,0 +1,80 @@
+package com.qual.store.logger;
+
+import com.qual.store.dto.MethodTimingDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoggingAspectTest {
+
+    private MethodTimings methodTimings;
+    private TimedService timedService;
+
+    @BeforeEach
+    void setUp() {
+        methodTimings = new MethodTimings();
+        ProxyFactory proxyFactory = new ProxyFactory(new TimedService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new LoggingAspect(methodTimings, 1));
+        timedService = (TimedService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void recordsLogMethodsTest() {
+        timedService.find(1L);
+        timedService.find(2L);
+        assertThrows(IllegalStateException.class, () -> timedService.fail());
+        timedService.untimed();
+
+        List<MethodTimingDto> timings = methodTimings.getMethodTimings();
+
+        assertEquals(2, timings.size());
+        MethodTimingDto find = timing(timings, "TimedService.find");
+        assertEquals(2, find.getCount());
+        assertEquals(0, find.getErrorCount());
+        assertTrue(find.getP50Millis() <= find.getP99Millis());
+        assertTrue(find.getP99Millis() <= find.getMaxMillis());
+
+        MethodTimingDto fail = timing(timings, "TimedService.fail");
+        assertEquals(1, fail.getCount());
+        assertEquals(1, fail.getErrorCount());
+    }
+
+    @Test
+    void renderTest() {
+        String rendered = LoggingAspect.render(new Object[]{
+                42L, "name", null, new MockMultipartFile("file", "a.png", "image/png", new byte[10]),
+                new byte[3], new TimedService(), "x".repeat(100)
+        });
+
+        assertEquals("42, \"name\", null, MultipartFile(a.png, 10 bytes), byte[3], TimedService, \""
+                + "x".repeat(64) + "...\"", rendered);
+    }
+
+    private static MethodTimingDto timing(List<MethodTimingDto> timings, String method) {
+        return timings.stream()
+                .filter(timing -> timing.getMethod().equals(method))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    static class TimedService {
+        @Log
+        public String find(Long id) {
+            return "found " + id;
+        }
+
+        @Log
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        public void untimed() {
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.qual.store.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageBytesFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageBytesFilter imageBytesFilter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        imageBytesFilter = new ImageBytesFilter(new StoreMetrics(meterRegistry));
+    }
+
+    @Test
+    public void countsImageBytesWrittenTest() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/images/content/abc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        imageBytesFilter.doFilter(request, response, new MockFilterChain(new WritingServlet(200, 1000)));
+
+        // then
+        assertEquals(1000, response.getContentAsByteArray().length);
+        assertEquals(1000, servedBytes());
+    }
+
+    @Test
+    public void errorsAndOtherPathsAreNotCountedTest() throws Exception {
+        // when
+        imageBytesFilter.doFilter(new MockHttpServletRequest("GET", "/api/images/download"),
+                new MockHttpServletResponse(), new MockFilterChain(new WritingServlet(404, 50)));
+        imageBytesFilter.doFilter(new MockHttpServletRequest("GET", "/api/products"),
+                new MockHttpServletResponse(), new MockFilterChain(new WritingServlet(200, 50)));
+
+        // then
+        assertEquals(0, servedBytes());
+    }
+
+    private double servedBytes() {
+        return meterRegistry.get("store.images.served").counter().count();
+    }
+
+    private static class WritingServlet extends HttpServlet {
+        private final int status;
+        private final int bytes;
+
+        WritingServlet(int status, int bytes) {
+            this.status = status;
+            this.bytes = bytes;
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response)
+                throws IOException {
+            response.setStatus(status);
+            response.getOutputStream().write(new byte[bytes], 0, bytes);
+        }
+    }
+}
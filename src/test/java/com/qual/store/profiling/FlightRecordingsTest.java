@@ -0,0 +1,98 @@
+package com.qual.store.profiling;
+
+import com.qual.store.dto.RecordingDto;
+import com.qual.store.exceptions.RecordingException;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingsTest {
+
+    private FlightRecordings flightRecordings;
+    private TracedService tracedService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        flightRecordings = new FlightRecordings("default", Duration.ofMinutes(1), 10_000_000, Duration.ZERO);
+        ProxyFactory proxyFactory = new ProxyFactory(new TracedService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvisor(new ServiceCallAdvisor());
+        tracedService = (TracedService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void recordsServiceCallsTest() throws Exception {
+        // given
+        RecordingDto recording = flightRecordings.start(Duration.ofHours(1));
+
+        // when
+        tracedService.find(7L, "name");
+        assertThrows(IllegalStateException.class, () -> tracedService.fail());
+        Path file = Files.createTempFile("recording", ".jfr");
+        try (InputStream content = flightRecordings.stop()) {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // then
+        assertEquals("RUNNING", recording.getState());
+        assertEquals(60, recording.getMaxDurationSeconds());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("com.qual.store.ServiceCall"))
+                .toList();
+        Files.delete(file);
+
+        assertEquals(2, events.size());
+        RecordedEvent find = events.stream()
+                .filter(event -> "TracedService.find".equals(event.getString("method")))
+                .findFirst().orElseThrow();
+        assertEquals(7L, find.getLong("entityId"));
+        assertEquals("name", find.getString("argument"));
+        assertEquals(2, find.getInt("results"));
+        RecordedEvent fail = events.stream()
+                .filter(event -> "TracedService.fail".equals(event.getString("method")))
+                .findFirst().orElseThrow();
+        assertEquals("IllegalStateException", fail.getString("error"));
+    }
+
+    @Test
+    void oneRecordingAtATimeTest() {
+        // given
+        flightRecordings.start(null);
+
+        // then
+        assertThrows(RecordingException.class, () -> flightRecordings.start(null));
+    }
+
+    @Test
+    void stopWithoutRecordingTest() {
+        assertThrows(RecordingException.class, () -> flightRecordings.stop());
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightRecordings.shutdown();
+    }
+
+    @Traced
+    static class TracedService {
+        public List<String> find(Long id, String name) {
+            return List.of(name, name);
+        }
+
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+    }
+}
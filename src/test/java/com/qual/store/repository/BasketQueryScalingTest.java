@@ -0,0 +1,156 @@
+package com.qual.store.repository;
+
+import com.qual.store.model.*;
+import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.model.enums.RoleName;
+import com.qual.store.repository.projection.BasketItem;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the basket must be read with one statement whose cost does not follow the size of order_items
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BasketQueryScalingTest {
+
+    private static final String USERNAME = "basketUser";
+    private static final int BASKET_SIZE = 3;
+    private static final int ITEMS_PER_ORDER = 10;
+    private static final int[] TABLE_GROWTH = {0, 1_000, 5_000};
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private AppUser otherUser;
+    private Product product;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        AppUser basketUser = entityManager.persist(newUser(USERNAME));
+        otherUser = entityManager.persist(newUser("otherUser"));
+        Category category = entityManager.persist(Category.builder().name("Basket").build());
+        product = entityManager.persist(Product.builder()
+                .name("Basket product")
+                .description("Product in the basket")
+                .price(25)
+                .unitsInStock(7)
+                .category(category)
+                .user(basketUser)
+                .reviews(new ArrayList<>())
+                .images(new HashSet<>())
+                .favoriteByUsers(new HashSet<>())
+                .build());
+        entityManager.persist(ImageModel.builder()
+                .name("basket.png")
+                .type("image/png")
+                .product(product)
+                .build());
+
+        Order basket = entityManager.persist(newOrder(basketUser, OrderStatus.ACTIVE));
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            entityManager.persist(OrderItem.builder().quantity(i + 1).product(product).order(basket).build());
+        }
+        entityManager.persist(newOrder(basketUser, OrderStatus.PLACED));
+        entityManager.flush();
+    }
+
+    @Test
+    void findBasketItemsTest() {
+        int grown = 0;
+        for (int i = 0; i < TABLE_GROWTH.length; i++) {
+            growOrderItems(TABLE_GROWTH[i] - grown);
+            grown = TABLE_GROWTH[i];
+
+            statistics.clear();
+            List<BasketItem> basketItems = orderItemRepository.findBasketItemsByUsernameAndStatus(USERNAME, OrderStatus.ACTIVE);
+            assertEquals(1, statistics.getPrepareStatementCount());
+            assertBasket(basketItems);
+
+            log.info("basket read with {} unrelated order items: median {} us", grown, measureMedianNanos() / 1_000);
+        }
+    }
+
+    private void assertBasket(List<BasketItem> basketItems) {
+        assertEquals(BASKET_SIZE, basketItems.size());
+        for (int i = 0; i < BASKET_SIZE; i++) {
+            BasketItem basketItem = basketItems.get(i);
+            assertEquals(i + 1, basketItem.getQuantity());
+            assertEquals(product.getId(), basketItem.getProductId());
+            assertEquals("Basket product", basketItem.getProductName());
+            assertEquals(25.0, basketItem.getProductPrice());
+            assertEquals(7L, basketItem.getUnitsInStock());
+            assertEquals("Basket", basketItem.getCategoryName());
+            assertEquals("basket.png", basketItem.getImageName());
+        }
+    }
+
+    private long measureMedianNanos() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            orderItemRepository.findBasketItemsByUsernameAndStatus(USERNAME, OrderStatus.ACTIVE);
+        }
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            orderItemRepository.findBasketItemsByUsernameAndStatus(USERNAME, OrderStatus.ACTIVE);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[MEASURED_ROUNDS / 2];
+    }
+
+    private void growOrderItems(int count) {
+        AppUser owner = entityManager.find(AppUser.class, otherUser.getId());
+        Product orderedProduct = entityManager.find(Product.class, product.getId());
+        Order order = null;
+        for (int i = 0; i < count; i++) {
+            if (i % ITEMS_PER_ORDER == 0) {
+                order = entityManager.persist(newOrder(owner, i % 2 == 0 ? OrderStatus.ACTIVE : OrderStatus.PLACED));
+            }
+            entityManager.persist(OrderItem.builder().quantity(1).product(orderedProduct).order(order).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private AppUser newUser(String username) {
+        return AppUser.builder()
+                .username(username)
+                .email(username + "@basket.com")
+                .role(RoleName.USER)
+                .build();
+    }
+
+    private Order newOrder(AppUser appUser, OrderStatus status) {
+        return Order.builder()
+                .deliveryPrice(10)
+                .startDate(LocalDate.now())
+                .status(status)
+                .user(appUser)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.qual.store.repository;
+
+import com.qual.store.model.Category;
+import com.qual.store.model.Product;
+import com.qual.store.repository.specification.ProductSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// a page of a specification is limited in the database, only the ids of that page are read
+@DataJpaTest
+class ProductIdRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        Category category = entityManager.persist(Category.builder().name("Lamps").build());
+        for (int i = 0; i < 5; i++) {
+            productIds.add(entityManager.persist(Product.builder()
+                    .name("Lamp " + i)
+                    .description("Lamp")
+                    .price(50 - i * 10)
+                    .discountPercentage(i % 2 == 0 ? 10 : 0)
+                    .category(category)
+                    .reviews(new ArrayList<>())
+                    .images(new HashSet<>())
+                    .favoriteByUsers(new HashSet<>())
+                    .build()).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findProductIdsTest() {
+        // when
+        Page<Long> page = productRepository.findProductIds(ProductSpecifications.hasDiscount(),
+                PageRequest.of(0, 2, Sort.by("price")));
+
+        // then
+        assertEquals(List.of(productIds.get(4), productIds.get(2)), page.getContent());
+        assertEquals(3L, page.getTotalElements());
+        assertEquals(2, page.getTotalPages());
+    }
+
+    @Test
+    void findProductIdsWithoutFilterTest() {
+        // when
+        Page<Long> page = productRepository.findProductIds(ProductSpecifications.matching(null, null, null, false),
+                PageRequest.of(1, 2, Sort.by("id")));
+
+        // then
+        assertEquals(productIds.subList(2, 4), page.getContent());
+        assertEquals(5L, page.getTotalElements());
+    }
+
+    @Test
+    void findProductIdsOfIdsTest() {
+        // when
+        Page<Long> page = productRepository.findProductIds(
+                ProductSpecifications.idIn(List.of(productIds.get(0), productIds.get(1), productIds.get(3))),
+                PageRequest.of(0, 2, Sort.by("price")));
+        Page<Long> none = productRepository.findProductIds(ProductSpecifications.idIn(List.of()),
+                PageRequest.of(0, 2, Sort.by("price")));
+
+        // then
+        assertEquals(List.of(productIds.get(3), productIds.get(1)), page.getContent());
+        assertEquals(3L, page.getTotalElements());
+        assertEquals(List.of(), none.getContent());
+        assertEquals(0L, none.getTotalElements());
+    }
+}
@@ -0,0 +1,69 @@
+package com.qual.store.search;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+
+import static com.qual.store.search.ProductSearchIndexTest.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// selective queries must stay cheap when the catalog holds a million products
+class ProductSearchIndexScalingTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int BRANDS = 10_000;
+    private static final String[] NOUNS = {"chair", "table", "lamp", "desk", "shelf", "sofa", "mug", "rug"};
+    private static final String[] MATERIALS = {"oak", "steel", "glass", "linen", "ceramic"};
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1_000;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndexScalingTest.class);
+
+    private static ProductSearchIndex productSearchIndex;
+
+    @BeforeAll
+    static void setUp() {
+        productSearchIndex = new ProductSearchIndex();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            int i = (int) id;
+            productSearchIndex.index(document(id,
+                    NOUNS[i % NOUNS.length] + " brand" + (i % BRANDS),
+                    "Made of " + MATERIALS[i % MATERIALS.length],
+                    "category" + (i % 50)));
+        }
+    }
+
+    @Test
+    void searchTest() {
+        assertEquals(PRODUCTS, productSearchIndex.size());
+
+        // brand1234 is on every BRANDS-th product
+        assertEquals(PRODUCTS / BRANDS, productSearchIndex.count("brand1234"));
+        assertEquals(PRODUCTS / BRANDS, productSearchIndex.count("brand1234 " + NOUNS[1234 % NOUNS.length]));
+        assertEquals(0, productSearchIndex.count("brand1234 " + NOUNS[1235 % NOUNS.length]));
+        assertEquals(11 * PRODUCTS / BRANDS, productSearchIndex.count("brand123"));
+
+        measure("brand1234");
+        measure("lamp brand1234");
+        measure("oak brand123");
+        measure("brand1234 category34 la");
+    }
+
+    private void measure(String query) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            productSearchIndex.search(query, 0, 10, true);
+        }
+        long[] samples = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            productSearchIndex.search(query, 0, 10, true);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        log.info("search '{}' over {} products: median {} us, p99 {} us", query, PRODUCTS,
+                samples[MEASURED_ROUNDS / 2] / 1_000, samples[MEASURED_ROUNDS * 99 / 100] / 1_000);
+    }
+}
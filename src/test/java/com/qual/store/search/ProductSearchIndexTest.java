@@ -0,0 +1,146 @@
+package com.qual.store.search;
+
+import com.qual.store.repository.projection.ProductSearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        productSearchIndex = new ProductSearchIndex();
+        productSearchIndex.index(document(1L, "Red Wooden Chair", "A chair for the kitchen", "Furniture"));
+        productSearchIndex.index(document(2L, "Blue Table", "Goes well with a red chair", "Furniture"));
+        productSearchIndex.index(document(3L, "Caf\u00e9 Mug", "Ceramic mug", "Kitchen"));
+        productSearchIndex.index(document(4L, "Reading Lamp", null, null));
+    }
+
+    @Test
+    void searchMatchesEveryTermInAnyFieldTest() {
+        assertEquals(List.of(1L, 2L), ids("red chair", false));
+        assertEquals(List.of(1L, 2L), ids("furniture", false));
+        assertEquals(List.of(), ids("red mug", false));
+    }
+
+    @Test
+    void searchIgnoresCaseAndAccentsTest() {
+        assertEquals(List.of(3L), ids("CAFE", false));
+        assertEquals(List.of(3L), ids("caf\u00e9-mug!", false));
+    }
+
+    @Test
+    void searchMatchesTheLastTermAsPrefixTest() {
+        assertEquals(List.of(1L, 2L, 4L), ids("re", false));
+        assertEquals(List.of(1L), ids("red wood", false));
+        // only the last term is a prefix
+        assertEquals(List.of(), ids("wood chair", false));
+    }
+
+    @Test
+    void searchRanksNameAboveCategoryAboveDescriptionTest() {
+        productSearchIndex.index(document(5L, "Stool", "Kitchen stool", "Kitchen"));
+        productSearchIndex.index(document(6L, "Kitchen Shelf", null, "Furniture"));
+
+        assertEquals(List.of(6L, 5L, 3L, 1L), ids("kitchen", true));
+    }
+
+    @Test
+    void searchRanksExactMatchesAbovePrefixMatchesTest() {
+        productSearchIndex.index(document(5L, "Red", null, null));
+        productSearchIndex.index(document(6L, "Redwood", null, null));
+
+        assertEquals(List.of(1L, 5L, 6L, 2L), ids("red", true));
+    }
+
+    @Test
+    void searchExpandsEveryTermOfAShortPrefixTest() {
+        for (long id = 100; id < 300; id++) {
+            productSearchIndex.index(document(id, "Model" + id, null, null));
+        }
+
+        assertEquals(200, productSearchIndex.count("mod"));
+        assertEquals(200, productSearchIndex.search("mod", 0, 10, true).getTotalHits());
+        assertEquals(List.of(298L, 299L), productSearchIndex.searchAfter("mod", 297L, 10));
+    }
+
+    @Test
+    void searchPagesTheHitsTest() {
+        ProductSearchHits hits = productSearchIndex.search("re", 1, 1, false);
+
+        assertEquals(List.of(2L), hits.getProductIds());
+        assertEquals(3, hits.getTotalHits());
+        assertEquals(List.of(), productSearchIndex.search("re", 3, 1, false).getProductIds());
+    }
+
+    @Test
+    void searchWithoutTermsMatchesNothingTest() {
+        assertEquals(0, productSearchIndex.search("  ", 0, 10, true).getTotalHits());
+        assertEquals(0, productSearchIndex.search(null, 0, 10, true).getTotalHits());
+    }
+
+    @Test
+    void searchAfterTest() {
+        assertEquals(List.of(2L), productSearchIndex.searchAfter("re", 1L, 1));
+        assertEquals(List.of(2L, 4L), productSearchIndex.searchAfter("re", 1L, 10));
+        assertEquals(List.of(), productSearchIndex.searchAfter("re", 4L, 10));
+    }
+
+    @Test
+    void countTest() {
+        assertEquals(2, productSearchIndex.count("chair"));
+        assertEquals(0, productSearchIndex.count("sofa"));
+    }
+
+    @Test
+    void indexReplacesThePreviousTermsTest() {
+        productSearchIndex.index(document(1L, "Green Sofa", null, "Furniture"));
+
+        assertEquals(List.of(2L), ids("red chair", false));
+        assertEquals(List.of(1L), ids("sofa", false));
+        assertEquals(4, productSearchIndex.size());
+    }
+
+    @Test
+    void removeTest() {
+        productSearchIndex.remove(3L);
+        productSearchIndex.remove(42L);
+
+        assertTrue(ids("mug", false).isEmpty());
+        assertEquals(3, productSearchIndex.size());
+    }
+
+    private List<Long> ids(String query, boolean rankByRelevance) {
+        return productSearchIndex.search(query, 0, 10, rankByRelevance).getProductIds();
+    }
+
+    static ProductSearchDocument document(Long id, String name, String description, String categoryName) {
+        return new ProductSearchDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public String getCategoryName() {
+                return categoryName;
+            }
+        };
+    }
+}
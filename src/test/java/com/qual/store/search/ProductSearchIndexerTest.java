@@ -0,0 +1,117 @@
+package com.qual.store.search;
+
+import com.qual.store.cache.CategoryChangedEvent;
+import com.qual.store.cache.ProductChangedEvent;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.projection.ProductSearchDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.qual.store.search.ProductSearchIndexTest.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex productSearchIndex;
+    private ProductSearchIndexer productSearchIndexer;
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        productSearchIndex = new ProductSearchIndex();
+        productSearchIndexer = new ProductSearchIndexer(productRepository, productSearchIndex);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void rebuildIndexTest() {
+        // given
+        List<ProductSearchDocument> firstBatch = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            firstBatch.add(document(id, "Chair " + id, null, "Furniture"));
+        }
+        productSearchIndex.index(document(5000L, "Stale", null, null));
+
+        // when
+        when(productRepository.findSearchDocumentsAfter(0L, PageRequest.of(0, 1000))).thenReturn(firstBatch);
+        when(productRepository.findSearchDocumentsAfter(1000L, PageRequest.of(0, 1000)))
+                .thenReturn(List.of(document(1001L, "Table", null, "Furniture")));
+        productSearchIndexer.rebuildIndex();
+
+        // then
+        assertEquals(1001, productSearchIndex.size());
+        assertEquals(1001, productSearchIndex.count("furniture"));
+        assertEquals(0, productSearchIndex.count("stale"));
+        verify(productRepository, times(2)).findSearchDocumentsAfter(anyLong(), any());
+    }
+
+    @Test
+    void onProductChangedReindexesTheProductTest() {
+        // given
+        productSearchIndex.index(document(1L, "Chair", null, null));
+
+        // when
+        when(productRepository.findSearchDocumentsByIds(List.of(1L)))
+                .thenReturn(List.of(document(1L, "Armchair", null, null)));
+        productSearchIndexer.onProductChanged(new ProductChangedEvent(1L));
+
+        // then
+        assertEquals(0, productSearchIndex.count("chair"));
+        assertEquals(1, productSearchIndex.count("armchair"));
+    }
+
+    @Test
+    void onProductChangedRemovesADeletedProductTest() {
+        // given
+        productSearchIndex.index(document(1L, "Chair", null, null));
+
+        // when
+        when(productRepository.findSearchDocumentsByIds(List.of(1L))).thenReturn(List.of());
+        productSearchIndexer.onProductChanged(new ProductChangedEvent(1L, 2L));
+
+        // then
+        assertEquals(0, productSearchIndex.size());
+    }
+
+    @Test
+    void onCategoryChangedReindexesItsProductsTest() {
+        // given
+        productSearchIndex.index(document(1L, "Chair", null, "Furniture"));
+        productSearchIndex.index(document(2L, "Table", null, "Furniture"));
+
+        // when
+        when(productRepository.findSearchDocumentsByIds(List.of(1L, 2L))).thenReturn(List.of(
+                document(1L, "Chair", null, "Home"),
+                document(2L, "Table", null, "Home")));
+        productSearchIndexer.onCategoryChanged(new CategoryChangedEvent(3L, List.of(1L, 2L)));
+
+        // then
+        assertEquals(0, productSearchIndex.count("furniture"));
+        assertEquals(2, productSearchIndex.count("home"));
+    }
+
+    @Test
+    void onCategoryChangedWithoutProductsTest() {
+        // when
+        productSearchIndexer.onCategoryChanged(new CategoryChangedEvent(3L));
+
+        // then
+        verifyNoInteractions(productRepository);
+    }
+}
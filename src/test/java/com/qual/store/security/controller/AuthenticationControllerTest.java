@@ -1,5 +1,6 @@
 package com.qual.store.security.controller;
 
+import com.qual.store.exceptions.PasswordHashingBusyException;
 import com.qual.store.model.AppUser;
 import com.qual.store.model.enums.RoleName;
 import com.qual.store.repository.AppUserRepository;
@@ -16,6 +17,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -24,6 +26,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +46,9 @@ class AuthenticationControllerTest {
     @Mock
     private JwtTokenUtil jwtTokenUtil;
 
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
     @InjectMocks
     private AuthenticationController authenticationController;
 
@@ -149,6 +155,27 @@ class AuthenticationControllerTest {
         verify(authenticationManager, times(1)).authenticate(any());
     }
 
+    @Test
+    public void loginUserPasswordHashingBusyTest() throws Exception {
+        // given
+        String username = "testuser";
+        String password = "testpassword";
+
+        // when
+        when(authenticationManager.authenticate(any()))
+                .thenThrow(new PasswordHashingBusyException("Too many password checks in progress, try again later"));
+
+        // then
+        mockMvc.perform(post("/auth/login")
+                        .param("username", username)
+                        .param("password", password))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value(true));
+
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
     @Test
     public void loginUserThrowsExceptionTest() throws Exception {
         String username = "testuser";
@@ -185,6 +212,7 @@ class AuthenticationControllerTest {
         user.setUsername(username);
 
         UserDetails userDetails = mock(UserDetails.class);
+        when(passwordEncoder.encode(password)).thenReturn(password);
         when(userDetailsService.createUserDetails(username, password, RoleName.ADMIN)).thenReturn(userDetails);
         when(jwtTokenUtil.generateToken(any())).thenReturn(token);
 
@@ -202,6 +230,7 @@ class AuthenticationControllerTest {
                 .andExpect(jsonPath("$.token").value(token))
                 .andReturn();
 
+        verify(passwordEncoder, times(1)).encode(password);
         verify(userRepository, times(1)).save(any(AppUser.class));
         verify(userDetailsService, times(1))
                 .createUserDetails(eq(username), anyString(), any(RoleName.class));
@@ -225,6 +254,7 @@ class AuthenticationControllerTest {
         user.setUsername(username);
 
         UserDetails userDetails = mock(UserDetails.class);
+        when(passwordEncoder.encode(password)).thenReturn(password);
         when(userDetailsService.createUserDetails(username, password, RoleName.ADMIN)).thenReturn(userDetails);
         when(jwtTokenUtil.generateToken(any())).thenReturn(token);
 
@@ -242,6 +272,7 @@ class AuthenticationControllerTest {
                 .andExpect(jsonPath("$.token").value(token))
                 .andReturn();
 
+        verify(passwordEncoder, times(1)).encode(password);
         verify(userRepository, times(1)).save(any(AppUser.class));
         verify(userDetailsService, times(1))
                 .createUserDetails(eq(username), anyString(), any(RoleName.class));
@@ -1,12 +1,11 @@
 package com.qual.store.security.service;
 
-import com.qual.store.model.AppUser;
 import com.qual.store.model.enums.RoleName;
 import com.qual.store.repository.AppUserRepository;
+import com.qual.store.repository.projection.AppUserCredentials;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,8 +13,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static com.qual.store.model.enums.RoleName.ADMIN;
 import static com.qual.store.model.enums.RoleName.USER;
@@ -27,7 +28,6 @@ class JwtUserDetailsServiceTest {
     @Mock
     private AppUserRepository userRepository;
 
-    @InjectMocks
     private JwtUserDetailsService jwtUserDetailsService;
 
     private AutoCloseable closeable;
@@ -35,6 +35,7 @@ class JwtUserDetailsServiceTest {
     @BeforeEach
     public void init() {
         closeable = MockitoAnnotations.openMocks(this);
+        jwtUserDetailsService = new JwtUserDetailsService(userRepository, Duration.ofMinutes(1));
     }
 
     @Test
@@ -43,17 +44,14 @@ class JwtUserDetailsServiceTest {
         String username = "testuser";
         String password = "testpassword";
 
-        AppUser user = new AppUser();
-        user.setUsername(username);
-        user.setPassword(password);
-        user.setRole(USER);
+        AppUserCredentials user = credentials(username, password, USER);
 
         // when
-        when(userRepository.findUserByUsername(username)).thenReturn(user);
+        when(userRepository.findCredentialsByUsername(username)).thenReturn(Optional.of(user));
         UserDetails userDetails = jwtUserDetailsService.loadUserByUsername(username);
 
         // then
-        verify(userRepository, times(1)).findUserByUsername(username);
+        verify(userRepository, times(1)).findCredentialsByUsername(username);
         assertEquals(username, userDetails.getUsername());
         assertEquals(password, userDetails.getPassword());
 
@@ -62,6 +60,71 @@ class JwtUserDetailsServiceTest {
         assertEquals(USER.name(), authorities.get(0).getAuthority());
     }
 
+    @Test
+    public void loadUserByUsernameNotFoundTest() {
+        // given
+        when(userRepository.findCredentialsByUsername("missing")).thenReturn(Optional.empty());
+
+        // when + then
+        assertThrows(UsernameNotFoundException.class, () -> jwtUserDetailsService.loadUserByUsername("missing"));
+    }
+
+    @Test
+    public void loadPrincipalTest() {
+        // given
+        String username = "testadmin";
+        AppUserCredentials user = credentials(username, "testpassword", ADMIN);
+        when(userRepository.findCredentialsByUsername(username)).thenReturn(Optional.of(user));
+
+        // when
+        UserDetails userDetails = jwtUserDetailsService.loadPrincipal(username);
+
+        // then
+        assertEquals(username, userDetails.getUsername());
+        assertEquals("", userDetails.getPassword());
+        assertEquals(ADMIN.name(), userDetails.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    public void loadPrincipalNotFoundIsRememberedTest() {
+        // given
+        when(userRepository.findCredentialsByUsername("deleted")).thenReturn(Optional.empty());
+
+        // when + then
+        assertThrows(UsernameNotFoundException.class, () -> jwtUserDetailsService.loadPrincipal("deleted"));
+        assertThrows(UsernameNotFoundException.class, () -> jwtUserDetailsService.loadPrincipal("deleted"));
+        verify(userRepository, times(1)).findCredentialsByUsername("deleted");
+    }
+
+    @Test
+    public void loadPrincipalAfterLoginOfMissingUserTest() {
+        // given
+        AppUserCredentials user = credentials("returning", "testpassword", USER);
+        when(userRepository.findCredentialsByUsername("returning"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(user));
+        assertThrows(UsernameNotFoundException.class, () -> jwtUserDetailsService.loadPrincipal("returning"));
+
+        // when
+        jwtUserDetailsService.loadUserByUsername("returning");
+        UserDetails userDetails = jwtUserDetailsService.loadPrincipal("returning");
+
+        // then
+        assertEquals("returning", userDetails.getUsername());
+    }
+
+    @Test
+    public void loadPrincipalNotFoundWithoutMissingPrincipalsTest() {
+        // given
+        jwtUserDetailsService = new JwtUserDetailsService(userRepository, Duration.ZERO);
+        when(userRepository.findCredentialsByUsername("deleted")).thenReturn(Optional.empty());
+
+        // when + then
+        assertThrows(UsernameNotFoundException.class, () -> jwtUserDetailsService.loadPrincipal("deleted"));
+        assertThrows(UsernameNotFoundException.class, () -> jwtUserDetailsService.loadPrincipal("deleted"));
+        verify(userRepository, times(2)).findCredentialsByUsername("deleted");
+    }
+
     @Test
     public void createUserDetailsTest() {
         String username = "testuser";
@@ -78,6 +141,14 @@ class JwtUserDetailsServiceTest {
         assertEquals(role.name(), authorities.get(0).getAuthority());
     }
 
+    private static AppUserCredentials credentials(String username, String password, RoleName role) {
+        AppUserCredentials credentials = mock(AppUserCredentials.class);
+        when(credentials.getUsername()).thenReturn(username);
+        when(credentials.getPassword()).thenReturn(password);
+        when(credentials.getRole()).thenReturn(role);
+        return credentials;
+    }
+
     @AfterEach
     public void closeService() throws Exception {
         closeable.close();
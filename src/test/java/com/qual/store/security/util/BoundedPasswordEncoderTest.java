@@ -0,0 +1,95 @@
+package com.qual.store.security.util;
+
+import com.qual.store.dto.PasswordHashingStatisticsDto;
+import com.qual.store.exceptions.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder boundedPasswordEncoder;
+    private final ExecutorService requests = Executors.newCachedThreadPool();
+
+    @Test
+    public void encodeAndMatchesTest() {
+        // given
+        boundedPasswordEncoder = new BoundedPasswordEncoder(4, 1, 1);
+
+        // when
+        String encoded = boundedPasswordEncoder.encode("secret");
+
+        // then
+        assertTrue(boundedPasswordEncoder.matches("secret", encoded));
+        assertFalse(boundedPasswordEncoder.matches("other", encoded));
+
+        PasswordHashingStatisticsDto statistics = boundedPasswordEncoder.getStatistics();
+        assertEquals(3, statistics.getHashCount());
+        assertEquals(0, statistics.getRejectedCount());
+        assertTrue(statistics.getMaxHashMillis() > 0);
+    }
+
+    @Test
+    public void rejectsBeyondQueueCapacityTest() throws Exception {
+        // given
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        boundedPasswordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(hashing, release), 1, 1);
+
+        // when
+        Future<String> running = requests.submit(() -> boundedPasswordEncoder.encode("first"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        Future<String> queued = requests.submit(() -> boundedPasswordEncoder.encode("second"));
+        while (boundedPasswordEncoder.getStatistics().getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // then
+        assertThrows(PasswordHashingBusyException.class, () -> boundedPasswordEncoder.encode("third"));
+        assertEquals(1, boundedPasswordEncoder.getStatistics().getRejectedCount());
+
+        release.countDown();
+        assertEquals("first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    public void shutdown() {
+        requests.shutdownNow();
+        boundedPasswordEncoder.shutdown();
+    }
+
+    private static class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch hashing;
+        private final CountDownLatch release;
+
+        BlockingPasswordEncoder(CountDownLatch hashing, CountDownLatch release) {
+            this.hashing = hashing;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hashing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.qual.store.security.util;
+
+import com.qual.store.security.service.JwtUserDetailsService;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.qual.store.model.enums.RoleName.ADMIN;
+import static com.qual.store.model.enums.RoleName.USER;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtRequestFilterTest {
+
+    @Mock
+    private JwtUserDetailsService jwtUserDetailsService;
+
+    private final JwtSigningKeys signingKeys = new JwtSigningKeys("", "", "");
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    private JwtRequestFilter jwtRequestFilter;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void init() {
+        closeable = MockitoAnnotations.openMocks(this);
+        jwtTokenUtil = new JwtTokenUtil(signingKeys, 100);
+        jwtRequestFilter = new JwtRequestFilter(jwtUserDetailsService, jwtTokenUtil);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void roleClaimAuthenticatesWithCachedPrincipalTest() throws Exception {
+        // given
+        String token = jwtTokenUtil.generateToken(
+                new User("admin", "password", List.of(new SimpleGrantedAuthority(ADMIN.name()))));
+        when(jwtUserDetailsService.loadPrincipal("admin"))
+                .thenReturn(new User("admin", "", List.of(new SimpleGrantedAuthority(ADMIN.name()))));
+
+        // when
+        filter(token);
+
+        // then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("admin", ((UserDetails) authentication.getPrincipal()).getUsername());
+        assertEquals(ADMIN.name(), authentication.getAuthorities().iterator().next().getAuthority());
+        verify(jwtUserDetailsService, times(1)).loadPrincipal("admin");
+    }
+
+    @Test
+    public void changedRoleIsNotAuthenticatedTest() throws Exception {
+        // given
+        String token = jwtTokenUtil.generateToken(
+                new User("admin", "password", List.of(new SimpleGrantedAuthority(ADMIN.name()))));
+        when(jwtUserDetailsService.loadPrincipal("admin"))
+                .thenReturn(new User("admin", "", List.of(new SimpleGrantedAuthority(USER.name()))));
+
+        // when
+        filter(token);
+
+        // then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void deletedUserIsNotAuthenticatedTest() throws Exception {
+        // given
+        String token = jwtTokenUtil.generateToken(
+                new User("user", "password", List.of(new SimpleGrantedAuthority(USER.name()))));
+        when(jwtUserDetailsService.loadPrincipal("user")).thenThrow(new UsernameNotFoundException("No user"));
+
+        // when
+        filter(token);
+
+        // then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void tokenWithoutRoleClaimLoadsPrincipalTest() throws Exception {
+        // given
+        String token = Jwts.builder()
+                .setSubject("user")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(signingKeys.getSigningKey())
+                .compact();
+        when(jwtUserDetailsService.loadPrincipal("user"))
+                .thenReturn(new User("user", "", List.of(new SimpleGrantedAuthority(USER.name()))));
+
+        // when
+        filter(token);
+
+        // then
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(USER.name(), authentication.getAuthorities().iterator().next().getAuthority());
+        verify(jwtUserDetailsService, times(1)).loadPrincipal("user");
+    }
+
+    @Test
+    public void tamperedTokenIsNotAuthenticatedTest() throws Exception {
+        // given
+        String token = jwtTokenUtil.generateToken(
+                new User("user", "password", List.of(new SimpleGrantedAuthority(USER.name()))));
+        String[] parts = token.split("\\.");
+        String forged = Jwts.builder()
+                .setSubject("user")
+                .claim(JwtTokenUtil.ROLE_CLAIM, ADMIN.name())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(new JwtSigningKeys("", "", "").getSigningKey())
+                .compact()
+                .split("\\.")[1];
+
+        // when
+        filter(parts[0] + "." + forged + "." + parts[2]);
+
+        // then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(jwtUserDetailsService);
+    }
+
+    private void filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    @AfterEach
+    public void closeService() throws Exception {
+        SecurityContextHolder.clearContext();
+        closeable.close();
+    }
+}
@@ -0,0 +1,167 @@
+package com.qual.store.security.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.WeakKeyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static com.qual.store.model.enums.RoleName.ADMIN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenUtilTest {
+
+    private static final String KEY_1 = "key-1:" + secret(1);
+    private static final String KEY_2 = "key-2:" + secret(2);
+
+    private final JwtSigningKeys signingKeys = new JwtSigningKeys("", "", "");
+
+    private final UserDetails admin = new User("admin", "password",
+            List.of(new SimpleGrantedAuthority(ADMIN.name())));
+
+    @Test
+    public void parseTokenReadsClaimsTest() {
+        // given
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(signingKeys, 100);
+        String token = jwtTokenUtil.generateToken(admin);
+
+        // when
+        VerifiedToken verifiedToken = jwtTokenUtil.parseToken(token);
+
+        // then
+        assertEquals("admin", verifiedToken.getUsername());
+        assertFalse(verifiedToken.isExpired());
+        assertEquals(ADMIN.name(), verifiedToken.getPrincipal().orElseThrow()
+                .getAuthorities().iterator().next().getAuthority());
+        assertTrue(jwtTokenUtil.validateToken(verifiedToken, admin));
+    }
+
+    @Test
+    public void parseTokenVerifiesOnceTest() {
+        // given
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(signingKeys, 100);
+        String token = jwtTokenUtil.generateToken(admin);
+
+        // when
+        VerifiedToken first = jwtTokenUtil.parseToken(token);
+        VerifiedToken second = jwtTokenUtil.parseToken(token);
+
+        // then
+        assertSame(first, second);
+    }
+
+    @Test
+    public void parseTokenWithoutCacheVerifiesEveryTimeTest() {
+        // given
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(signingKeys, 0);
+        String token = jwtTokenUtil.generateToken(admin);
+
+        // when
+        VerifiedToken first = jwtTokenUtil.parseToken(token);
+        VerifiedToken second = jwtTokenUtil.parseToken(token);
+
+        // then
+        assertNotSame(first, second);
+        assertEquals(first.getUsername(), second.getUsername());
+    }
+
+    @Test
+    public void parseExpiredTokenTest() {
+        // given
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(signingKeys, 100);
+        String token = Jwts.builder()
+                .setSubject("admin")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(signingKeys.getSigningKey())
+                .compact();
+
+        // when + then
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenUtil.parseToken(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenUtil.parseToken(token));
+    }
+
+    @Test
+    public void parseTokenWithoutExpirationTest() {
+        // given
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil(signingKeys, 100);
+        String token = Jwts.builder()
+                .setSubject("admin")
+                .signWith(signingKeys.getSigningKey())
+                .compact();
+
+        // when + then
+        assertThrows(IllegalArgumentException.class, () -> jwtTokenUtil.parseToken(token));
+    }
+
+    @Test
+    public void tokenOfAnotherInstanceTest() {
+        // given
+        JwtTokenUtil issuer = new JwtTokenUtil(new JwtSigningKeys(KEY_1, "", ""), 100);
+        JwtTokenUtil verifier = new JwtTokenUtil(new JwtSigningKeys(KEY_1, "", ""), 100);
+
+        // when
+        VerifiedToken verifiedToken = verifier.parseToken(issuer.generateToken(admin));
+
+        // then
+        assertEquals("admin", verifiedToken.getUsername());
+    }
+
+    @Test
+    public void rotatedKeyTest() {
+        // given
+        String tokenOfKey1 = new JwtTokenUtil(new JwtSigningKeys(KEY_1, "", ""), 100).generateToken(admin);
+        JwtTokenUtil rotated = new JwtTokenUtil(new JwtSigningKeys(KEY_1 + "," + KEY_2, "", "key-2"), 100);
+        JwtTokenUtil withoutKey1 = new JwtTokenUtil(new JwtSigningKeys(KEY_2, "", ""), 100);
+
+        // when
+        String tokenOfKey2 = rotated.generateToken(admin);
+
+        // then
+        assertEquals("admin", rotated.parseToken(tokenOfKey1).getUsername());
+        assertEquals("admin", withoutKey1.parseToken(tokenOfKey2).getUsername());
+        assertThrows(UnsupportedJwtException.class, () -> withoutKey1.parseToken(tokenOfKey1));
+    }
+
+    @Test
+    public void keysFileTest() throws IOException {
+        // given
+        Path keysFile = Files.createTempFile("jwt-keys", ".properties");
+        try {
+            Files.writeString(keysFile, KEY_2.replace(':', '=') + System.lineSeparator());
+
+            // when
+            JwtSigningKeys keys = new JwtSigningKeys(KEY_1, keysFile.toString(), "key-2");
+
+            // then
+            assertEquals("key-2", keys.getSigningKeyId());
+            assertNotNull(keys.getKey("key-1"));
+        } finally {
+            Files.delete(keysFile);
+        }
+    }
+
+    @Test
+    public void invalidKeysTest() {
+        assertThrows(IllegalStateException.class, () -> new JwtSigningKeys(KEY_1 + "," + KEY_2, "", ""));
+        assertThrows(IllegalStateException.class, () -> new JwtSigningKeys(KEY_1, "", "key-2"));
+        assertThrows(WeakKeyException.class,
+                () -> new JwtSigningKeys("short:" + Base64.getEncoder().encodeToString(new byte[16]), "", ""));
+    }
+
+    private static String secret(int seed) {
+        byte[] secret = new byte[32];
+        new Random(seed).nextBytes(secret);
+        return Base64.getEncoder().encodeToString(secret);
+    }
+}
@@ -0,0 +1,91 @@
+package com.qual.store.security.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static com.qual.store.security.util.RateLimiterTest.group;
+import static com.qual.store.security.util.RateLimiterTest.limit;
+import static com.qual.store.security.util.RateLimiterTest.properties;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private RateLimiter rateLimiter;
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    public void init() {
+        rateLimiter = new RateLimiter(properties(group(List.of("/api/orders"), Set.of("GET"),
+                limit(1, Duration.ofMinutes(1)), limit(2, Duration.ofMinutes(1)), null)));
+        rateLimitFilter = new RateLimitFilter(rateLimiter);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void tooManyRequestsTest() throws Exception {
+        // given
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        // when
+        MockHttpServletResponse first = filter("/api/orders");
+        MockHttpServletResponse second = filter("/api/orders");
+
+        // then
+        assertEquals(200, first.getStatus());
+        assertEquals(429, second.getStatus());
+        assertEquals("60", second.getHeader("Retry-After"));
+        assertTrue(second.getContentAsString().contains("Too many requests"));
+    }
+
+    @Test
+    public void anonymousRequestsLimitedPerIpTest() throws Exception {
+        // when
+        MockHttpServletResponse first = filter("/api/orders");
+        MockHttpServletResponse second = filter("/api/orders");
+        MockHttpServletResponse third = filter("/api/orders");
+
+        // then
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals(200, filter("/api/products").getStatus());
+    }
+
+    @Test
+    public void encodedPathsLimitedAsTheirRouteTest() throws Exception {
+        // when
+        MockHttpServletResponse first = filter("/api/%6frders");
+        MockHttpServletResponse second = filter("/api//orders;jsessionid=1");
+        MockHttpServletResponse third = filter("/api/orders");
+
+        // then
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+    }
+
+    private MockHttpServletResponse filter(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @AfterEach
+    public void shutdown() {
+        SecurityContextHolder.clearContext();
+        rateLimiter.shutdown();
+    }
+}
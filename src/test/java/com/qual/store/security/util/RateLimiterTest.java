@@ -0,0 +1,166 @@
+package com.qual.store.security.util;
+
+import com.qual.store.security.config.RateLimitProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private RateLimiter rateLimiter;
+
+    @Test
+    public void burstThenRefillTest() {
+        // given
+        rateLimiter = new RateLimiter(properties(group(List.of("/auth/login"), Set.of("POST"),
+                null, limit(3, Duration.ofSeconds(3)), null)));
+        long now = System.nanoTime();
+
+        // when + then
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.1", now));
+        }
+        long wait = rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.1", now);
+        assertTrue(wait > 0 && wait <= SECOND);
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.2", now));
+
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.1", now + SECOND));
+        assertTrue(rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.1", now + SECOND) > 0);
+    }
+
+    @Test
+    public void unmatchedRequestsTest() {
+        // given
+        rateLimiter = new RateLimiter(properties(group(List.of("/api/images/**"), Set.of("get"),
+                null, null, limit(1, Duration.ofMinutes(1)))));
+        long now = System.nanoTime();
+
+        // when + then
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/images/content/abc", null, "10.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("GET", "/api/images", null, "10.0.0.2", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/api/images/content/abc", null, "10.0.0.1", now));
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/imagesx", null, "10.0.0.1", now));
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/products", null, "10.0.0.1", now));
+    }
+
+    @Test
+    public void perUserTest() {
+        // given
+        rateLimiter = new RateLimiter(properties(group(List.of("/api/orders"), Set.of(),
+                limit(1, Duration.ofMinutes(1)), null, null)));
+        long now = System.nanoTime();
+
+        // when + then
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", "alice", "10.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("GET", "/api/orders", "alice", "10.0.0.2", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", "bob", "10.0.0.1", now));
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", null, "10.0.0.1", now));
+    }
+
+    @Test
+    public void rejectedRequestKeepsTokensTest() {
+        // given
+        rateLimiter = new RateLimiter(properties(group(List.of("/api/orders"), Set.of(),
+                limit(1, Duration.ofMinutes(1)), limit(1, Duration.ofMinutes(1)), null)));
+        long now = System.nanoTime();
+
+        // when + then
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", "alice", "10.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("GET", "/api/orders", "alice", "10.0.0.2", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", "bob", "10.0.0.2", now));
+    }
+
+    @Test
+    public void rejectedRequestKeepsTokensOfOtherGroupsTest() {
+        // given
+        RateLimitProperties properties = properties(group(List.of("/api/orders"), Set.of(),
+                null, limit(1, Duration.ofMinutes(1)), null));
+        properties.getGroups().put("users", group(List.of("/api/orders/**"), Set.of(),
+                limit(1, Duration.ofMinutes(1)), null, null));
+        rateLimiter = new RateLimiter(properties);
+        long now = System.nanoTime();
+
+        // when + then
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", "alice", "10.0.0.1", now));
+        assertTrue(rateLimiter.tryAcquire("GET", "/api/orders", "alice", "10.0.0.2", now) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("GET", "/api/orders", "bob", "10.0.0.2", now));
+    }
+
+    @Test
+    public void sweepIdleBucketsTest() {
+        // given
+        rateLimiter = new RateLimiter(properties(group(List.of("/auth/login"), Set.of(),
+                limit(1, Duration.ofSeconds(1)), limit(1, Duration.ofSeconds(1)), null)));
+        long now = System.nanoTime();
+        rateLimiter.tryAcquire("POST", "/auth/login", "alice", "10.0.0.1", now);
+
+        // when
+        rateLimiter.sweep(now + 30 * SECOND);
+        int recent = rateLimiter.bucketCount();
+        rateLimiter.sweep(now + 700 * SECOND);
+
+        // then
+        assertEquals(2, recent);
+        assertEquals(0, rateLimiter.bucketCount());
+    }
+
+    @Test
+    public void invalidGroupsTest() {
+        assertThrows(IllegalStateException.class, () -> new RateLimiter(properties(group(
+                List.of("/api/products/{productId}"), Set.of(), null, limit(1, Duration.ofSeconds(1)), null))));
+        assertThrows(IllegalStateException.class, () -> new RateLimiter(properties(group(
+                List.of("/api/products"), Set.of(), null, limit(0, Duration.ofSeconds(1)), null))));
+    }
+
+    @Test
+    public void disabledTest() {
+        // given
+        RateLimitProperties properties = properties(group(List.of("/auth/login"), Set.of(),
+                null, limit(1, Duration.ofMinutes(1)), null));
+        properties.setEnabled(false);
+        rateLimiter = new RateLimiter(properties);
+
+        // when + then
+        assertFalse(rateLimiter.isEnabled());
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire("POST", "/auth/login", null, "10.0.0.1"));
+    }
+
+    @AfterEach
+    public void shutdown() {
+        if (rateLimiter != null) {
+            rateLimiter.shutdown();
+        }
+    }
+
+    static RateLimitProperties properties(RateLimitProperties.Group group) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getGroups().put("test", group);
+        return properties;
+    }
+
+    static RateLimitProperties.Group group(List<String> paths, Set<String> methods, RateLimitProperties.Limit perUser,
+                                           RateLimitProperties.Limit perIp, RateLimitProperties.Limit perRoute) {
+        RateLimitProperties.Group group = new RateLimitProperties.Group();
+        group.setPaths(paths);
+        group.setMethods(methods);
+        group.setPerUser(perUser);
+        group.setPerIp(perIp);
+        group.setPerRoute(perRoute);
+        return group;
+    }
+
+    static RateLimitProperties.Limit limit(long capacity, Duration period) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -27,6 +28,9 @@ class AppUserImplTest {
     @Mock
     private AppUserRepository appUserRepository;
 
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
     @InjectMocks
     private AppUserImpl appUserImpl;
 
@@ -101,10 +105,12 @@ class AppUserImplTest {
 
         when(appUserRepository.findUserByUsername(username)).thenReturn(userToUpdate);
         when(appUserRepository.save(userToUpdate)).thenReturn(userToUpdate);
+        when(passwordEncoder.encode(password)).thenReturn("encoded");
 
         AppUser result = appUserImpl.updateUserByUsername(username, password);
 
         assertEquals(userToUpdate, result);
+        assertEquals("encoded", result.getPassword());
         verify(appUserRepository, times(1)).findUserByUsername(username);
         verify(appUserRepository, times(1)).save(userToUpdate);
     }
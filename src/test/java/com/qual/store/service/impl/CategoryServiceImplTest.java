@@ -1,5 +1,8 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.CategoryChangedEvent;
+import com.qual.store.converter.CategoryConverter;
+import com.qual.store.dto.CategoryDto;
 import com.qual.store.exceptions.CategoryNotFoundException;
 import com.qual.store.exceptions.ValidatorException;
 import com.qual.store.model.Category;
@@ -12,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,6 +33,12 @@ class CategoryServiceImplTest {
     @Mock
     private Validator<Category> validator;
 
+    @Mock
+    private CategoryConverter categoryConverter;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -58,6 +68,28 @@ class CategoryServiceImplTest {
         verify(categoryRepository, times(1)).findAllWithProducts();
     }
 
+    @Test
+    public void getAllCategoryDtosTest() {
+        // given
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Test Category");
+
+        CategoryDto categoryDto = new CategoryDto();
+        categoryDto.setId(1L);
+        categoryDto.setName("Test Category");
+
+        // when
+        when(categoryRepository.findAllWithProducts()).thenReturn(List.of(category));
+        when(categoryConverter.convertModelToDto(category)).thenReturn(categoryDto);
+        List<CategoryDto> actualResult = categoryService.getAllCategoryDtos();
+
+        // then
+        assertEquals(List.of(categoryDto), actualResult);
+        verify(categoryRepository, times(1)).findAllWithProducts();
+        verify(categoryConverter, times(1)).convertModelToDto(category);
+    }
+
     @Test
     public void saveCategoryTest() {
         // given
@@ -80,6 +112,7 @@ class CategoryServiceImplTest {
         verify(validator, times(1)).validate(category);
         verify(categoryRepository, times(1)).save(category);
         verify(categoryRepository, times(1)).findAllWithProducts();
+        verify(applicationEventPublisher, times(1)).publishEvent(any(CategoryChangedEvent.class));
     }
 
     @Test
@@ -163,6 +196,7 @@ class CategoryServiceImplTest {
         verify(validator, times(1)).validate(expectedResult);
         verify(categoryRepository, times(1)).findById(categoryId);
         verify(categoryRepository, times(1)).findAllWithProducts();
+        verify(applicationEventPublisher, times(1)).publishEvent(any(CategoryChangedEvent.class));
     }
 
     @Test
@@ -247,12 +281,13 @@ class CategoryServiceImplTest {
         category.setName("Test Category");
 
         // when
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(categoryRepository.findCategoryWithProducts(categoryId)).thenReturn(Optional.of(category));
         categoryService.deleteCategoryById(categoryId);
 
         // then
-        verify(categoryRepository, times(1)).findById(categoryId);
+        verify(categoryRepository, times(1)).findCategoryWithProducts(categoryId);
         verify(categoryRepository, times(1)).deleteById(categoryId);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(CategoryChangedEvent.class));
     }
 
     @Test
@@ -261,13 +296,14 @@ class CategoryServiceImplTest {
         Long categoryId = 1L;
 
         // when
-        when(categoryRepository.findById(categoryId)).thenReturn(Optional.empty());
+        when(categoryRepository.findCategoryWithProducts(categoryId)).thenReturn(Optional.empty());
 
         // then
         assertThrows(CategoryNotFoundException.class,
                 () -> categoryService.deleteCategoryById(categoryId));
-        verify(categoryRepository, times(1)).findById(categoryId);
+        verify(categoryRepository, times(1)).findCategoryWithProducts(categoryId);
         verify(categoryRepository, never()).deleteById(anyLong());
+        verify(applicationEventPublisher, never()).publishEvent(any(CategoryChangedEvent.class));
     }
 
     @AfterEach
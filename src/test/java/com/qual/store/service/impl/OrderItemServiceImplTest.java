@@ -1,9 +1,11 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.OrderItemConverter;
 import com.qual.store.dto.OrderItemDto;
 import com.qual.store.exceptions.OrderItemNotFoundException;
 import com.qual.store.exceptions.ProductNotFoundException;
+import com.qual.store.metrics.StoreMetrics;
 import com.qual.store.model.Category;
 import com.qual.store.model.Order;
 import com.qual.store.model.OrderItem;
@@ -17,6 +19,7 @@ import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -39,6 +42,12 @@ public class OrderItemServiceImplTest {
     @Mock
     private Validator<OrderItem> validator;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private StoreMetrics storeMetrics;
+
     @InjectMocks
     private OrderItemServiceImpl orderItemService;
 
@@ -90,6 +99,8 @@ public class OrderItemServiceImplTest {
         assertEquals(orderItem, actualResult);
         verify(validator, times(1)).validate(orderItem);
         verify(orderItemRepository, times(1)).save(orderItem);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        verify(storeMetrics, times(1)).basketItemAdded();
     }
 
     @Test
@@ -186,6 +197,7 @@ public class OrderItemServiceImplTest {
         verify(orderRepository, times(1)).findById(order.getId());
         verify(productRepository, times(1)).save(any(Product.class));
         verify(orderItemRepository, times(1)).deleteById(orderItem.getId());
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -258,6 +270,7 @@ public class OrderItemServiceImplTest {
         // then
         verify(orderItemRepository, times(1)).findById(orderItemId);
         verify(orderItemRepository, times(1)).save(orderItem);
+        verify(storeMetrics, times(1)).basketItemUpdated();
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.qual.store.service.impl;
 
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.OrderConverter;
 import com.qual.store.dto.OrderDto;
 import com.qual.store.dto.ProductDto;
@@ -10,6 +11,7 @@ import com.qual.store.exceptions.InvalidOrderStatusException;
 import com.qual.store.exceptions.OrderItemNotFoundException;
 import com.qual.store.exceptions.OrderNotFoundException;
 import com.qual.store.exceptions.UpdateOrderStatusException;
+import com.qual.store.metrics.StoreMetrics;
 import com.qual.store.model.AppUser;
 import com.qual.store.model.Order;
 import com.qual.store.model.OrderItem;
@@ -20,7 +22,11 @@ import com.qual.store.repository.AppUserRepository;
 import com.qual.store.repository.OrderItemRepository;
 import com.qual.store.repository.OrderRepository;
 import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.projection.BasketItem;
+import com.qual.store.repository.projection.ProductQuantity;
 import com.qual.store.service.OrderItemService;
+import com.qual.store.service.ProductSalesService;
+import com.qual.store.utils.pagination.KeysetPagination;
 import com.qual.store.utils.validators.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,6 +34,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -61,6 +68,15 @@ public class OrderServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSalesService productSalesService;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Mock
+    private StoreMetrics storeMetrics;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -133,6 +149,8 @@ public class OrderServiceImplTest {
 
         //then
         assertEquals(order, savedOrder);
+        verify(orderRepository, times(1)).findAllWithOrderItemsByUsernameAndStatus(anyString(), eq(OrderStatus.ACTIVE));
+        verify(orderRepository, times(0)).findAllWithOrderItemsAndProducts();
         verify(validator, times(1)).validate(order);
         verify(orderRepository, times(1)).save(order);
     }
@@ -188,6 +206,7 @@ public class OrderServiceImplTest {
         // then
         verify(orderRepository, times(1)).findById(order.getId());
         verify(orderItemService, times(1)).deleteOrderItemById(orderItems.get(0).getId());
+        verify(productSalesService, times(1)).removeSales(order);
         verify(orderRepository, times(1)).deleteById(order.getId());
 
     }
@@ -269,7 +288,7 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.findById(orderId)).thenReturn(optionalOrder);
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
         Order actualResult = orderService.updateOrderStatus(orderId, "delivered");
@@ -278,10 +297,52 @@ public class OrderServiceImplTest {
         assertNotNull(actualResult);
         assertEquals(orderId, actualResult.getId());
         assertEquals(OrderStatus.DELIVERED, actualResult.getStatus());
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findWithOrderItemsAndProductsById(orderId);
+        verify(productSalesService, times(1)).updateSales(order, OrderStatus.ACTIVE);
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
     }
 
+    @Test
+    void updateOrderStatusAsAdminPublishesStockChangesTest() {
+        // given
+        Long orderId = 1L;
+        Product product = Product.builder()
+                .unitsInStock(10)
+                .build();
+        product.setId(1L);
+
+        OrderItem orderItem = OrderItem.builder()
+                .quantity(3)
+                .product(product)
+                .build();
+        Order order = Order.builder()
+                .status(OrderStatus.CHECKOUT)
+                .orderItems(new HashSet<>(Set.of(orderItem)))
+                .build();
+        order.setId(orderId);
+
+        AppUser appUser = new AppUser();
+        appUser.setUsername("username");
+        appUser.setRole(RoleName.ADMIN);
+        order.setUser(appUser);
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(appUser, new Object());
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        // when
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.of(order));
+        when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
+        orderService.updateOrderStatus(orderId, "placed");
+
+        // then
+        assertEquals(7, product.getUnitsInStock());
+        verify(productRepository, times(1)).saveAll(List.of(product));
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        verify(storeMetrics, times(1)).orderPlaced();
+    }
+
     @Test
     void updateOrderStatusAsUserTest() {
         // given
@@ -305,7 +366,7 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.findById(orderId)).thenReturn(optionalOrder);
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
         Order actualResult = orderService.updateOrderStatus(orderId, "cHeckOut");
@@ -314,7 +375,8 @@ public class OrderServiceImplTest {
         assertNotNull(actualResult);
         assertEquals(orderId, actualResult.getId());
         assertEquals(OrderStatus.CHECKOUT, actualResult.getStatus());
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findWithOrderItemsAndProductsById(orderId);
+        verify(productSalesService, times(1)).updateSales(order, OrderStatus.ACTIVE);
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
     }
 
@@ -324,13 +386,13 @@ public class OrderServiceImplTest {
         Long orderId = 1L;
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(new ArrayList<>());
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.empty());
 
         // then
         assertThrows(OrderNotFoundException.class,
                 () -> orderService.updateOrderStatus(orderId, "DELIVERED")
         );
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findWithOrderItemsAndProductsById(orderId);
         verify(appUserRepository, times(0)).findUserByUsername(anyString());
     }
 
@@ -357,7 +419,7 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.findById(orderId)).thenReturn(optionalOrder);
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
 
@@ -365,7 +427,7 @@ public class OrderServiceImplTest {
         assertThrows(InvalidOrderStatusException.class,
                 () -> orderService.updateOrderStatus(orderId, "FAKE_STATUS")
         );
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findWithOrderItemsAndProductsById(orderId);
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
     }
 
@@ -392,7 +454,7 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.findById(orderId)).thenReturn(optionalOrder);
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
 
@@ -400,7 +462,7 @@ public class OrderServiceImplTest {
         assertThrows(InvalidOrderStatusException.class,
                 () -> orderService.updateOrderStatus(orderId, "DELIVERED")
         );
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findWithOrderItemsAndProductsById(orderId);
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
     }
 
@@ -427,7 +489,7 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
+        when(orderRepository.findWithOrderItemsAndProductsById(orderId)).thenReturn(Optional.of(order));
         when(orderRepository.findById(orderId)).thenReturn(optionalOrder);
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
 
@@ -435,7 +497,7 @@ public class OrderServiceImplTest {
         assertThrows(UpdateOrderStatusException.class,
                 () -> orderService.updateOrderStatus(orderId, "CHECKOUT")
         );
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findWithOrderItemsAndProductsById(orderId);
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
     }
 
@@ -455,12 +517,6 @@ public class OrderServiceImplTest {
                 .build();
         order.setUser(appUser);
 
-        OrderDto orderDto = new OrderDto();
-        orderDto.setStatus("ACTIVE");
-        orderDto.setDeliveryPrice(200.0);
-        orderDto.setOrderItems(new ArrayList<>());
-        orderDto.setUserId(userId);
-
         List<Order> orders = List.of(order);
 
 
@@ -470,53 +526,35 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(orderService.getAllOrders()).thenReturn(orders);
-        when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
-        when(orderConverter.convertModelToDto(any(Order.class))).thenReturn(orderDto);
-        when(orderConverter.convertDtoToModel(any(OrderDto.class))).thenReturn(order);
+        when(orderRepository.findAllWithOrderItemsAndProductsByUsername(anyString())).thenReturn(orders);
         List<Order> actualResult = orderService.getAllOrdersByUser();
 
         // then
         assertNotNull(actualResult);
         assertEquals(1, actualResult.size());
         assertEquals(order, actualResult.get(0));
-        verify(appUserRepository, times(1)).findUserByUsername(anyString());
-        verify(orderConverter, times(1)).convertModelToDto(any(Order.class));
-        verify(orderConverter, times(1)).convertDtoToModel(any(OrderDto.class));
+        verify(orderRepository, times(1)).findAllWithOrderItemsAndProductsByUsername(anyString());
+        verify(orderRepository, times(0)).findAllWithOrderItemsAndProducts();
+        verifyNoInteractions(orderConverter);
     }
 
     @Test
     void getProductsQuantityTest() {
         // given
-        Product product = Product.builder()
-                .name("product")
-                .price(100.0)
-                .build();
-        product.setId(1L);
-
-        OrderItem orderItem = OrderItem.builder()
-                .quantity(2)
-                .product(product)
-                .build();
-        orderItem.setId(1L);
-
-        Order order = Order.builder()
-                .status(OrderStatus.PLACED)
-                .deliveryPrice(200.0)
-                .orderItems(new HashSet<>())
-                .build();
-        order.setId(1L);
-        order.getOrderItems().add(orderItem);
+        ProductQuantity productQuantity = mock(ProductQuantity.class);
+        when(productQuantity.getProductId()).thenReturn(1L);
+        when(productQuantity.getQuantity()).thenReturn(2L);
 
         // when
-        when(orderService.getAllOrders()).thenReturn(List.of(order));
+        when(orderItemRepository.sumQuantityByOrderStatus(OrderStatus.PLACED)).thenReturn(List.of(productQuantity));
         Map<Long, Integer> actualResult = orderService.getProductsQuantity();
 
         // then
         assertNotNull(actualResult);
         assertEquals(1, actualResult.size());
         assertEquals(2, actualResult.get(1L));
-
+        verify(orderItemRepository, times(1)).sumQuantityByOrderStatus(OrderStatus.PLACED);
+        verify(orderRepository, times(0)).findAllWithOrderItemsAndProducts();
     }
 
     @Test
@@ -526,9 +564,10 @@ public class OrderServiceImplTest {
         int pageSize = 10;
         String sortBy = "id";
         Order order = new Order();
+        order.setId(1L);
         List<Order> orders = List.of(order);
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
-        Page<Order> orderPage = new PageImpl<>(orders, pageable, orders.size());
+        Page<Long> orderIdPage = new PageImpl<>(List.of(1L), pageable, orders.size());
         OrderDto orderDto = new OrderDto();
         PaginatedOrderResponse expectedResponse = PaginatedOrderResponse.builder()
                 .orders(List.of(orderDto))
@@ -537,7 +576,8 @@ public class OrderServiceImplTest {
                 .build();
 
         // when
-        when(orderRepository.findAllWithOrderItems(pageable)).thenReturn(orderPage);
+        when(orderRepository.findOrderIds(pageable)).thenReturn(orderIdPage);
+        when(orderRepository.findAllWithOrderItemsAndProductsByIds(List.of(1L))).thenReturn(orders);
         when(orderConverter.convertModelToDto(any(Order.class))).thenReturn(orderDto);
         PaginatedOrderResponse actualResponse = orderService.getOrders(pageNumber, pageSize, sortBy);
 
@@ -546,11 +586,36 @@ public class OrderServiceImplTest {
         assertEquals(expectedResponse.getNumberOfItems(), actualResponse.getNumberOfItems());
         assertEquals(expectedResponse.getNumberOfPages(), actualResponse.getNumberOfPages());
 
-        verify(orderRepository, times(1)).findAllWithOrderItems(pageable);
+        verify(orderRepository, times(1)).findOrderIds(pageable);
+        verify(orderRepository, times(1)).findAllWithOrderItemsAndProductsByIds(List.of(1L));
         verify(orderConverter, times(1)).convertModelToDto(order);
         verifyNoMoreInteractions(orderRepository);
     }
 
+    @Test
+    public void getOrdersAfterTest() {
+        // given
+        Order first = new Order();
+        first.setId(11L);
+        Order second = new Order();
+        second.setId(12L);
+        OrderDto firstDto = OrderDto.builder().userName("first").build();
+        OrderDto secondDto = OrderDto.builder().userName("second").build();
+
+        // when
+        when(orderRepository.findOrderIdsAfter(10L, PageRequest.of(0, 3))).thenReturn(List.of(11L, 12L, 13L));
+        when(orderRepository.findAllWithOrderItemsAndProductsByIds(List.of(11L, 12L))).thenReturn(List.of(second, first));
+        when(orderConverter.convertModelToDto(first)).thenReturn(firstDto);
+        when(orderConverter.convertModelToDto(second)).thenReturn(secondDto);
+        PaginatedOrderResponse result = orderService.getOrdersAfter(KeysetPagination.cursor(10L), 2, false);
+
+        // then
+        assertEquals(List.of(firstDto, secondDto), result.getOrders());
+        assertEquals(KeysetPagination.cursor(12L), result.getNextCursor());
+        assertNull(result.getNumberOfItems());
+        verify(orderRepository, never()).count();
+    }
+
     @Test
     public void getBasketTest() {
         // given
@@ -574,59 +639,42 @@ public class OrderServiceImplTest {
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
+        when(orderRepository.findAllWithOrderItemsByUsernameAndStatus(anyString(), eq(OrderStatus.ACTIVE)))
+                .thenReturn(List.of(order));
         Order actualResult = orderService.getBasket();
 
         // then
         assertNotNull(actualResult);
         assertEquals(order, actualResult);
-        verify(appUserRepository, times(1)).findUserByUsername(anyString());
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1))
+                .findAllWithOrderItemsByUsernameAndStatus(anyString(), eq(OrderStatus.ACTIVE));
+        verify(orderRepository, times(0)).findAllWithOrderItems();
     }
 
     @Test
-    public void getBasketAsOrderItems() {
+    public void getBasketItemsTest() {
         // given
-        OrderItem orderItem = new OrderItem();
-        orderItem.setId(1L);
-        orderItem.setQuantity(1);
-        orderItem.setProduct(new Product());
-        orderItem.getProduct().setId(1L);
-        orderItem.getProduct().setName("product");
-        orderItem.getProduct().setPrice(100.0);
+        BasketItem basketItem = mock(BasketItem.class);
+        when(basketItem.getId()).thenReturn(1L);
+        when(basketItem.getOrderId()).thenReturn(1L);
 
-        Order order = new Order();
-        order.setId(1L);
-        order.setStatus(OrderStatus.ACTIVE);
-        order.setDeliveryPrice(200.0);
-        order.setOrderItems(new HashSet<>());
-        orderItem.setOrder(order);
-        order.getOrderItems().add(orderItem);
-
-        AppUser appUser = new AppUser();
-        appUser.setId(1L);
-        appUser.setUsername("username");
-        appUser.setRole(RoleName.USER);
-        order.setUser(appUser);
-
-        Authentication authentication = new UsernamePasswordAuthenticationToken(appUser, new Object());
+        Authentication authentication = new UsernamePasswordAuthenticationToken("username", new Object());
         SecurityContext securityContext = mock(SecurityContext.class);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
 
         // when
-        when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
-        when(orderRepository.findAllWithOrderItems()).thenReturn(List.of(order));
-        when(orderItemRepository.findAllWithProduct()).thenReturn(List.of(orderItem));
-        List<OrderItem> actualResult = orderService.getBasketAsOrderItems();
+        when(orderItemRepository.findBasketItemsByUsernameAndStatus("username", OrderStatus.ACTIVE))
+                .thenReturn(List.of(basketItem));
+        List<BasketItem> actualResult = orderService.getBasketItems();
 
         // then
         assertNotNull(actualResult);
         assertEquals(1, actualResult.size());
-        assertEquals(orderItem, actualResult.get(0));
-        assertEquals(order.getId(), actualResult.get(0).getOrder().getId());
-        verify(orderItemRepository, times(1)).findAllWithProduct();
+        assertEquals(basketItem, actualResult.get(0));
+        verify(orderItemRepository, times(1)).findBasketItemsByUsernameAndStatus("username", OrderStatus.ACTIVE);
+        verify(orderItemRepository, never()).findAllWithProduct();
+        verify(orderRepository, never()).findAllWithOrderItemsByUsernameAndStatus(anyString(), any());
     }
 
     @Test
@@ -670,7 +718,7 @@ public class OrderServiceImplTest {
         orderDto2.setUserId(userId);
 
         // when
-        when(orderRepository.findAllWithOrderItems()).thenReturn(orders);
+        when(orderRepository.findAllWithOrderItemsAndProductsByUsername(username)).thenReturn(orders);
         when(orderConverter.convertModelToDto(order1)).thenReturn(orderDto1);
         when(orderConverter.convertModelToDto(order2)).thenReturn(orderDto2);
         List<OrderDto> actualResult = orderService.searchOrdersByUsername(username);
@@ -687,7 +735,7 @@ public class OrderServiceImplTest {
         assertEquals(orderDto2.getDeliveryPrice(), actualResult.get(1).getDeliveryPrice());
         assertEquals(orderDto2.getUserId(), actualResult.get(1).getUserId());
 
-        verify(orderRepository, times(1)).findAllWithOrderItems();
+        verify(orderRepository, times(1)).findAllWithOrderItemsAndProductsByUsername(username);
         verify(orderConverter, times(1)).convertModelToDto(order1);
         verify(orderConverter, times(1)).convertModelToDto(order2);
     }
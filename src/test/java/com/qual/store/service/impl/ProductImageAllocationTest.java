@@ -0,0 +1,139 @@
+package com.qual.store.service.impl;
+
+import com.qual.store.converter.ProductConverter;
+import com.qual.store.dto.ProductDto;
+import com.qual.store.model.*;
+import com.qual.store.model.enums.RoleName;
+import com.qual.store.repository.AppUserRepository;
+import com.qual.store.repository.CategoryRepository;
+import com.qual.store.repository.ImageRepository;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.search.ProductSearchIndex;
+import com.qual.store.service.ProductService;
+import com.qual.store.storage.ImageContentCleaner;
+import com.qual.store.storage.ImageDerivativeGenerator;
+import com.qual.store.storage.LocalFileSystemImageStorage;
+import com.qual.store.utils.ProductRatingCalculator;
+import com.qual.store.utils.validators.ProductValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// the /api/products path must read image metadata only: the legacy pic_byte column is filled and the image storage
+// is empty, so reading either would show in the allocations or fail
+@DataJpaTest
+@Import({ProductServiceImpl.class, ImageServiceImpl.class, ProductConverter.class,
+        ProductValidator.class, ProductRatingCalculator.class, ProductSearchIndex.class,
+        LocalFileSystemImageStorage.class, ImageDerivativeGenerator.class, ImageContentCleaner.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductImageAllocationTest {
+
+    private static final int PRODUCTS = 10;
+    private static final int IMAGES_PER_PRODUCT = 3;
+    private static final int IMAGE_SIZE = 1024 * 1024;
+    private static final long IMAGE_BYTES = (long) PRODUCTS * IMAGES_PER_PRODUCT * IMAGE_SIZE;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    static Path imageLocation;
+
+    @DynamicPropertySource
+    static void imageStorageProperties(DynamicPropertyRegistry registry) {
+        registry.add("store.images.location", () -> imageLocation.toString());
+    }
+
+    @BeforeEach
+    void setup() {
+        AppUser appUser = appUserRepository.save(AppUser.builder()
+                .username("allocationUser")
+                .email("allocation@test.com")
+                .role(RoleName.USER)
+                .build());
+        Category category = categoryRepository.save(Category.builder().name("Allocation").build());
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Product " + i)
+                    .description("Description " + i)
+                    .price(10)
+                    .unitsInStock(5)
+                    .category(category)
+                    .user(appUser)
+                    .reviews(new ArrayList<>())
+                    .images(new HashSet<>())
+                    .favoriteByUsers(new HashSet<>())
+                    .build());
+            for (int j = 0; j < IMAGES_PER_PRODUCT; j++) {
+                imageRepository.save(ImageModel.builder()
+                        .name("product-" + i + "-" + j + ".jpg")
+                        .type("image/jpeg")
+                        .contentHash(String.format("%064x", i * IMAGES_PER_PRODUCT + j))
+                        .size((long) IMAGE_SIZE)
+                        .product(product)
+                        .build());
+            }
+        }
+
+        // as left by earlier versions before their content is moved to the image storage
+        jdbcTemplate.execute("alter table image_model add column if not exists pic_byte blob");
+        jdbcTemplate.update("update image_model set pic_byte = ?", (Object) new byte[IMAGE_SIZE]);
+    }
+
+    @Test
+    void getAllProductDtosTest() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        // the first call also pays for the query plans
+        productService.getAllProductDtos();
+
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        List<ProductDto> products = productService.getAllProductDtos();
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+
+        assertEquals(PRODUCTS, products.size());
+        products.forEach(productDto -> assertEquals(IMAGES_PER_PRODUCT, productDto.getImagesName().size()));
+        assertTrue(allocated < IMAGE_BYTES / 10,
+                String.format("reading %s products allocated %s bytes, their images hold %s bytes",
+                        PRODUCTS, allocated, IMAGE_BYTES));
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.execute("alter table image_model drop column if exists pic_byte");
+        jdbcTemplate.execute("delete from image_model");
+        jdbcTemplate.execute("delete from products");
+        jdbcTemplate.execute("delete from categories");
+        jdbcTemplate.execute("delete from app_users");
+    }
+}
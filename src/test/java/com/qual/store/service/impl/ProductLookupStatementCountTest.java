@@ -0,0 +1,230 @@
+package com.qual.store.service.impl;
+
+import com.qual.store.converter.ProductConverter;
+import com.qual.store.dto.request.ProductRequestDto;
+import com.qual.store.model.*;
+import com.qual.store.model.enums.RoleName;
+import com.qual.store.repository.AppUserRepository;
+import com.qual.store.repository.CategoryRepository;
+import com.qual.store.repository.ImageRepository;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.search.ProductSearchIndex;
+import com.qual.store.service.ImageService;
+import com.qual.store.service.ProductService;
+import com.qual.store.storage.ImageContentCleaner;
+import com.qual.store.storage.ImageDerivativeGenerator;
+import com.qual.store.storage.LocalFileSystemImageStorage;
+import com.qual.store.utils.ProductRatingCalculator;
+import com.qual.store.utils.validators.ProductValidator;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// every single-product lookup must issue the same number of statements no matter how large the catalog is
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ProductServiceImpl.class, ImageServiceImpl.class, ProductConverter.class,
+        ProductValidator.class, ProductRatingCalculator.class, ProductSearchIndex.class,
+        LocalFileSystemImageStorage.class, ImageDerivativeGenerator.class, ImageContentCleaner.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductLookupStatementCountTest {
+
+    private static final String USERNAME = "statementCountUser";
+    private static final int CATALOG_GROWTH = 50;
+    private static final long MAX_STATEMENTS = 10;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private ImageService imageService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private AppUserRepository appUserRepository;
+    @Autowired
+    private ImageRepository imageRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    static Path imageLocation;
+
+    private Statistics statistics;
+    private Category category;
+    private AppUser appUser;
+    private Product product;
+
+    @DynamicPropertySource
+    static void imageStorageProperties(DynamicPropertyRegistry registry) {
+        registry.add("store.images.location", () -> imageLocation.toString());
+    }
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        appUser = appUserRepository.save(AppUser.builder()
+                .username(USERNAME)
+                .email("statement@count.com")
+                .role(RoleName.USER)
+                .build());
+        category = categoryRepository.save(Category.builder().name("Statement count").build());
+        product = productRepository.save(newProduct("Looked up product"));
+
+        // a new context: unit tests run before this one on the same thread may leave a mocked one behind
+        SecurityContextHolder.setContext(
+                new SecurityContextImpl(new UsernamePasswordAuthenticationToken(USERNAME, null)));
+    }
+
+    @Test
+    void getProductByIdTest() {
+        long smallCatalog = countStatements(() -> productService.getProductById(product.getId()));
+        growCatalog();
+        long largeCatalog = countStatements(() -> productService.getProductById(product.getId()));
+
+        assertConstant(smallCatalog, largeCatalog);
+    }
+
+    @Test
+    void updateProductTest() {
+        long smallCatalog = countStatements(() -> productService.updateProduct(product.getId(), updateRequest("First")));
+        growCatalog();
+        long largeCatalog = countStatements(() -> productService.updateProduct(product.getId(), updateRequest("Second")));
+
+        assertConstant(smallCatalog, largeCatalog);
+    }
+
+    @Test
+    void addToFavoritesTest() {
+        long smallCatalog = countStatements(() -> productService.addToFavorites(product.getId()));
+        productService.removeFromFavorites(product.getId());
+        growCatalog();
+        long largeCatalog = countStatements(() -> productService.addToFavorites(product.getId()));
+
+        assertConstant(smallCatalog, largeCatalog);
+    }
+
+    @Test
+    void removeFromFavoritesTest() {
+        productService.addToFavorites(product.getId());
+        long smallCatalog = countStatements(() -> productService.removeFromFavorites(product.getId()));
+        productService.addToFavorites(product.getId());
+        growCatalog();
+        long largeCatalog = countStatements(() -> productService.removeFromFavorites(product.getId()));
+
+        assertConstant(smallCatalog, largeCatalog);
+    }
+
+    @Test
+    void saveImageModelTest() {
+        long smallCatalog = countStatements(() -> imageService.saveImageModel(imageFile("first.png"), product.getId()));
+        imageService.deleteImageModelByName("first.png");
+        growCatalog();
+        long largeCatalog = countStatements(() -> imageService.saveImageModel(imageFile("second.png"), product.getId()));
+
+        assertConstant(smallCatalog, largeCatalog);
+    }
+
+    @Test
+    void deleteImageModelByNameTest() {
+        saveImage("first.png");
+        long smallCatalog = countStatements(() -> imageService.deleteImageModelByName("first.png"));
+        growCatalog();
+        saveImage("second.png");
+        long largeCatalog = countStatements(() -> imageService.deleteImageModelByName("second.png"));
+
+        assertConstant(smallCatalog, largeCatalog);
+    }
+
+    private void assertConstant(long smallCatalog, long largeCatalog) {
+        assertEquals(smallCatalog, largeCatalog);
+        assertTrue(largeCatalog <= MAX_STATEMENTS,
+                String.format("expected at most %s statements but %s were issued", MAX_STATEMENTS, largeCatalog));
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void growCatalog() {
+        for (int i = 0; i < CATALOG_GROWTH; i++) {
+            productRepository.save(newProduct("Catalog product " + i));
+        }
+    }
+
+    private Product newProduct(String name) {
+        return Product.builder()
+                .name(name)
+                .description("Description of " + name)
+                .price(10)
+                .unitsInStock(5)
+                .category(category)
+                .user(appUser)
+                .reviews(new ArrayList<>())
+                .images(new HashSet<>())
+                .favoriteByUsers(new HashSet<>())
+                .build();
+    }
+
+    private ProductRequestDto updateRequest(String name) {
+        return ProductRequestDto.builder()
+                .name(name)
+                .description("Updated description")
+                .price(20.0)
+                .unitsInStock(10L)
+                .discountPercentage(5.0)
+                .build();
+    }
+
+    private MockMultipartFile imageFile(String name) {
+        return new MockMultipartFile("imageFile", name, "image/png", new byte[]{1, 2, 3, 4});
+    }
+
+    private void saveImage(String name) {
+        imageRepository.save(ImageModel.builder()
+                .name(name)
+                .type("image/png")
+                .contentHash("c".repeat(64))
+                .size(4L)
+                .product(product)
+                .build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        SecurityContextHolder.clearContext();
+        jdbcTemplate.execute("delete from user_favorite_products");
+        jdbcTemplate.execute("delete from image_model");
+        jdbcTemplate.execute("delete from products");
+        jdbcTemplate.execute("delete from categories");
+        jdbcTemplate.execute("delete from app_users");
+    }
+}
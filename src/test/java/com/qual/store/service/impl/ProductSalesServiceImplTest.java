@@ -0,0 +1,187 @@
+package com.qual.store.service.impl;
+
+import com.qual.store.cache.ProductChangedEvent;
+import com.qual.store.model.Order;
+import com.qual.store.model.OrderItem;
+import com.qual.store.model.Product;
+import com.qual.store.model.ProductSales;
+import com.qual.store.model.enums.OrderStatus;
+import com.qual.store.repository.OrderItemRepository;
+import com.qual.store.repository.ProductRepository;
+import com.qual.store.repository.ProductSalesRepository;
+import com.qual.store.repository.projection.ProductQuantity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class ProductSalesServiceImplTest {
+
+    @Mock
+    private ProductSalesRepository productSalesRepository;
+    @Mock
+    private OrderItemRepository orderItemRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @InjectMocks
+    private ProductSalesServiceImpl productSalesService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setup() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void updateSalesAddsQuantitiesWhenOrderIsPlacedTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.PLACED, 1L, 3);
+
+        // when
+        when(productSalesRepository.addUnitsSold(1L, 3L)).thenReturn(1);
+        productSalesService.updateSales(order, OrderStatus.CHECKOUT);
+
+        // then
+        verify(productSalesRepository, times(1)).addUnitsSold(1L, 3L);
+        verify(productSalesRepository, times(0)).save(any());
+    }
+
+    @Test
+    void updateSalesCreatesMissingRowTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.PLACED, 1L, 3);
+        Product product = new Product();
+        product.setId(1L);
+
+        // when
+        when(productSalesRepository.addUnitsSold(1L, 3L)).thenReturn(0);
+        when(productRepository.getReferenceById(1L)).thenReturn(product);
+        productSalesService.updateSales(order, OrderStatus.CHECKOUT);
+
+        // then
+        verify(productRepository, times(1)).findAndLockById(1L);
+        verify(productSalesRepository, times(2)).addUnitsSold(1L, 3L);
+        verify(productSalesRepository, times(1)).save(argThat(sales ->
+                sales.getProduct() == product && sales.getUnitsSold() == 3L));
+    }
+
+    @Test
+    void updateSalesUpdatesRowCreatedByConcurrentFirstSaleTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.PLACED, 1L, 3);
+
+        // when
+        when(productSalesRepository.addUnitsSold(1L, 3L)).thenReturn(0, 1);
+        productSalesService.updateSales(order, OrderStatus.CHECKOUT);
+
+        // then
+        verify(productRepository, times(1)).findAndLockById(1L);
+        verify(productSalesRepository, times(2)).addUnitsSold(1L, 3L);
+        verify(productSalesRepository, times(0)).save(any());
+    }
+
+    @Test
+    void updateSalesSubtractsQuantitiesWhenPlacedOrderIsCancelledTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.CANCELLED, 1L, 3);
+
+        // when
+        when(productSalesRepository.addUnitsSold(1L, -3L)).thenReturn(1);
+        productSalesService.updateSales(order, OrderStatus.PLACED);
+
+        // then
+        verify(productSalesRepository, times(1)).addUnitsSold(1L, -3L);
+    }
+
+    @Test
+    void updateSalesPublishesProductChangeWhenPlacedOrderGoesBackToCheckoutTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.CHECKOUT, 1L, 3);
+
+        // when
+        when(productSalesRepository.addUnitsSold(1L, -3L)).thenReturn(1);
+        productSalesService.updateSales(order, OrderStatus.PLACED);
+
+        // then
+        verify(productSalesRepository, times(1)).addUnitsSold(1L, -3L);
+        verify(applicationEventPublisher, times(1))
+                .publishEvent(argThat((ProductChangedEvent event) -> event.getProductId().equals(1L)));
+    }
+
+    @Test
+    void updateSalesIgnoresOrdersThatWereNeverPlacedTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.CANCELLED, 1L, 3);
+
+        // when
+        productSalesService.updateSales(order, OrderStatus.ACTIVE);
+
+        // then
+        verifyNoInteractions(productSalesRepository);
+        verifyNoInteractions(applicationEventPublisher);
+    }
+
+    @Test
+    void removeSalesSubtractsQuantitiesOfPlacedOrderTest() {
+        // given
+        Order order = orderWithItem(OrderStatus.PLACED, 1L, 3);
+
+        // when
+        when(productSalesRepository.addUnitsSold(1L, -3L)).thenReturn(1);
+        productSalesService.removeSales(order);
+
+        // then
+        verify(productSalesRepository, times(1)).addUnitsSold(1L, -3L);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void rebuildSalesTest() {
+        // given
+        ProductQuantity productQuantity = mock(ProductQuantity.class);
+        when(productQuantity.getProductId()).thenReturn(1L);
+        when(productQuantity.getQuantity()).thenReturn(4L);
+        Product product = new Product();
+        product.setId(1L);
+
+        // when
+        when(orderItemRepository.sumQuantityByOrderStatus(OrderStatus.PLACED)).thenReturn(List.of(productQuantity));
+        when(productRepository.getReferenceById(1L)).thenReturn(product);
+        productSalesService.rebuildSales();
+
+        // then
+        verify(productSalesRepository, times(1)).deleteAllInBatch();
+        verify(productSalesRepository, times(1)).save(any(ProductSales.class));
+    }
+
+    private Order orderWithItem(OrderStatus status, Long productId, int quantity) {
+        Product product = new Product();
+        product.setId(productId);
+        OrderItem orderItem = OrderItem.builder()
+                .product(product)
+                .quantity(quantity)
+                .build();
+        Order order = Order.builder()
+                .status(status)
+                .orderItems(new HashSet<>())
+                .build();
+        order.addOrderItem(orderItem);
+        return order;
+    }
+
+    @AfterEach
+    public void closeService() throws Exception {
+        closeable.close();
+    }
+}
@@ -1,13 +1,20 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.ProductConverter;
 import com.qual.store.dto.ProductDto;
 import com.qual.store.dto.paginated.PaginatedProductResponse;
 import com.qual.store.dto.request.ProductRequestDto;
 import com.qual.store.exceptions.DeleteProductException;
+import com.qual.store.exceptions.InvalidSearchException;
 import com.qual.store.exceptions.ProductNotFoundException;
 import com.qual.store.model.*;
 import com.qual.store.repository.*;
+import com.qual.store.search.ProductSearchHits;
+import com.qual.store.search.ProductSearchIndex;
+import com.qual.store.service.ImageService;
+import com.qual.store.storage.ImageContentReleasedEvent;
+import com.qual.store.utils.pagination.KeysetPagination;
 import com.qual.store.utils.validators.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,13 +22,17 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.*;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -42,6 +53,14 @@ class ProductServiceImplTest {
     private ImageRepository imageRepository;
     @Mock
     private ReviewRepository reviewRepository;
+    @Mock
+    private ProductSalesRepository productSalesRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+    @Mock
+    private ImageService imageService;
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -93,6 +112,53 @@ class ProductServiceImplTest {
         verify(validator, times(1)).validate(product);
         verify(productRepository, times(1)).save(product);
         verify(imageRepository, times(0)).save(any(ImageModel.class));
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    public void saveProductCategoryWithImageTest() {
+        //given
+        MockMultipartFile image = new MockMultipartFile("image", "chair.png", "image/png", new byte[]{1, 2, 3});
+        ProductRequestDto productRequestDto = ProductRequestDto.builder()
+                .name("Test Product")
+                .description("Test Description")
+                .price(10.0)
+                .unitsInStock(5L)
+                .discountPercentage(0.0)
+                .image(image)
+                .build();
+        Long categoryId = 1L;
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = Product.builder()
+                .name(productRequestDto.getName())
+                .images(new HashSet<>())
+                .build();
+        ImageModel imageModel = ImageModel.builder()
+                .name("chair.png")
+                .type("image/png")
+                .contentHash("b".repeat(64))
+                .size(3L)
+                .build();
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken(new AppUser(), new Object());
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        // when
+        when(productConverter.convertRequestToModel(productRequestDto)).thenReturn(product);
+        when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(category));
+        when(appUserRepository.findUserByUsername(anyString())).thenReturn(new AppUser());
+        when(imageService.storeImageContent(image)).thenReturn(imageModel);
+        when(productRepository.save(product)).thenReturn(product);
+
+        productService.saveProductCategory(productRequestDto, categoryId);
+
+        // then
+        verify(imageService, times(1)).storeImageContent(image);
+        verify(imageRepository, times(1)).save(imageModel);
+        assertEquals(product, imageModel.getProduct());
     }
 
     @Test
@@ -143,60 +209,81 @@ class ProductServiceImplTest {
     }
 
     @Test
-    void getAllProductsByDiscount() {
+    void getAllProductDtosTest() {
         // given
-        Product productOne = Product.builder().name("Product 1").discountPercentage(0.0).build();
+        Product productOne = Product.builder().name("Product 1").build();
         productOne.setId(1L);
 
-        Product productTwo = Product.builder().name("Product 2").discountPercentage(20.0).build();
-        productTwo.setId(2L);
-
-        List<Product> products = new ArrayList<>();
-        products.add(productOne);
-        products.add(productTwo);
+        ProductDto productDtoOne = ProductDto.builder().name("Product 1").build();
+        productDtoOne.setId(1L);
 
         // when
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(products);
-        when(productConverter.convertModelToDto(any(Product.class))).thenReturn(new ProductDto());
+        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(List.of(productOne));
+        when(productConverter.convertModelToDto(productOne)).thenReturn(productDtoOne);
 
         // then
-        List<Product> result = productService.getAllProductsByDiscount();
+        List<ProductDto> result = productService.getAllProductDtos();
 
-        assertEquals(1, result.size());
-        assertEquals(2L, result.get(0).getId());
+        assertEquals(List.of(productDtoOne), result);
         verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productConverter, times(1)).convertModelToDto(productOne);
     }
 
     @Test
-    void getAllProductsByPriceRange() {
+    void getAllProductsByDiscount() {
         // given
-        double minPrice = 10.0;
-        double maxPrice = 20.0;
+        Product product = Product.builder().name("Product 2").discountPercentage(20.0).build();
+        product.setId(2L);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+        Page<Long> productIdPage = new PageImpl<>(List.of(2L), pageable, 1);
+        ProductDto productDto = ProductDto.builder().name("Product 2").discountPercentage(20.0).build();
+        productDto.setId(2L);
 
-        Product productOne = Product.builder().name("Product 1").price(5.0).build();
-        productOne.setId(1L);
+        // when
+        when(productRepository.findProductIds(any(Specification.class), eq(pageable))).thenReturn(productIdPage);
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(2L))).thenReturn(List.of(product));
+        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
 
-        Product productTwo = Product.builder().name("Product 2").price(15.0).build();
-        productTwo.setId(2L);
+        // then
+        PaginatedProductResponse result = productService.getAllProductsByDiscount(0, 10, "id");
+
+        assertEquals(1, result.getProducts().size());
+        assertEquals(2L, result.getProducts().get(0).getId());
+        assertEquals(1L, result.getNumberOfItems());
+        assertEquals(1, result.getNumberOfPages());
+        verify(productRepository, times(1)).findProductIds(any(Specification.class), eq(pageable));
+        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImagesByIds(List.of(2L));
+        verify(productRepository, times(0)).findAllWithCategoryAndReviewsAndImages();
+    }
 
-        Product productThree = Product.builder().name("Product 3").price(25.0).build();
-        productThree.setId(3L);
+    @Test
+    void getAllProductsByPriceRange() {
+        // given
+        double minPrice = 10.0;
+        double maxPrice = 20.0;
 
-        List<Product> products = new ArrayList<>();
-        products.add(productOne);
-        products.add(productTwo);
-        products.add(productThree);
+        Product product = Product.builder().name("Product 2").price(15.0).build();
+        product.setId(2L);
+        Pageable pageable = PageRequest.of(1, 1, Sort.by("price"));
+        Page<Long> productIdPage = new PageImpl<>(List.of(2L), pageable, 3);
+        ProductDto productDto = ProductDto.builder().name("Product 2").price(15.0).build();
+        productDto.setId(2L);
 
         // when
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(products);
-        when(productConverter.convertModelToDto(any(Product.class))).thenReturn(new ProductDto());
+        when(productRepository.findProductIds(any(Specification.class), eq(pageable))).thenReturn(productIdPage);
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(2L))).thenReturn(List.of(product));
+        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
 
         // then
-        List<Product> result = productService.getAllProductsByPriceRange(minPrice, maxPrice);
-
-        assertEquals(1, result.size());
-        assertEquals(2L, result.get(0).getId());
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        PaginatedProductResponse result = productService.getAllProductsByPriceRange(minPrice, maxPrice, 1, 1, "price");
+
+        assertEquals(1, result.getProducts().size());
+        assertEquals(2L, result.getProducts().get(0).getId());
+        assertEquals(3L, result.getNumberOfItems());
+        assertEquals(3, result.getNumberOfPages());
+        verify(productRepository, times(1)).findProductIds(any(Specification.class), eq(pageable));
+        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImagesByIds(List.of(2L));
+        verify(productRepository, times(0)).findAllWithCategoryAndReviewsAndImages();
     }
 
     @Test
@@ -235,8 +322,7 @@ class ProductServiceImplTest {
 
         // when
         when(productConverter.convertRequestToModel(productRequestDto)).thenReturn(product);
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(List.of(product));
-        when(productRepository.findById(productId)).thenReturn(optionalProduct);
+        when(productRepository.findProductWithCategoryAndReviewsAndImages(productId)).thenReturn(optionalProduct);
         Product updatedProduct = productService.updateProduct(productId, productRequestDto);
 
         // then
@@ -247,8 +333,9 @@ class ProductServiceImplTest {
         assertEquals(productRequestDto.getUnitsInStock(), updatedProduct.getUnitsInStock());
         assertEquals(productRequestDto.getDiscountPercentage(), updatedProduct.getDiscountPercentage());
         verify(validator, times(1)).validate(product);
-        verify(productRepository, times(1)).findById(productId);
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productRepository, times(1)).findProductWithCategoryAndReviewsAndImages(productId);
+        verify(productRepository, times(0)).findAllWithCategoryAndReviewsAndImages();
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
@@ -264,15 +351,15 @@ class ProductServiceImplTest {
                 .build();
 
         // when
-        when(productRepository.findAllWithCategoryAndReviewsAndImages())
-                .thenReturn(new ArrayList<>());
+        when(productRepository.findProductWithCategoryAndReviewsAndImages(productId))
+                .thenReturn(Optional.empty());
 
         // then
         assertThrows(ProductNotFoundException.class, () ->
                 productService.updateProduct(productId, productRequestDto)
         );
         verify(validator, times(1)).validate(any());
-        verify(productRepository, times(0)).findById(any());
+        verify(productRepository, times(1)).findProductWithCategoryAndReviewsAndImages(productId);
         verify(productRepository, times(0)).save(any());
     }
 
@@ -381,6 +468,7 @@ class ProductServiceImplTest {
         category.setId(1L);
         category.setProducts(new ArrayList<>(List.of(product)));
         product.setCategory(category);
+        product.getImages().add(ImageModel.builder().name("image.png").contentHash("a".repeat(64)).build());
 
         // when
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
@@ -394,7 +482,12 @@ class ProductServiceImplTest {
         verify(categoryRepository, times(1)).save(any(Category.class));
         verify(reviewRepository, times(1)).deleteAll(any());
         verify(imageRepository, times(1)).deleteAll(any());
+        verify(productSalesRepository, times(1)).deleteByProductId(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        verify(applicationEventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof ImageContentReleasedEvent released
+                        && released.getContentHashes().equals(List.of("a".repeat(64)))));
     }
 
     @Test
@@ -404,9 +497,10 @@ class ProductServiceImplTest {
         int pageSize = 10;
         String sortBy = "name";
         Product product = new Product();
+        product.setId(1L);
         List<Product> products = List.of(product);
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(sortBy));
-        Page<Product> productPage = new PageImpl<>(products, pageable, products.size());
+        Page<Long> productIdPage = new PageImpl<>(List.of(1L), pageable, products.size());
         ProductDto productDto = new ProductDto();
         PaginatedProductResponse expectedResponse = PaginatedProductResponse.builder()
                 .products(List.of(productDto))
@@ -415,7 +509,8 @@ class ProductServiceImplTest {
                 .build();
 
         // when
-        when(productRepository.findAll(pageable)).thenReturn(productPage);
+        when(productRepository.findProductIds(pageable)).thenReturn(productIdPage);
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(1L))).thenReturn(products);
         when(productConverter.convertModelToDto(any(Product.class))).thenReturn(productDto);
         PaginatedProductResponse actualResponse = productService.getProducts(pageNumber, pageSize, sortBy);
 
@@ -424,11 +519,61 @@ class ProductServiceImplTest {
         assertEquals(expectedResponse.getNumberOfItems(), actualResponse.getNumberOfItems());
         assertEquals(expectedResponse.getNumberOfPages(), actualResponse.getNumberOfPages());
 
-        verify(productRepository, times(1)).findAll(pageable);
+        verify(productRepository, times(1)).findProductIds(pageable);
+        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImagesByIds(List.of(1L));
         verify(productConverter, times(1)).convertModelToDto(product);
         verifyNoMoreInteractions(productRepository);
     }
 
+    @Test
+    public void getProductsAfterTest() {
+        // given
+        Product first = Product.builder().name("First").build();
+        first.setId(4L);
+        Product second = Product.builder().name("Second").build();
+        second.setId(5L);
+        ProductDto firstDto = ProductDto.builder().name("First").build();
+        ProductDto secondDto = ProductDto.builder().name("Second").build();
+
+        // when
+        when(productRepository.findProductIdsAfter(3L, PageRequest.of(0, 3))).thenReturn(List.of(4L, 5L, 6L));
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(4L, 5L)))
+                .thenReturn(List.of(second, first));
+        when(productConverter.convertModelToDto(first)).thenReturn(firstDto);
+        when(productConverter.convertModelToDto(second)).thenReturn(secondDto);
+        PaginatedProductResponse result =
+                productService.getProductsAfter(KeysetPagination.cursor(3L), 2, false);
+
+        // then
+        assertEquals(List.of(firstDto, secondDto), result.getProducts());
+        assertEquals(KeysetPagination.cursor(5L), result.getNextCursor());
+        assertNull(result.getNumberOfItems());
+        assertNull(result.getNumberOfPages());
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    public void getProductsAfterLastPageWithTotalTest() {
+        // given
+        Product last = Product.builder().name("Last").build();
+        last.setId(6L);
+        ProductDto lastDto = ProductDto.builder().name("Last").build();
+
+        // when
+        when(productRepository.findProductIdsAfter(5L, PageRequest.of(0, 3))).thenReturn(List.of(6L));
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(6L))).thenReturn(List.of(last));
+        when(productConverter.convertModelToDto(last)).thenReturn(lastDto);
+        when(productRepository.count()).thenReturn(6L);
+        PaginatedProductResponse result =
+                productService.getProductsAfter(KeysetPagination.cursor(5L), 2, true);
+
+        // then
+        assertEquals(List.of(lastDto), result.getProducts());
+        assertNull(result.getNextCursor());
+        assertEquals(6L, result.getNumberOfItems());
+        assertEquals(3, result.getNumberOfPages());
+    }
+
 
     @Test
     public void getProductByIdTest() {
@@ -439,14 +584,14 @@ class ProductServiceImplTest {
         ProductDto expectedDto = new ProductDto();
 
         // when
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(Collections.singletonList(product));
+        when(productRepository.findProductWithCategoryAndReviewsAndImages(productId)).thenReturn(Optional.of(product));
         when(productConverter.convertModelToDto(product)).thenReturn(expectedDto);
         ProductDto actualDto = productService.getProductById(productId);
 
         // then
         assertEquals(expectedDto, actualDto);
 
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productRepository, times(1)).findProductWithCategoryAndReviewsAndImages(productId);
         verify(productConverter, times(1)).convertModelToDto(product);
         verifyNoMoreInteractions(productRepository);
         verifyNoMoreInteractions(productConverter);
@@ -458,12 +603,12 @@ class ProductServiceImplTest {
         Long productId = 1L;
 
         // when
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(Collections.emptyList());
+        when(productRepository.findProductWithCategoryAndReviewsAndImages(productId)).thenReturn(Optional.empty());
 
         // then
         assertThrows(ProductNotFoundException.class, () -> productService.getProductById(productId));
 
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productRepository, times(1)).findProductWithCategoryAndReviewsAndImages(productId);
         verifyNoMoreInteractions(productRepository);
         verifyNoInteractions(productConverter);
     }
@@ -481,19 +626,43 @@ class ProductServiceImplTest {
         Product product2 = new Product();
         product2.setId(2L);
         product2.setCategory(category);
-        List<Product> productList = List.of(product1, product2);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+        Page<Long> productIdPage = new PageImpl<>(List.of(1L, 2L), pageable, 2);
 
         // when
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(productList);
-        List<Product> result = productService.findProductsByCategory(categoryId);
+        when(productRepository.findProductIds(any(Specification.class), eq(pageable))).thenReturn(productIdPage);
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(1L, 2L)))
+                .thenReturn(List.of(product2, product1));
+        when(productConverter.convertModelToDto(any(Product.class))).thenReturn(new ProductDto());
+        PaginatedProductResponse result = productService.findProductsByCategory(categoryId, 0, 10, "id");
 
         // then
-        assertEquals(productList, result);
+        assertEquals(2, result.getProducts().size());
+        assertEquals(2L, result.getNumberOfItems());
 
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productRepository, times(1)).findProductIds(any(Specification.class), eq(pageable));
+        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImagesByIds(List.of(1L, 2L));
         verifyNoMoreInteractions(productRepository);
     }
 
+    @Test
+    public void filterProductsTest() {
+        // given
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        // when
+        when(productRepository.findProductIds(any(Specification.class), eq(pageable))).thenReturn(Page.empty(pageable));
+        PaginatedProductResponse result = productService.filterProducts(1L, 10.0, 20.0, true, 0, 10, "id");
+
+        // then
+        assertEquals(0, result.getProducts().size());
+        assertEquals(0L, result.getNumberOfItems());
+
+        verify(productRepository, times(1)).findProductIds(any(Specification.class), eq(pageable));
+        verifyNoMoreInteractions(productRepository);
+        verifyNoInteractions(productConverter);
+    }
+
     @Test
     public void addToFavoritesTest() {
         // given
@@ -516,7 +685,7 @@ class ProductServiceImplTest {
 
         // when
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(Collections.singletonList(product));
+        when(productRepository.findProductWithCategoryAndReviewsAndImages(productId)).thenReturn(Optional.of(product));
         when(appUserRepository.save(appUser)).thenReturn(appUser);
 
         productService.addToFavorites(productId);
@@ -524,7 +693,7 @@ class ProductServiceImplTest {
         // then
         assertEquals(1, appUser.getFavoriteProducts().size());
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productRepository, times(1)).findProductWithCategoryAndReviewsAndImages(productId);
         verify(appUserRepository, times(1)).save(any(AppUser.class));
         verifyNoMoreInteractions(appUserRepository);
         verifyNoMoreInteractions(productRepository);
@@ -554,7 +723,7 @@ class ProductServiceImplTest {
 
         // when
         when(appUserRepository.findUserByUsername(anyString())).thenReturn(appUser);
-        when(productRepository.findAllWithCategoryAndReviewsAndImages()).thenReturn(Collections.singletonList(product));
+        when(productRepository.findProductWithCategoryAndReviewsAndImages(productId)).thenReturn(Optional.of(product));
         when(appUserRepository.save(appUser)).thenReturn(appUser);
 
         productService.removeFromFavorites(productId);
@@ -562,7 +731,7 @@ class ProductServiceImplTest {
         // then
         assertEquals(0, appUser.getFavoriteProducts().size());
         verify(appUserRepository, times(1)).findUserByUsername(anyString());
-        verify(productRepository, times(1)).findAllWithCategoryAndReviewsAndImages();
+        verify(productRepository, times(1)).findProductWithCategoryAndReviewsAndImages(productId);
         verify(appUserRepository, times(1)).save(any(AppUser.class));
         verifyNoMoreInteractions(appUserRepository);
         verifyNoMoreInteractions(productRepository);
@@ -613,6 +782,34 @@ class ProductServiceImplTest {
         verifyNoMoreInteractions(productConverter);
     }
 
+    @Test
+    public void getBestSellingProductsTest() {
+        // given
+        Product bestSeller = Product.builder().name("Best seller").build();
+        bestSeller.setId(7L);
+        Product runnerUp = Product.builder().name("Runner up").build();
+        runnerUp.setId(3L);
+        Pageable pageable = PageRequest.of(0, 2);
+        Page<Long> productIds = new PageImpl<>(List.of(7L, 3L), pageable, 5);
+
+        ProductDto bestSellerDto = ProductDto.builder().name("Best seller").build();
+        ProductDto runnerUpDto = ProductDto.builder().name("Runner up").build();
+
+        // when
+        when(productSalesRepository.findBestSellingProductIds(pageable)).thenReturn(productIds);
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(7L, 3L)))
+                .thenReturn(List.of(runnerUp, bestSeller));
+        when(productConverter.convertModelToDto(bestSeller)).thenReturn(bestSellerDto);
+        when(productConverter.convertModelToDto(runnerUp)).thenReturn(runnerUpDto);
+        PaginatedProductResponse result = productService.getBestSellingProducts(0, 2);
+
+        // then
+        assertEquals(List.of(bestSellerDto, runnerUpDto), result.getProducts());
+        assertEquals(5L, result.getNumberOfItems());
+        assertEquals(3, result.getNumberOfPages());
+        verify(productRepository, times(0)).findAllWithCategoryAndReviewsAndImages();
+    }
+
     @Test
     public void searchProductByName_MatchingProductsTest() {
         // given
@@ -627,11 +824,10 @@ class ProductServiceImplTest {
         product2.setId(2L);
 
         List<Product> productList = Arrays.asList(product1, product2);
-        Page<Product> productPage = new PageImpl<>(productList);
 
-        when(productRepository
-                .findAllByNameContainingIgnoreCase(searchQuery, PageRequest.of(pageNumber, pageSize, Sort.by(sortBy))))
-                .thenReturn(productPage);
+        when(productSearchIndex.search(searchQuery, 0, pageSize, false))
+                .thenReturn(new ProductSearchHits(List.of(1L, 2L), 2));
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(1L, 2L))).thenReturn(productList);
 
         ProductDto productDto1 = ProductDto.builder().name("Test Product 1").build();
         productDto1.setId(1L);
@@ -649,6 +845,69 @@ class ProductServiceImplTest {
         assertEquals(2, result.getProducts().size());
         assertEquals(productDto1.getName(), result.getProducts().get(0).getName());
         assertEquals(productDto2.getName(), result.getProducts().get(1).getName());
+        assertEquals(2L, result.getNumberOfItems());
+        assertEquals(1, result.getNumberOfPages());
+    }
+
+    @Test
+    void searchProductByName_RankedByRelevanceTest() {
+        // given
+        String searchQuery = "Test";
+        int pageNumber = 1;
+        int pageSize = 2;
+
+        Product product = Product.builder().name("Test").build();
+        product.setId(7L);
+        ProductDto productDto = ProductDto.builder().name("Test").build();
+
+        // when
+        when(productSearchIndex.search(searchQuery, 2, pageSize, true))
+                .thenReturn(new ProductSearchHits(List.of(7L), 3));
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(7L))).thenReturn(List.of(product));
+        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
+        PaginatedProductResponse result =
+                productService.searchProductByName(searchQuery, pageNumber, pageSize, "relevance");
+
+        // then
+        assertEquals(List.of(productDto), result.getProducts());
+        assertEquals(3L, result.getNumberOfItems());
+        assertEquals(2, result.getNumberOfPages());
+    }
+
+    @Test
+    void searchProductByName_SortedByProductFieldTest() {
+        // given
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("price"));
+        Product product = Product.builder().name("Test").price(5).build();
+        product.setId(7L);
+        ProductDto productDto = ProductDto.builder().name("Test").price(5).build();
+
+        // when
+        when(productSearchIndex.searchAfter("Test", 0L, 10_001)).thenReturn(List.of(3L, 7L));
+        when(productRepository.findProductIds(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(7L), pageable, 1));
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(7L))).thenReturn(List.of(product));
+        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
+        PaginatedProductResponse result = productService.searchProductByName("Test", 0, 2, "price");
+
+        // then
+        assertEquals(List.of(productDto), result.getProducts());
+        assertEquals(1L, result.getNumberOfItems());
+        verify(productRepository, times(1)).findProductIds(any(Specification.class), eq(pageable));
+        verify(productSearchIndex, never()).search(anyString(), anyInt(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void searchProductByName_TooManyMatchesToSortTest() {
+        // given
+        List<Long> productIds = LongStream.rangeClosed(1, 10_001).boxed().toList();
+
+        // when
+        when(productSearchIndex.searchAfter("a", 0L, 10_001)).thenReturn(productIds);
+
+        // then
+        assertThrows(InvalidSearchException.class, () -> productService.searchProductByName("a", 0, 2, "price"));
+        verify(productRepository, never()).findProductIds(any(Specification.class), any(Pageable.class));
     }
 
     @Test
@@ -659,12 +918,8 @@ class ProductServiceImplTest {
         int pageSize = 10;
         String sortBy = "id";
 
-        List<Product> productList = Collections.emptyList();
-        Page<Product> productPage = new PageImpl<>(productList);
-
-        when(productRepository
-                .findAllByNameContainingIgnoreCase(searchQuery, PageRequest.of(pageNumber, pageSize, Sort.by(sortBy))))
-                .thenReturn(productPage);
+        when(productSearchIndex.search(searchQuery, 0, pageSize, false))
+                .thenReturn(new ProductSearchHits(Collections.emptyList(), 0));
 
         // when
         PaginatedProductResponse result =
@@ -672,42 +927,50 @@ class ProductServiceImplTest {
 
         // then
         assertEquals(0, result.getProducts().size());
+        verify(productRepository, never()).findAllWithCategoryAndReviewsAndImagesByIds(any());
     }
 
     @Test
     void searchProductByName_EmptyQueryTest() {
         // given
+        // an empty query has no terms, so it matches no product
         String searchQuery = "";
         int pageNumber = 0;
         int pageSize = 10;
         String sortBy = "id";
 
-        Product product1 = Product.builder().name("Test Product 1").build();
-        product1.setId(1L);
-        Product product2 = Product.builder().name("Another Test Product").build();
-        product2.setId(2L);
+        when(productSearchIndex.search(searchQuery, 0, pageSize, false))
+                .thenReturn(new ProductSearchHits(Collections.emptyList(), 0));
 
-        List<Product> productList = Arrays.asList(product1, product2);
-        Page<Product> productPage = new PageImpl<>(productList);
-
-        when(productRepository.findAllByNameContainingIgnoreCase(searchQuery, PageRequest.of(pageNumber, pageSize, Sort.by(sortBy))))
-                .thenReturn(productPage);
+        // when
+        PaginatedProductResponse result = productService.searchProductByName(searchQuery, pageNumber, pageSize, sortBy);
 
-        ProductDto productDto1 = ProductDto.builder().name("Test Product 1").build();
-        productDto1.setId(1L);
-        ProductDto productDto2 = ProductDto.builder().name("Another Test Product").build();
-        productDto2.setId(2L);
+        // then
+        assertEquals(0, result.getProducts().size());
+        assertEquals(0L, result.getNumberOfItems());
+        verifyNoInteractions(productRepository);
+    }
 
-        when(productConverter.convertModelToDto(product1)).thenReturn(productDto1);
-        when(productConverter.convertModelToDto(product2)).thenReturn(productDto2);
+    @Test
+    void searchProductByNameAfterTest() {
+        // given
+        String searchQuery = "Test";
+        Product product = Product.builder().name("Test Product 3").build();
+        product.setId(3L);
+        ProductDto productDto = ProductDto.builder().name("Test Product 3").build();
 
         // when
-        PaginatedProductResponse result = productService.searchProductByName(searchQuery, pageNumber, pageSize, sortBy);
+        when(productSearchIndex.searchAfter(searchQuery, 0L, 11)).thenReturn(List.of(3L));
+        when(productRepository.findAllWithCategoryAndReviewsAndImagesByIds(List.of(3L))).thenReturn(List.of(product));
+        when(productConverter.convertModelToDto(product)).thenReturn(productDto);
+        when(productSearchIndex.count(searchQuery)).thenReturn(1L);
+        PaginatedProductResponse result = productService.searchProductByNameAfter(searchQuery, null, null, true);
 
         // then
-        assertEquals(2, result.getProducts().size());
-        assertEquals(productDto1.getName(), result.getProducts().get(0).getName());
-        assertEquals(productDto2.getName(), result.getProducts().get(1).getName());
+        assertEquals(List.of(productDto), result.getProducts());
+        assertNull(result.getNextCursor());
+        assertEquals(1L, result.getNumberOfItems());
+        assertEquals(1, result.getNumberOfPages());
     }
 
     @AfterEach
@@ -1,5 +1,6 @@
 package com.qual.store.service.impl;
 
+import com.qual.store.cache.ProductChangedEvent;
 import com.qual.store.converter.ReviewConverter;
 import com.qual.store.dto.ReviewDto;
 import com.qual.store.dto.request.ReviewRequestDto;
@@ -17,6 +18,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -46,6 +48,9 @@ class ReviewServiceImplTest {
     @Mock
     private AppUserRepository appUserRepository;
 
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private ReviewServiceImpl reviewService;
 
@@ -154,6 +159,7 @@ class ReviewServiceImplTest {
         verify(reviewRepository, times(1)).findByTitle(review.getTitle());
         verify(productRepository, times(1)).findById(productId);
         verify(productRepository, times(1)).save(product);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
         verifyNoMoreInteractions(reviewRepository);
         verifyNoMoreInteractions(productRepository);
     }
@@ -164,6 +170,9 @@ class ReviewServiceImplTest {
         Long reviewId = 1L;
         ReviewRequestDto reviewRequestDto = ReviewRequestDto.builder().build();
         Review review = new Review();
+        Product product = Product.builder().build();
+        product.setId(1L);
+        review.setProduct(product);
         Optional<Review> reviewOptional = Optional.of(review);
         ReviewDto reviewDto = ReviewDto.builder().build();
 
@@ -176,6 +185,7 @@ class ReviewServiceImplTest {
         assertNotNull(result);
         verify(reviewValidator, times(1)).validate(reviewRequestDto);
         verify(reviewRepository, times(2)).findById(reviewId);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
         verifyNoMoreInteractions(reviewRepository);
     }
 
@@ -251,6 +261,7 @@ class ReviewServiceImplTest {
         verify(productRepository, times(1)).findById(anyLong());
         verify(reviewRepository, times(1)).delete(review);
         verify(productRepository, times(1)).save(product);
+        verify(applicationEventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
         verifyNoMoreInteractions(reviewRepository);
         verifyNoMoreInteractions(productRepository);
     }
@@ -0,0 +1,111 @@
+package com.qual.store.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AccountingConnectionProviderTest {
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void countsRowsAndTimesExecutionsTest() throws SQLException {
+        // given
+        when(connection.prepareStatement("select p.id from product p")).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(1)).thenReturn(7L);
+        SqlRequestStatistics statistics = SqlAccounting.begin();
+
+        // when
+        PreparedStatement statement = AccountingConnectionProvider.wrap(connection)
+                .prepareStatement("select p.id from product p");
+        ResultSet rows = statement.executeQuery();
+        while (rows.next()) {
+            assertEquals(7L, rows.getLong(1));
+        }
+
+        // then
+        assertEquals(2, statistics.getRowCount());
+        assertTrue(statistics.getJdbcNanos() > 0);
+        verify(resultSet, times(3)).next();
+    }
+
+    @Test
+    public void proxiesAreOnlyEqualToThemselvesTest() throws SQLException {
+        // given
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        Connection wrapped = AccountingConnectionProvider.wrap(connection);
+
+        // when
+        PreparedStatement first = wrapped.prepareStatement("select 1");
+        PreparedStatement second = wrapped.prepareStatement("select 1");
+        Set<PreparedStatement> statements = new HashSet<>();
+        statements.add(first);
+
+        // then
+        assertTrue(statements.contains(first));
+        assertFalse(statements.contains(second));
+    }
+
+    @Test
+    public void outsideRequestsNothingIsCountedTest() throws SQLException {
+        // given
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+
+        // when
+        ResultSet rows = AccountingConnectionProvider.wrap(connection).prepareStatement("select 1").executeQuery();
+
+        // then
+        assertTrue(rows.next());
+        assertFalse(rows.next());
+        assertNull(SqlAccounting.current());
+    }
+
+    @Test
+    public void exceptionsAreNotWrappedTest() throws SQLException {
+        // given
+        when(connection.prepareStatement(anyString())).thenThrow(new SQLException("broken"));
+
+        // when
+        Connection wrapped = AccountingConnectionProvider.wrap(connection);
+
+        // then
+        SQLException exception = assertThrows(SQLException.class, () -> wrapped.prepareStatement("select 1"));
+        assertEquals("broken", exception.getMessage());
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        SqlAccounting.end();
+        closeable.close();
+    }
+}
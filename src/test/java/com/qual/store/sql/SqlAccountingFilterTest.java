@@ -0,0 +1,69 @@
+package com.qual.store.sql;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.mockito.Mockito.*;
+
+class SqlAccountingFilterTest {
+
+    @Mock
+    private SqlStatistics sqlStatistics;
+
+    @InjectMocks
+    private SqlAccountingFilter sqlAccountingFilter;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void init() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void recordsUnderMatchedRouteTest() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/42");
+        MockFilterChain filterChain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) {
+                servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                        "/api/products/{productId}");
+            }
+        };
+
+        // when
+        sqlAccountingFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        // then
+        verify(sqlStatistics, times(1))
+                .record(eq("GET"), eq("/api/products/{productId}"), any(SqlRequestStatistics.class));
+    }
+
+    @Test
+    public void skipsRequestWithoutHandlerTest() throws Exception {
+        // given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/favicon.ico");
+
+        // when
+        sqlAccountingFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // then
+        verify(sqlStatistics, never()).record(anyString(), anyString(), any(SqlRequestStatistics.class));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.qual.store.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlRequestStatisticsTest {
+
+    @Test
+    public void repeatedSelectsTest() {
+        // given
+        SqlRequestStatistics statistics = new SqlRequestStatistics();
+        statistics.statement("select p.id from product p", "ProductController.getAllProducts");
+        for (int i = 0; i < 5; i++) {
+            statistics.statement("select r.id from review r where r.product_id=?", "ProductServiceImpl.getAllProducts");
+            statistics.statement("insert into review (id,product_id) values (?,?)", "ReviewServiceImpl.addReview");
+        }
+
+        // when
+        List<SqlRequestStatistics.RepeatedStatement> repeated = statistics.getRepeatedSelects(5);
+
+        // then
+        assertEquals(11, statistics.getStatementCount());
+        assertEquals(1, repeated.size());
+        assertEquals("select r.id from review r where r.product_id=?", repeated.get(0).getSql());
+        assertEquals(5, repeated.get(0).getCount());
+        assertEquals("ProductServiceImpl.getAllProducts", repeated.get(0).getMethod());
+        assertTrue(statistics.getRepeatedSelects(6).isEmpty());
+    }
+
+    @Test
+    public void inListsOfAnyLengthAreOneShapeTest() {
+        // given
+        SqlRequestStatistics statistics = new SqlRequestStatistics();
+
+        // when
+        statistics.statement("select c.id from category c where c.id in (?,?)", null);
+        statistics.statement("select c.id from category c where c.id in (?, ?, ?)", null);
+        statistics.statement("select c.id from category c where c.id in (?)", null);
+
+        // then
+        List<SqlRequestStatistics.RepeatedStatement> repeated = statistics.getRepeatedSelects(3);
+        assertEquals(1, repeated.size());
+        assertEquals("select c.id from category c where c.id in (?)", repeated.get(0).getSql());
+        assertNull(repeated.get(0).getMethod());
+    }
+}
@@ -0,0 +1,102 @@
+package com.qual.store.storage;
+
+import com.qual.store.repository.ImageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImageContentCleanerTest {
+
+    private static final String SHARED_CONTENT = "a".repeat(64);
+    private static final String RELEASED_CONTENT = "b".repeat(64);
+
+    @Mock
+    private ImageRepository imageRepository;
+    @Mock
+    private ImageStorage imageStorage;
+
+    @InjectMocks
+    private ImageContentCleaner imageContentCleaner;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void onImageContentReleasedTest() {
+        // when
+        when(imageRepository.existsByContentHash(SHARED_CONTENT)).thenReturn(true);
+        when(imageRepository.existsByContentHash(RELEASED_CONTENT)).thenReturn(false);
+        imageContentCleaner.onImageContentReleased(
+                new ImageContentReleasedEvent(List.of(SHARED_CONTENT, RELEASED_CONTENT, RELEASED_CONTENT)));
+
+        // then
+        verify(imageStorage, times(1)).delete(RELEASED_CONTENT);
+        verify(imageStorage, never()).delete(SHARED_CONTENT);
+    }
+
+    @Test
+    void onImageContentStoredTest() {
+        // when
+        when(imageRepository.existsByContentHash(RELEASED_CONTENT)).thenReturn(false);
+        imageContentCleaner.onImageContentStored(new ImageContentStoredEvent(RELEASED_CONTENT));
+
+        // then
+        verify(imageStorage, times(1)).delete(RELEASED_CONTENT);
+    }
+
+    @Test
+    void retainDeletedContentTest() {
+        // when
+        when(imageStorage.exists(RELEASED_CONTENT)).thenReturn(false);
+
+        // then
+        assertFalse(imageContentCleaner.retain(RELEASED_CONTENT));
+    }
+
+    @Test
+    void retainedContentIsDeletedAfterCommitTest() throws Exception {
+        // given
+        when(imageStorage.exists(RELEASED_CONTENT)).thenReturn(true);
+        when(imageRepository.existsByContentHash(RELEASED_CONTENT)).thenReturn(false);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(imageContentCleaner.retain(RELEASED_CONTENT));
+
+            // when
+            CompletableFuture<Void> cleaning = CompletableFuture.runAsync(() -> imageContentCleaner
+                    .onImageContentReleased(new ImageContentReleasedEvent(List.of(RELEASED_CONTENT))));
+
+            // then
+            assertThrows(TimeoutException.class, () -> cleaning.get(200, TimeUnit.MILLISECONDS));
+            verify(imageStorage, never()).delete(RELEASED_CONTENT);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            cleaning.get(5, TimeUnit.SECONDS);
+            verify(imageStorage, times(1)).delete(RELEASED_CONTENT);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+}
@@ -0,0 +1,111 @@
+package com.qual.store.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDerivativeGeneratorTest {
+
+    @TempDir
+    Path location;
+
+    private ImageStorage imageStorage;
+    private ImageDerivativeGenerator imageDerivativeGenerator;
+
+    @BeforeEach
+    void setUp() {
+        imageStorage = new LocalFileSystemImageStorage(location.toString());
+        imageDerivativeGenerator = new ImageDerivativeGenerator(imageStorage, new int[]{1080, 128, 480}, 1, 10);
+    }
+
+    @Test
+    void nearestSizeTest() {
+        assertEquals(OptionalInt.of(128), imageDerivativeGenerator.nearestSize(64));
+        assertEquals(OptionalInt.of(480), imageDerivativeGenerator.nearestSize(200));
+        assertEquals(OptionalInt.of(1080), imageDerivativeGenerator.nearestSize(1080));
+        assertEquals(OptionalInt.empty(), imageDerivativeGenerator.nearestSize(2000));
+    }
+
+    @Test
+    void generateTest() throws Exception {
+        String contentHash = imageStorage.store(png(3000, 1500)).getContentHash();
+
+        imageDerivativeGenerator.generateNow(contentHash);
+
+        assertDerivative(contentHash, 1080, 1080, 540);
+        assertDerivative(contentHash, 480, 480, 240);
+        assertDerivative(contentHash, 128, 128, 64);
+    }
+
+    @Test
+    void generateDoesNotEnlargeTest() throws Exception {
+        String contentHash = imageStorage.store(png(300, 200)).getContentHash();
+
+        imageDerivativeGenerator.generateNow(contentHash);
+
+        assertDerivative(contentHash, 1080, 300, 200);
+        assertDerivative(contentHash, 480, 300, 200);
+        assertDerivative(contentHash, 128, 128, 85);
+    }
+
+    @Test
+    void generateSkipsUnreadableContentTest() throws Exception {
+        String contentHash = imageStorage.store(
+                new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8))).getContentHash();
+
+        imageDerivativeGenerator.generateNow(contentHash);
+
+        assertTrue(imageStorage.loadDerivative(contentHash, 128).isEmpty());
+    }
+
+    @Test
+    void scaleToFitFlattensTransparencyTest() {
+        BufferedImage transparent = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+
+        BufferedImage scaled = ImageDerivativeGenerator.scaleToFit(transparent, 128);
+
+        assertEquals(128, scaled.getWidth());
+        assertEquals(Color.WHITE.getRGB(), scaled.getRGB(64, 64));
+    }
+
+    private void assertDerivative(String contentHash, int size, int width, int height) throws Exception {
+        Resource derivative = imageStorage.loadDerivative(contentHash, size).orElseThrow();
+        try (InputStream content = derivative.getInputStream()) {
+            BufferedImage image = ImageIO.read(content);
+            assertEquals(width, image.getWidth());
+            assertEquals(height, image.getHeight());
+        }
+    }
+
+    private ByteArrayInputStream png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return new ByteArrayInputStream(output.toByteArray());
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageDerivativeGenerator.shutdown();
+    }
+}
@@ -0,0 +1,124 @@
+package com.qual.store.storage;
+
+import com.qual.store.exceptions.ImageModelException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileSystemImageStorageTest {
+
+    // SHA-256 of "image content"
+    private static final String CONTENT_HASH = "b78f9dfd81d9bc073cad0a0e3acb1d6b164ede188bd71beb775b8004d7237117";
+
+    @TempDir
+    Path location;
+
+    private LocalFileSystemImageStorage imageStorage;
+
+    @BeforeEach
+    void setUp() {
+        imageStorage = new LocalFileSystemImageStorage(location.toString());
+    }
+
+    @Test
+    void storeTest() throws Exception {
+        StoredImageContent content = imageStorage.store(stream("image content"));
+
+        assertEquals(CONTENT_HASH, content.getContentHash());
+        assertEquals(13, content.getSize());
+        Path file = location.resolve("b7").resolve("8f").resolve(CONTENT_HASH);
+        assertEquals("image content", Files.readString(file));
+    }
+
+    @Test
+    void storeTheSameContentOnceTest() throws Exception {
+        StoredImageContent first = imageStorage.store(stream("image content"));
+        StoredImageContent second = imageStorage.store(stream("image content"));
+        StoredImageContent other = imageStorage.store(stream("other content"));
+
+        assertEquals(first.getContentHash(), second.getContentHash());
+        assertNotEquals(first.getContentHash(), other.getContentHash());
+        try (Stream<Path> files = Files.walk(location)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void existsTest() {
+        StoredImageContent content = imageStorage.store(stream("image content"));
+
+        assertTrue(imageStorage.exists(content.getContentHash()));
+        imageStorage.delete(content.getContentHash());
+        assertFalse(imageStorage.exists(content.getContentHash()));
+    }
+
+    @Test
+    void loadTest() throws Exception {
+        StoredImageContent content = imageStorage.store(stream("image content"));
+
+        Resource resource = imageStorage.load(content.getContentHash());
+
+        assertEquals(13, resource.contentLength());
+        assertEquals("image content", resource.getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void loadMissingContentTest() {
+        assertThrows(ImageModelException.class, () -> imageStorage.load("0".repeat(64)));
+    }
+
+    @Test
+    void loadRejectsPathsTest() {
+        assertThrows(ImageModelException.class, () -> imageStorage.load("../../etc/passwd"));
+        assertThrows(ImageModelException.class, () -> imageStorage.load(null));
+    }
+
+    @Test
+    void deleteTest() {
+        StoredImageContent content = imageStorage.store(stream("image content"));
+
+        imageStorage.delete(content.getContentHash());
+        imageStorage.delete(content.getContentHash());
+
+        assertThrows(ImageModelException.class, () -> imageStorage.load(content.getContentHash()));
+    }
+
+    @Test
+    void storeDerivativeTest() throws Exception {
+        StoredImageContent content = imageStorage.store(stream("image content"));
+
+        imageStorage.storeDerivative(content.getContentHash(), 128, stream("small"));
+
+        Path file = location.resolve("b7").resolve("8f").resolve(CONTENT_HASH + "-128.jpg");
+        assertEquals("small", Files.readString(file));
+        assertEquals("small", imageStorage.loadDerivative(CONTENT_HASH, 128).orElseThrow()
+                .getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(imageStorage.loadDerivative(CONTENT_HASH, 480).isEmpty());
+    }
+
+    @Test
+    void deleteWithDerivativesTest() {
+        StoredImageContent content = imageStorage.store(stream("image content"));
+        StoredImageContent other = imageStorage.store(stream("other content"));
+        imageStorage.storeDerivative(content.getContentHash(), 128, stream("small"));
+        imageStorage.storeDerivative(other.getContentHash(), 128, stream("other small"));
+
+        imageStorage.delete(content.getContentHash());
+
+        assertTrue(imageStorage.loadDerivative(content.getContentHash(), 128).isEmpty());
+        assertTrue(imageStorage.loadDerivative(other.getContentHash(), 128).isPresent());
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
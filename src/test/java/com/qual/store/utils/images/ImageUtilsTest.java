@@ -0,0 +1,85 @@
+package com.qual.store.utils.images;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageUtilsTest {
+
+    private static final int LARGER_THAN_BUFFER = 300 * 1024;
+
+    @Test
+    void decompressingContentOfEarlierVersionsTest() throws Exception {
+        // given
+        byte[] content = randomContent(LARGER_THAN_BUFFER);
+        byte[] compressed = deflate(content);
+
+        // when
+        byte[] decompressed;
+        try (InputStream input = ImageUtils.decompressing(new ByteArrayInputStream(compressed))) {
+            decompressed = input.readAllBytes();
+        }
+
+        // then
+        assertArrayEquals(content, decompressed);
+    }
+
+    @Test
+    void decompressingTruncatedContentTest() {
+        // given
+        byte[] content = randomContent(LARGER_THAN_BUFFER);
+        byte[] deflated = deflate(content);
+        byte[] compressed = Arrays.copyOf(deflated, deflated.length / 2);
+
+        // then
+        assertThrows(IOException.class, () -> {
+            try (InputStream input = ImageUtils.decompressing(new ByteArrayInputStream(compressed))) {
+                input.readAllBytes();
+            }
+        });
+    }
+
+    @Test
+    void imageTypeOfTest() {
+        assertEquals("image/jpeg", ImageUtils.imageTypeOf(header(0xFF, 0xD8, 0xFF, 0xE1), 4));
+        assertEquals("image/png", ImageUtils.imageTypeOf(header(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A), 8));
+        assertEquals("image/gif", ImageUtils.imageTypeOf(header('G', 'I', 'F', '8', '9', 'a'), 6));
+        assertEquals("image/webp", ImageUtils.imageTypeOf(header('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'E', 'B', 'P'), 12));
+        assertNull(ImageUtils.imageTypeOf("<html><script>".getBytes(StandardCharsets.UTF_8), 12));
+        assertNull(ImageUtils.imageTypeOf(header('R', 'I', 'F', 'F', 0, 0, 0, 0, 'W', 'A', 'V', 'E'), 12));
+        assertNull(ImageUtils.imageTypeOf(header(0xFF, 0xD8), 2));
+    }
+
+    // the content as earlier versions stored it
+    private byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(content);
+        deflater.finish();
+        byte[] buffer = new byte[2 * content.length];
+        byte[] compressed = Arrays.copyOf(buffer, deflater.deflate(buffer));
+        deflater.end();
+        return compressed;
+    }
+
+    private byte[] header(int... bytes) {
+        byte[] header = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            header[i] = (byte) bytes[i];
+        }
+        return header;
+    }
+
+    private byte[] randomContent(int length) {
+        byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+}
@@ -0,0 +1,69 @@
+package com.qual.store.utils.pagination;
+
+import com.qual.store.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Base64;
+import java.util.List;
+
+class KeysetPaginationTest {
+
+    @Test
+    void testLimitDefaultsAndIsClamped() {
+        Assertions.assertEquals(KeysetPagination.DEFAULT_LIMIT, KeysetPagination.limit(null));
+        Assertions.assertEquals(1, KeysetPagination.limit(0));
+        Assertions.assertEquals(25, KeysetPagination.limit(25));
+        Assertions.assertEquals(KeysetPagination.MAX_LIMIT, KeysetPagination.limit(10_000));
+    }
+
+    @Test
+    void testCursorRoundTrip() {
+        Assertions.assertEquals(42L, KeysetPagination.afterId(KeysetPagination.cursor(42L)));
+    }
+
+    @Test
+    void testMissingCursorStartsFromTheBeginning() {
+        Assertions.assertEquals(0L, KeysetPagination.afterId(null));
+        Assertions.assertEquals(0L, KeysetPagination.afterId(" "));
+    }
+
+    @Test
+    void testInvalidCursor() {
+        String foreignCursor = Base64.getUrlEncoder().encodeToString("offset:3".getBytes());
+        String notANumber = Base64.getUrlEncoder().encodeToString("id:abc".getBytes());
+
+        Assertions.assertThrows(InvalidCursorException.class, () -> KeysetPagination.afterId("not base64!"));
+        Assertions.assertThrows(InvalidCursorException.class, () -> KeysetPagination.afterId(foreignCursor));
+        Assertions.assertThrows(InvalidCursorException.class, () -> KeysetPagination.afterId(notANumber));
+    }
+
+    @Test
+    void testSeekReadsOneRowMoreThanTheLimit() {
+        Assertions.assertEquals(PageRequest.of(0, 11), KeysetPagination.seek(10));
+    }
+
+    @Test
+    void testPageWithNextPage() {
+        List<Long> seekedIds = List.of(3L, 5L, 8L);
+
+        Assertions.assertEquals(List.of(3L, 5L), KeysetPagination.page(seekedIds, 2));
+        Assertions.assertEquals(KeysetPagination.cursor(5L), KeysetPagination.nextCursor(seekedIds, 2));
+    }
+
+    @Test
+    void testLastPage() {
+        List<Long> seekedIds = List.of(3L, 5L);
+
+        Assertions.assertEquals(seekedIds, KeysetPagination.page(seekedIds, 2));
+        Assertions.assertNull(KeysetPagination.nextCursor(seekedIds, 2));
+    }
+
+    @Test
+    void testNumberOfPages() {
+        Assertions.assertEquals(0, KeysetPagination.numberOfPages(0, 10));
+        Assertions.assertEquals(1, KeysetPagination.numberOfPages(10, 10));
+        Assertions.assertEquals(2, KeysetPagination.numberOfPages(11, 10));
+    }
+}